@@ -2,6 +2,12 @@ package br.eti.krebscode.blogjhipster.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Properties specific to Blog Jhipster.
  * <p>
@@ -11,4 +17,576 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
 public class ApplicationProperties {
 
+    private final Cache cache = new Cache();
+
+    private final ResponseCache responseCache = new ResponseCache();
+
+    private final EntryImport entryImport = new EntryImport();
+
+    private final EntryExport entryExport = new EntryExport();
+
+    private final ReadReplicas readReplicas = new ReadReplicas();
+
+    private final StatementStatistics statementStatistics = new StatementStatistics();
+
+    private final SlowQueries slowQueries = new SlowQueries();
+
+    private final NotActivatedUsers notActivatedUsers = new NotActivatedUsers();
+
+    private final Purge purge = new Purge();
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public ResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    public EntryImport getEntryImport() {
+        return entryImport;
+    }
+
+    public EntryExport getEntryExport() {
+        return entryExport;
+    }
+
+    public ReadReplicas getReadReplicas() {
+        return readReplicas;
+    }
+
+    public StatementStatistics getStatementStatistics() {
+        return statementStatistics;
+    }
+
+    public SlowQueries getSlowQueries() {
+        return slowQueries;
+    }
+
+    public NotActivatedUsers getNotActivatedUsers() {
+        return notActivatedUsers;
+    }
+
+    public Purge getPurge() {
+        return purge;
+    }
+
+    public static class Cache {
+
+        /**
+         * Per-region settings, keyed by cache name without the domain package prefix
+         * (e.g. "usersByLogin", "Entry", "Entry.tags").
+         */
+        private final Map<String, Region> regions = new HashMap<>();
+
+        private final WarmUp warmUp = new WarmUp();
+
+        private final Invalidation invalidation = new Invalidation();
+
+        public Map<String, Region> getRegions() {
+            return regions;
+        }
+
+        public WarmUp getWarmUp() {
+            return warmUp;
+        }
+
+        public Invalidation getInvalidation() {
+            return invalidation;
+        }
+
+        /**
+         * @param name the region name
+         * @return the settings of the region, or empty settings if it is not configured
+         */
+        public Region getRegion(String name) {
+            return regions.getOrDefault(name, new Region());
+        }
+
+        public static class Region {
+
+            /**
+             * Maximum number of entries kept on heap, defaults to jhipster.cache.ehcache.max-entries.
+             */
+            private Long heapEntries;
+
+            /**
+             * Size of the off-heap tier in MB, 0 disables it.
+             */
+            private long offHeapMb = 0;
+
+            /**
+             * Time to live in seconds, defaults to jhipster.cache.ehcache.time-to-live-seconds.
+             */
+            private Long timeToLiveSeconds;
+
+            /**
+             * Time to idle in seconds; when set it replaces the time to live expiry.
+             */
+            private Long timeToIdleSeconds;
+
+            public Long getHeapEntries() {
+                return heapEntries;
+            }
+
+            public void setHeapEntries(Long heapEntries) {
+                this.heapEntries = heapEntries;
+            }
+
+            public long getOffHeapMb() {
+                return offHeapMb;
+            }
+
+            public void setOffHeapMb(long offHeapMb) {
+                this.offHeapMb = offHeapMb;
+            }
+
+            public Long getTimeToLiveSeconds() {
+                return timeToLiveSeconds;
+            }
+
+            public void setTimeToLiveSeconds(Long timeToLiveSeconds) {
+                this.timeToLiveSeconds = timeToLiveSeconds;
+            }
+
+            public Long getTimeToIdleSeconds() {
+                return timeToIdleSeconds;
+            }
+
+            public void setTimeToIdleSeconds(Long timeToIdleSeconds) {
+                this.timeToIdleSeconds = timeToIdleSeconds;
+            }
+        }
+
+        public static class WarmUp {
+
+            /**
+             * Record the most accessed entities, and load them in the second level cache on startup.
+             */
+            private boolean enabled = true;
+
+            /**
+             * Local file where the ids of the most accessed entities are recorded.
+             */
+            private String file = "cache-warm-up.json";
+
+            /**
+             * Interval between two recordings, in milliseconds.
+             */
+            private long recordIntervalMs = 300_000;
+
+            /**
+             * Maximum number of ids recorded per entity.
+             */
+            private int maxIds = 1000;
+
+            /**
+             * Number of entities loaded by each query of the warm-up.
+             */
+            private int batchSize = 100;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public String getFile() {
+                return file;
+            }
+
+            public void setFile(String file) {
+                this.file = file;
+            }
+
+            public long getRecordIntervalMs() {
+                return recordIntervalMs;
+            }
+
+            public void setRecordIntervalMs(long recordIntervalMs) {
+                this.recordIntervalMs = recordIntervalMs;
+            }
+
+            public int getMaxIds() {
+                return maxIds;
+            }
+
+            public void setMaxIds(int maxIds) {
+                this.maxIds = maxIds;
+            }
+
+            public int getBatchSize() {
+                return batchSize;
+            }
+
+            public void setBatchSize(int batchSize) {
+                this.batchSize = batchSize;
+            }
+        }
+
+        public static class Invalidation {
+
+            public enum Type {
+                JDBC
+            }
+
+            /**
+             * How cache evictions are broadcast to the other instances, unset when running a single instance.
+             */
+            private Type type;
+
+            /**
+             * Interval between two polls of the shared database, in milliseconds.
+             */
+            private long pollIntervalMs = 1000;
+
+            /**
+             * How long invalidations are kept in the shared database, in seconds.
+             */
+            private long retentionSeconds = 3600;
+
+            public Type getType() {
+                return type;
+            }
+
+            public void setType(Type type) {
+                this.type = type;
+            }
+
+            public long getPollIntervalMs() {
+                return pollIntervalMs;
+            }
+
+            public void setPollIntervalMs(long pollIntervalMs) {
+                this.pollIntervalMs = pollIntervalMs;
+            }
+
+            public long getRetentionSeconds() {
+                return retentionSeconds;
+            }
+
+            public void setRetentionSeconds(long retentionSeconds) {
+                this.retentionSeconds = retentionSeconds;
+            }
+        }
+    }
+
+    public static class ResponseCache {
+
+        /**
+         * Also store a gzipped copy of the cached responses.
+         */
+        private boolean gzip = true;
+
+        /**
+         * Minimum size in bytes of a response to be gzipped.
+         */
+        private int gzipMinSize = 1024;
+
+        public boolean isGzip() {
+            return gzip;
+        }
+
+        public void setGzip(boolean gzip) {
+            this.gzip = gzip;
+        }
+
+        public int getGzipMinSize() {
+            return gzipMinSize;
+        }
+
+        public void setGzipMinSize(int gzipMinSize) {
+            this.gzipMinSize = gzipMinSize;
+        }
+    }
+
+    public static class EntryImport {
+
+        /**
+         * Number of entries inserted in each transaction, after which the persistence context is flushed and cleared.
+         */
+        private int batchSize = 500;
+
+        /**
+         * Maximum length of a line, in characters; the longer lines are reported as failed, without being kept.
+         */
+        private int maxLineLength = 1024 * 1024;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getMaxLineLength() {
+            return maxLineLength;
+        }
+
+        public void setMaxLineLength(int maxLineLength) {
+            this.maxLineLength = maxLineLength;
+        }
+    }
+
+    public static class EntryExport {
+
+        /**
+         * Number of rows fetched from the database at a time.
+         */
+        private int fetchSize = 500;
+
+        public int getFetchSize() {
+            return fetchSize;
+        }
+
+        public void setFetchSize(int fetchSize) {
+            this.fetchSize = fetchSize;
+        }
+    }
+
+    public static class ReadReplicas {
+
+        /**
+         * Replicas of the "spring.datasource" database serving the read-only transactions, with the same pool settings.
+         */
+        private final List<Replica> datasources = new ArrayList<>();
+
+        /**
+         * Interval between two health checks of the replicas, in milliseconds.
+         */
+        private long healthCheckIntervalMs = 5000;
+
+        /**
+         * How long the read-only transactions of a user go to the primary after they committed a write, in
+         * milliseconds; 0 to always use the replicas.
+         */
+        private long readYourWritesWindowMs = 0;
+
+        public List<Replica> getDatasources() {
+            return datasources;
+        }
+
+        public long getHealthCheckIntervalMs() {
+            return healthCheckIntervalMs;
+        }
+
+        public void setHealthCheckIntervalMs(long healthCheckIntervalMs) {
+            this.healthCheckIntervalMs = healthCheckIntervalMs;
+        }
+
+        public long getReadYourWritesWindowMs() {
+            return readYourWritesWindowMs;
+        }
+
+        public void setReadYourWritesWindowMs(long readYourWritesWindowMs) {
+            this.readYourWritesWindowMs = readYourWritesWindowMs;
+        }
+
+        public static class Replica {
+
+            private String url;
+
+            private String username;
+
+            private String password;
+
+            public String getUrl() {
+                return url;
+            }
+
+            public void setUrl(String url) {
+                this.url = url;
+            }
+
+            public String getUsername() {
+                return username;
+            }
+
+            public void setUsername(String username) {
+                this.username = username;
+            }
+
+            public String getPassword() {
+                return password;
+            }
+
+            public void setPassword(String password) {
+                this.password = password;
+            }
+        }
+    }
+
+    public static class StatementStatistics {
+
+        /**
+         * Whether to add the number and time of the SQL statements of each API request to its response headers.
+         */
+        private boolean responseHeaders = false;
+
+        /**
+         * Number of executions of the same select statement in one request from which it is reported as a probable
+         * N+1 query.
+         */
+        private int repeatedSelectThreshold = 5;
+
+        public boolean isResponseHeaders() {
+            return responseHeaders;
+        }
+
+        public void setResponseHeaders(boolean responseHeaders) {
+            this.responseHeaders = responseHeaders;
+        }
+
+        public int getRepeatedSelectThreshold() {
+            return repeatedSelectThreshold;
+        }
+
+        public void setRepeatedSelectThreshold(int repeatedSelectThreshold) {
+            this.repeatedSelectThreshold = repeatedSelectThreshold;
+        }
+    }
+
+    public static class SlowQueries {
+
+        /**
+         * Execution time from which a statement is logged, in milliseconds; negative to disable the slow query log.
+         */
+        private long thresholdMs = 500;
+
+        /**
+         * Number of the most recent slow statements kept for /management/slow-queries.
+         */
+        private int capacity = 100;
+
+        /**
+         * Length from which the parameter values are truncated.
+         */
+        private int maxParameterLength = 100;
+
+        /**
+         * Columns whose parameter values are not logged; the values that can't be attributed to a column are not
+         * logged either when the statement uses one of them.
+         */
+        private List<String> redactedColumns = new ArrayList<>(Arrays.asList("password_hash", "activation_key", "reset_key"));
+
+        public long getThresholdMs() {
+            return thresholdMs;
+        }
+
+        public void setThresholdMs(long thresholdMs) {
+            this.thresholdMs = thresholdMs;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public int getMaxParameterLength() {
+            return maxParameterLength;
+        }
+
+        public void setMaxParameterLength(int maxParameterLength) {
+            this.maxParameterLength = maxParameterLength;
+        }
+
+        public List<String> getRedactedColumns() {
+            return redactedColumns;
+        }
+
+        public void setRedactedColumns(List<String> redactedColumns) {
+            this.redactedColumns = redactedColumns;
+        }
+    }
+
+    public static class NotActivatedUsers {
+
+        /**
+         * Number of not activated users removed per transaction by the daily cleanup.
+         */
+        private int chunkSize = 500;
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+    }
+
+    public static class Purge {
+
+        /**
+         * Number of deleted entries or blogs removed per transaction.
+         */
+        private int batchSize = 100;
+
+        /**
+         * Delay between the purges, in milliseconds.
+         */
+        private long intervalMs = 60000;
+
+        /**
+         * Time for which the deleted rows are kept before being removed, in seconds.
+         */
+        private long retentionSeconds = 3600;
+
+        /**
+         * Pause after each batch, as a ratio of the time the batch took, so that the purge only uses a part of the
+         * database time.
+         */
+        private double pauseRatio = 1.0;
+
+        /**
+         * Number of threads waiting for a database connection from which the purge stops until its next run.
+         */
+        private int maxPendingConnections = 0;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getIntervalMs() {
+            return intervalMs;
+        }
+
+        public void setIntervalMs(long intervalMs) {
+            this.intervalMs = intervalMs;
+        }
+
+        public long getRetentionSeconds() {
+            return retentionSeconds;
+        }
+
+        public void setRetentionSeconds(long retentionSeconds) {
+            this.retentionSeconds = retentionSeconds;
+        }
+
+        public double getPauseRatio() {
+            return pauseRatio;
+        }
+
+        public void setPauseRatio(double pauseRatio) {
+            this.pauseRatio = pauseRatio;
+        }
+
+        public int getMaxPendingConnections() {
+            return maxPendingConnections;
+        }
+
+        public void setMaxPendingConnections(int maxPendingConnections) {
+            this.maxPendingConnections = maxPendingConnections;
+        }
+    }
 }
@@ -3,7 +3,12 @@ package br.eti.krebscode.blogjhipster.config;
 import java.time.Duration;
 
 import org.ehcache.config.builders.*;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.expiry.ExpiryPolicy;
+import org.ehcache.impl.serialization.PlainJavaSerializer;
 import org.ehcache.jsr107.Eh107Configuration;
+import org.hibernate.cache.internal.StandardQueryCache;
+import org.hibernate.cache.spi.UpdateTimestampsCache;
 
 import io.github.jhipster.config.jcache.BeanClassLoaderAwareJCacheRegionFactory;
 import io.github.jhipster.config.JHipsterProperties;
@@ -11,38 +16,109 @@ import io.github.jhipster.config.JHipsterProperties;
 import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.*;
+import org.springframework.core.Ordered;
 
+/**
+ * The caching interceptor runs before the other interceptors, see {@link CacheLoadingConfiguration}.
+ */
 @Configuration
-@EnableCaching
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
 public class CacheConfiguration {
 
-    private final javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration;
+    private static final String DOMAIN_PACKAGE_PREFIX = "br.eti.krebscode.blogjhipster.domain.";
 
-    public CacheConfiguration(JHipsterProperties jHipsterProperties) {
-        BeanClassLoaderAwareJCacheRegionFactory.setBeanClassLoader(this.getClass().getClassLoader());
-        JHipsterProperties.Cache.Ehcache ehcache =
-            jHipsterProperties.getCache().getEhcache();
+    private final JHipsterProperties.Cache.Ehcache ehcache;
 
-        jcacheConfiguration = Eh107Configuration.fromEhcacheCacheConfiguration(
-            CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class,
-                ResourcePoolsBuilder.heap(ehcache.getMaxEntries()))
-                .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(ehcache.getTimeToLiveSeconds())))
-                .build());
+    private final ApplicationProperties.Cache cacheProperties;
+
+    public CacheConfiguration(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
+        BeanClassLoaderAwareJCacheRegionFactory.setBeanClassLoader(this.getClass().getClassLoader());
+        this.ehcache = jHipsterProperties.getCache().getEhcache();
+        this.cacheProperties = applicationProperties.getCache();
     }
 
     @Bean
     public JCacheManagerCustomizer cacheManagerCustomizer() {
         return cm -> {
-            cm.createCache(br.eti.krebscode.blogjhipster.repository.UserRepository.USERS_BY_LOGIN_CACHE, jcacheConfiguration);
-            cm.createCache(br.eti.krebscode.blogjhipster.repository.UserRepository.USERS_BY_EMAIL_CACHE, jcacheConfiguration);
-            cm.createCache(br.eti.krebscode.blogjhipster.domain.User.class.getName(), jcacheConfiguration);
-            cm.createCache(br.eti.krebscode.blogjhipster.domain.Authority.class.getName(), jcacheConfiguration);
-            cm.createCache(br.eti.krebscode.blogjhipster.domain.User.class.getName() + ".authorities", jcacheConfiguration);
-            cm.createCache(br.eti.krebscode.blogjhipster.domain.Blog.class.getName(), jcacheConfiguration);
-            cm.createCache(br.eti.krebscode.blogjhipster.domain.Tag.class.getName(), jcacheConfiguration);
-            cm.createCache(br.eti.krebscode.blogjhipster.domain.Entry.class.getName(), jcacheConfiguration);
-            cm.createCache(br.eti.krebscode.blogjhipster.domain.Entry.class.getName() + ".tags", jcacheConfiguration);
+            createCache(cm, br.eti.krebscode.blogjhipster.repository.UserRepository.USERS_BY_LOGIN_CACHE);
+            createCache(cm, br.eti.krebscode.blogjhipster.repository.UserRepository.USERS_BY_EMAIL_CACHE);
+            createCache(cm, br.eti.krebscode.blogjhipster.repository.UserRepository.MISSING_USERS_BY_LOGIN_CACHE);
+            createCache(cm, br.eti.krebscode.blogjhipster.repository.UserRepository.MISSING_USERS_BY_EMAIL_CACHE);
+            createCache(cm, br.eti.krebscode.blogjhipster.service.UserService.ACCOUNTS_CACHE);
+            createCache(cm, br.eti.krebscode.blogjhipster.domain.User.class.getName());
+            createCache(cm, br.eti.krebscode.blogjhipster.domain.Authority.class.getName());
+            createCache(cm, br.eti.krebscode.blogjhipster.domain.User.class.getName() + ".authorities");
+            createCache(cm, br.eti.krebscode.blogjhipster.domain.Blog.class.getName());
+            createCache(cm, br.eti.krebscode.blogjhipster.domain.Tag.class.getName());
+            createCache(cm, br.eti.krebscode.blogjhipster.domain.Entry.class.getName());
+            createCache(cm, br.eti.krebscode.blogjhipster.domain.Entry.class.getName() + ".tags");
+            createCache(cm, br.eti.krebscode.blogjhipster.repository.EntryRepository.ENTRIES_BY_CRITERIA_CACHE);
+            createCache(cm, br.eti.krebscode.blogjhipster.repository.BlogRepository.BLOGS_BY_CRITERIA_CACHE);
+            createCache(cm, br.eti.krebscode.blogjhipster.repository.BlogRepository.BLOG_IDS_BY_HANDLE_CACHE);
+            createCache(cm, br.eti.krebscode.blogjhipster.repository.TagRepository.TAGS_BY_CRITERIA_CACHE);
+            createCache(cm, br.eti.krebscode.blogjhipster.service.EntryService.ENTRY_RESPONSES_CACHE);
+            createCache(cm, br.eti.krebscode.blogjhipster.service.BlogService.BLOG_RESPONSES_CACHE);
+            createCache(cm, StandardQueryCache.class.getName());
+            createUpdateTimestampsCache(cm);
             // jhipster-needle-ehcache-add-entry
         };
     }
+
+    /**
+     * Statistics are enabled on every cache, they are exported by {@link CacheMetricsConfiguration}.
+     */
+    private void createCache(javax.cache.CacheManager cm, String cacheName) {
+        cm.createCache(cacheName, jcacheConfiguration(cacheName));
+        cm.enableStatistics(cacheName, true);
+    }
+
+    /**
+     * The update timestamps of the tables must outlive every cached query result, otherwise a query cached
+     * before an update could be considered up to date once the timestamp of that update has expired.
+     */
+    private void createUpdateTimestampsCache(javax.cache.CacheManager cm) {
+        cm.createCache(UpdateTimestampsCache.REGION_NAME, Eh107Configuration.fromEhcacheCacheConfiguration(
+            CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class,
+                ResourcePoolsBuilder.heap(ehcache.getMaxEntries()))
+                .withExpiry(ExpiryPolicyBuilder.noExpiration())
+                .build()));
+        cm.enableStatistics(UpdateTimestampsCache.REGION_NAME, true);
+    }
+
+    /**
+     * Build the configuration of a cache region from "application.cache.regions", falling back
+     * to the "jhipster.cache.ehcache" settings for anything that is not configured.
+     */
+    private javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration(String cacheName) {
+        ApplicationProperties.Cache.Region region = cacheProperties.getRegion(regionName(cacheName));
+        long heapEntries = region.getHeapEntries() != null ? region.getHeapEntries() : ehcache.getMaxEntries();
+        ResourcePoolsBuilder resourcePools = ResourcePoolsBuilder.heap(heapEntries);
+        if (region.getOffHeapMb() > 0) {
+            resourcePools = resourcePools.offheap(region.getOffHeapMb(), MemoryUnit.MB);
+        }
+        CacheConfigurationBuilder<Object, Object> builder =
+            CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class, resourcePools)
+                .withExpiry(expiryPolicy(region));
+        if (region.getOffHeapMb() > 0) {
+            // Off-heap stores hold serialized copies, Hibernate and Spring cache entries are all Serializable
+            ClassLoader classLoader = this.getClass().getClassLoader();
+            builder = builder
+                .withKeySerializer(new PlainJavaSerializer<>(classLoader))
+                .withValueSerializer(new PlainJavaSerializer<>(classLoader));
+        }
+        return Eh107Configuration.fromEhcacheCacheConfiguration(builder.build());
+    }
+
+    private ExpiryPolicy<Object, Object> expiryPolicy(ApplicationProperties.Cache.Region region) {
+        if (region.getTimeToIdleSeconds() != null) {
+            return ExpiryPolicyBuilder.timeToIdleExpiration(Duration.ofSeconds(region.getTimeToIdleSeconds()));
+        }
+        long timeToLiveSeconds = region.getTimeToLiveSeconds() != null ?
+            region.getTimeToLiveSeconds() : ehcache.getTimeToLiveSeconds();
+        return ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(timeToLiveSeconds));
+    }
+
+    private static String regionName(String cacheName) {
+        return cacheName.startsWith(DOMAIN_PACKAGE_PREFIX) ? cacheName.substring(DOMAIN_PACKAGE_PREFIX.length()) : cacheName;
+    }
 }
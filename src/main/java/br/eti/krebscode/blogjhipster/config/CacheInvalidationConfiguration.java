@@ -0,0 +1,76 @@
+package br.eti.krebscode.blogjhipster.config;
+
+import br.eti.krebscode.blogjhipster.config.cache.BroadcastingCacheManager;
+import br.eti.krebscode.blogjhipster.config.cache.CacheInvalidationBus;
+import br.eti.krebscode.blogjhipster.config.cache.CacheInvalidationHandler;
+import br.eti.krebscode.blogjhipster.config.cache.HibernateCacheInvalidationListener;
+import br.eti.krebscode.blogjhipster.config.cache.JdbcCacheInvalidationBus;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Broadcasts the cache evictions between the instances of the application, when
+ * "application.cache.invalidation.type" is set.
+ * <p>
+ * Both the second level cache and the Spring caches are covered, so that all the instances can keep long
+ * time to live settings without serving stale data.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "application.cache.invalidation", name = "type")
+public class CacheInvalidationConfiguration {
+
+    @Bean
+    public CacheInvalidationBus cacheInvalidationBus(ApplicationProperties applicationProperties, JdbcTemplate jdbcTemplate,
+                                                     PlatformTransactionManager transactionManager) {
+        ApplicationProperties.Cache.Invalidation invalidation = applicationProperties.getCache().getInvalidation();
+        if (invalidation.getType() == ApplicationProperties.Cache.Invalidation.Type.JDBC) {
+            return new JdbcCacheInvalidationBus(jdbcTemplate, transactionManager, invalidation.getRetentionSeconds());
+        }
+        throw new IllegalStateException("Unsupported cache invalidation type: " + invalidation.getType());
+    }
+
+    /**
+     * Decorates the cache manager, the bus is resolved lazily as it depends on beans that use the cache manager.
+     */
+    @Bean
+    public static BeanPostProcessor broadcastingCacheManagerPostProcessor(ObjectProvider<CacheInvalidationBus> cacheInvalidationBus) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof CacheManager && !(bean instanceof BroadcastingCacheManager)) {
+                    return new BroadcastingCacheManager((CacheManager) bean, cacheInvalidationBus::getObject);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public CacheInvalidationHandler cacheInvalidationHandler(CacheInvalidationBus cacheInvalidationBus,
+                                                             EntityManagerFactory entityManagerFactory, CacheManager cacheManager) {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        CacheManager localCacheManager = cacheManager instanceof BroadcastingCacheManager ?
+            ((BroadcastingCacheManager) cacheManager).getTargetCacheManager() : cacheManager;
+        CacheInvalidationHandler cacheInvalidationHandler = new CacheInvalidationHandler(sessionFactory, localCacheManager);
+        cacheInvalidationBus.subscribe(cacheInvalidationHandler);
+
+        HibernateCacheInvalidationListener listener = new HibernateCacheInvalidationListener(cacheInvalidationBus);
+        EventListenerRegistry eventListenerRegistry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        eventListenerRegistry.appendListeners(EventType.POST_COMMIT_INSERT, listener);
+        eventListenerRegistry.appendListeners(EventType.POST_COMMIT_UPDATE, listener);
+        eventListenerRegistry.appendListeners(EventType.POST_COMMIT_DELETE, listener);
+        return cacheInvalidationHandler;
+    }
+}
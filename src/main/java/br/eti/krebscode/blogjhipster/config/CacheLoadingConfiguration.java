@@ -0,0 +1,73 @@
+package br.eti.krebscode.blogjhipster.config;
+
+import br.eti.krebscode.blogjhipster.config.cache.SingleFlight;
+import br.eti.krebscode.blogjhipster.config.cache.SingleFlightGroup;
+import br.eti.krebscode.blogjhipster.config.cache.SingleFlightLoadEventListener;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.LoadEventListener;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.persistence.EntityManagerFactory;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Coalesces the concurrent loads of a missing cache entry, so that an expired hot entry is loaded by a single
+ * query instead of one query per request.
+ */
+@Configuration
+public class CacheLoadingConfiguration {
+
+    @Bean
+    public SingleFlightGroup singleFlightGroup() {
+        return new SingleFlightGroup();
+    }
+
+    /**
+     * Applies to the {@link SingleFlight} methods. It has a lower precedence than the caching interceptor (see
+     * {@link CacheConfiguration}), so that it runs inside it, on cache misses only.
+     */
+    @Bean
+    public Advisor singleFlightAdvisor(SingleFlightGroup singleFlightGroup) {
+        MethodInterceptor interceptor = invocation -> singleFlightGroup.load(
+            Arrays.asList(invocation.getMethod(), Arrays.asList(invocation.getArguments())), () -> {
+                try {
+                    return invocation.proceed();
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new UndeclaredThrowableException(e);
+                }
+            });
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(
+            new AnnotationMatchingPointcut(null, SingleFlight.class, true), interceptor);
+        advisor.setOrder(Ordered.LOWEST_PRECEDENCE);
+        return advisor;
+    }
+
+    /**
+     * Wraps the load listeners of Hibernate, for the entities of the second level cache.
+     */
+    @Bean
+    public SingleFlightLoadEventListener singleFlightLoadEventListener(EntityManagerFactory entityManagerFactory,
+                                                                       SingleFlightGroup singleFlightGroup) {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        EventListenerRegistry eventListenerRegistry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        List<LoadEventListener> listeners = new ArrayList<>();
+        eventListenerRegistry.getEventListenerGroup(EventType.LOAD).listeners().forEach(listeners::add);
+        SingleFlightLoadEventListener listener = new SingleFlightLoadEventListener(listeners, singleFlightGroup);
+        eventListenerRegistry.setListeners(EventType.LOAD, listener);
+        return listener;
+    }
+}
@@ -0,0 +1,200 @@
+package br.eti.krebscode.blogjhipster.config;
+
+import br.eti.krebscode.blogjhipster.repository.BlogRepository;
+import br.eti.krebscode.blogjhipster.repository.EntryRepository;
+import br.eti.krebscode.blogjhipster.repository.TagRepository;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jpa.HibernateMetrics;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.EntityStatistics;
+import org.hibernate.stat.SecondLevelCacheStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Exposes the JCache and Hibernate cache statistics as Micrometer meters.
+ * <p>
+ * The JCache regions are bound from the native cache manager, as the Spring caches may be decorated. The
+ * Hibernate values are only collected when "hibernate.generate_statistics" is enabled.
+ */
+@Configuration
+public class CacheMetricsConfiguration implements SmartInitializingSingleton {
+
+    private static final String[] QUERY_CACHE_REGIONS = {
+        EntryRepository.ENTRIES_BY_CRITERIA_CACHE,
+        BlogRepository.BLOGS_BY_CRITERIA_CACHE,
+        TagRepository.TAGS_BY_CRITERIA_CACHE
+    };
+
+    /**
+     * Same tag as the cache metrics of Spring Boot, which are bound to the "cacheManager" bean.
+     */
+    private static final String CACHE_MANAGER_TAG = "cacheManager";
+
+    /**
+     * Also added by Spring Boot, which binds the same meters when the Spring caches aren't decorated: Prometheus
+     * requires the same tag keys for all the meters of a name.
+     */
+    private static final String CACHE_NAME_TAG = "name";
+
+    private static final String ENTITY_MANAGER_FACTORY_NAME = "entityManagerFactory";
+
+    private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+
+    private final ObjectProvider<CacheManager> jCacheManager;
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    /**
+     * The entity manager factory is resolved lazily: meter binders are applied while the data source,
+     * and so before the entity manager factory, is created.
+     */
+    public CacheMetricsConfiguration(ObjectProvider<EntityManagerFactory> entityManagerFactory,
+                                     ObjectProvider<CacheManager> jCacheManager,
+                                     ObjectProvider<MeterRegistry> meterRegistry) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.jCacheManager = jCacheManager;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Hit, miss, put, eviction and removal counts, size and average get latency of each JCache region.
+     */
+    @Bean
+    public MeterBinder jCacheRegionMetrics() {
+        return registry -> {
+            CacheManager cacheManager = jCacheManager.getIfAvailable();
+            if (cacheManager == null) {
+                return;
+            }
+            for (String cacheName : cacheManager.getCacheNames()) {
+                new JCacheRegionMetrics(cacheManager.getCache(cacheName),
+                    Tags.of(CACHE_MANAGER_TAG, CACHE_MANAGER_TAG, CACHE_NAME_TAG, cacheName)).bindTo(registry);
+            }
+        };
+    }
+
+    /**
+     * Hit, miss and put counts of the query cache regions used by the criteria queries.
+     */
+    @Bean
+    public MeterBinder queryCacheMetrics() {
+        return registry -> {
+            for (String region : QUERY_CACHE_REGIONS) {
+                FunctionCounter.builder("hibernate.query.cache.requests", this,
+                    regionCount(region, SecondLevelCacheStatistics::getHitCount))
+                    .tags("region", region, "result", "hit")
+                    .description("The number of query cache lookups that found a cached result")
+                    .register(registry);
+                FunctionCounter.builder("hibernate.query.cache.requests", this,
+                    regionCount(region, SecondLevelCacheStatistics::getMissCount))
+                    .tags("region", region, "result", "miss")
+                    .description("The number of query cache lookups that had to run the query")
+                    .register(registry);
+                FunctionCounter.builder("hibernate.query.cache.puts", this,
+                    regionCount(region, SecondLevelCacheStatistics::getPutCount))
+                    .tags("region", region)
+                    .description("The number of query results stored in the query cache")
+                    .register(registry);
+            }
+        };
+    }
+
+    /**
+     * Session, query and second level cache statistics of Hibernate, bound once the entity manager factory exists.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        EntityManagerFactory factory = entityManagerFactory.getIfAvailable();
+        if (registry == null || factory == null) {
+            return;
+        }
+        new HibernateMetrics(factory, ENTITY_MANAGER_FACTORY_NAME, Tags.empty()).bindTo(registry);
+        Statistics statistics = factory.unwrap(SessionFactory.class).getStatistics();
+        if (!statistics.isStatisticsEnabled()) {
+            return;
+        }
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            bindSecondLevelCacheRegion(registry, region);
+        }
+        for (String entityName : statistics.getEntityNames()) {
+            bindEntity(registry, entityName);
+        }
+    }
+
+    private void bindSecondLevelCacheRegion(MeterRegistry registry, String region) {
+        FunctionCounter.builder("hibernate.second.level.cache.requests", this,
+            regionCount(region, SecondLevelCacheStatistics::getHitCount))
+            .tags("region", region, "result", "hit")
+            .description("The number of second level cache lookups that found a cached entry")
+            .register(registry);
+        FunctionCounter.builder("hibernate.second.level.cache.requests", this,
+            regionCount(region, SecondLevelCacheStatistics::getMissCount))
+            .tags("region", region, "result", "miss")
+            .description("The number of second level cache lookups that had to hit the database")
+            .register(registry);
+        FunctionCounter.builder("hibernate.second.level.cache.puts", this,
+            regionCount(region, SecondLevelCacheStatistics::getPutCount))
+            .tags("region", region)
+            .description("The number of entries stored in the second level cache")
+            .register(registry);
+    }
+
+    private void bindEntity(MeterRegistry registry, String entityName) {
+        FunctionCounter.builder("hibernate.entity.loads", this, entityCount(entityName, EntityStatistics::getLoadCount))
+            .tags("entity", entityName)
+            .description("The number of loads of this entity, from the database or the second level cache")
+            .register(registry);
+        FunctionCounter.builder("hibernate.entity.fetches", this, entityCount(entityName, EntityStatistics::getFetchCount))
+            .tags("entity", entityName)
+            .description("The number of loads of this entity that had to query the database")
+            .register(registry);
+        FunctionCounter.builder("hibernate.entity.inserts", this, entityCount(entityName, EntityStatistics::getInsertCount))
+            .tags("entity", entityName)
+            .description("The number of inserts of this entity")
+            .register(registry);
+        FunctionCounter.builder("hibernate.entity.updates", this, entityCount(entityName, EntityStatistics::getUpdateCount))
+            .tags("entity", entityName)
+            .description("The number of updates of this entity")
+            .register(registry);
+        FunctionCounter.builder("hibernate.entity.deletes", this, entityCount(entityName, EntityStatistics::getDeleteCount))
+            .tags("entity", entityName)
+            .description("The number of deletes of this entity")
+            .register(registry);
+        FunctionCounter.builder("hibernate.entity.optimistic.failures", this,
+            entityCount(entityName, EntityStatistics::getOptimisticFailureCount))
+            .tags("entity", entityName)
+            .description("The number of stale versions detected on this entity")
+            .register(registry);
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.getObject().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private static ToDoubleFunction<CacheMetricsConfiguration> regionCount(String region,
+            ToLongFunction<SecondLevelCacheStatistics> count) {
+        return configuration -> {
+            SecondLevelCacheStatistics regionStatistics = configuration.statistics().getSecondLevelCacheStatistics(region);
+            return regionStatistics == null ? 0 : count.applyAsLong(regionStatistics);
+        };
+    }
+
+    private static ToDoubleFunction<CacheMetricsConfiguration> entityCount(String entityName,
+            ToLongFunction<EntityStatistics> count) {
+        return configuration -> count.applyAsLong(configuration.statistics().getEntityStatistics(entityName));
+    }
+}
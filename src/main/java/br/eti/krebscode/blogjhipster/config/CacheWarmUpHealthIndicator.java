@@ -0,0 +1,30 @@
+package br.eti.krebscode.blogjhipster.config;
+
+import br.eti.krebscode.blogjhipster.service.CacheWarmUpService;
+
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports the application as out of service until the second level cache is warmed up, so that load balancers
+ * only send traffic to it once its caches are populated.
+ */
+@Component
+public class CacheWarmUpHealthIndicator extends AbstractHealthIndicator {
+
+    private final CacheWarmUpService cacheWarmUpService;
+
+    public CacheWarmUpHealthIndicator(CacheWarmUpService cacheWarmUpService) {
+        this.cacheWarmUpService = cacheWarmUpService;
+    }
+
+    @Override
+    protected void doHealthCheck(Health.Builder builder) {
+        if (cacheWarmUpService.isWarmedUp()) {
+            builder.up();
+        } else {
+            builder.outOfService();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package br.eti.krebscode.blogjhipster.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.ehcache.config.ResourcePools;
+import org.ehcache.config.ResourceType;
+import org.terracotta.context.ContextManager;
+import org.terracotta.context.TreeNode;
+import org.terracotta.context.query.Matcher;
+import org.terracotta.statistics.ValueStatistic;
+
+import javax.cache.Cache;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.terracotta.context.query.Matchers.allOf;
+import static org.terracotta.context.query.Matchers.attributes;
+import static org.terracotta.context.query.Matchers.context;
+import static org.terracotta.context.query.Matchers.hasAttribute;
+import static org.terracotta.context.query.QueryBuilder.queryBuilder;
+
+/**
+ * {@link JCacheMetrics} of an Ehcache region, completed with its number of entries and its average get latency.
+ * <p>
+ * Like the hit, miss, put and eviction counts, the latency is read from the JSR-107 statistics MBean, so the
+ * statistics of the cache must be enabled.
+ */
+public class JCacheRegionMetrics extends JCacheMetrics {
+
+    private static final String HEAP_TIER = "OnHeap";
+
+    private static final String OFF_HEAP_TIER = "OffHeap";
+
+    private final ValueStatistic<?> mappings;
+
+    private final ObjectName statisticsName;
+
+    public JCacheRegionMetrics(Cache<?, ?> cache, Iterable<Tag> tags) {
+        super(cache, tags);
+        @SuppressWarnings("unchecked")
+        org.ehcache.Cache<?, ?> ehcache = cache.unwrap(org.ehcache.Cache.class);
+        // The lowest tier holds every entry of the cache
+        ResourcePools resourcePools = ehcache.getRuntimeConfiguration().getResourcePools();
+        String tier = resourcePools.getPoolForResource(ResourceType.Core.OFFHEAP) != null ? OFF_HEAP_TIER : HEAP_TIER;
+        this.mappings = findMappings(ehcache, tier);
+        try {
+            this.statisticsName = new ObjectName("javax.cache:type=CacheStatistics,CacheManager=" +
+                sanitize(cache.getCacheManager().getURI().toString()) + ",Cache=" + sanitize(cache.getName()));
+        } catch (JMException e) {
+            throw new IllegalArgumentException("Invalid JMX name for the cache " + cache.getName(), e);
+        }
+    }
+
+    @Override
+    protected Long size() {
+        return mappings == null ? null : ((Number) mappings.value()).longValue();
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        super.bindImplementationSpecificMetrics(registry);
+        TimeGauge.builder("cache.gets.latency", this, TimeUnit.MICROSECONDS, JCacheRegionMetrics::averageGetTime)
+            .tags(getTagsWithCacheName())
+            .description("The average duration of the gets of this cache")
+            .register(registry);
+    }
+
+    private double averageGetTime() {
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        try {
+            return ((Number) mBeanServer.getAttribute(statisticsName, "AverageGetTime")).doubleValue();
+        } catch (JMException e) {
+            // The statistics of the cache are not enabled
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * Ehcache has no public API for the number of entries of a cache, it is found in the statistics context tree
+     * the same way its own statistics service does.
+     */
+    private static ValueStatistic<?> findMappings(org.ehcache.Cache<?, ?> ehcache, String tier) {
+        Set<TreeNode> nodes = queryBuilder()
+            .descendants()
+            .filter(context(attributes(allOf(
+                hasAttribute("name", "mappings"),
+                hasAttribute("tags", new Matcher<Set<String>>() {
+                    @Override
+                    protected boolean matchesSafely(Set<String> tags) {
+                        return tags.contains(tier);
+                    }
+                })))))
+            .build()
+            .execute(Collections.singleton(ContextManager.nodeFor(ehcache)));
+        if (nodes.size() != 1) {
+            return null;
+        }
+        return (ValueStatistic<?>) nodes.iterator().next().getContext().attributes().get("this");
+    }
+
+    private static String sanitize(String name) {
+        return name.replaceAll(",|:|=|\n", ".");
+    }
+}
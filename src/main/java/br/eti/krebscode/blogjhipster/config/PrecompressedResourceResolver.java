@@ -0,0 +1,188 @@
+package br.eti.krebscode.blogjhipster.config;
+
+import br.eti.krebscode.blogjhipster.web.rest.util.AcceptEncodingUtil;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.resource.AbstractResourceResolver;
+import org.springframework.web.servlet.resource.HttpResource;
+import org.springframework.web.servlet.resource.ResourceResolverChain;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URL;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Serves the ".br" and ".gz" variants of the static resources, precompressed by webpack, to the clients accepting
+ * them.
+ * <p>
+ * Brotli is preferred over gzip, and the resources with a variant are served with "Vary: Accept-Encoding" whatever
+ * the client accepts. The resources with a content hash in their file name never change, so they are also served
+ * as immutable.
+ */
+public class PrecompressedResourceResolver extends AbstractResourceResolver {
+
+    private static final Logger log = LoggerFactory.getLogger(PrecompressedResourceResolver.class);
+
+    /**
+     * Content codings by order of preference, with the extension of their variant.
+     */
+    private static final Map<String, String> CODINGS = new LinkedHashMap<>();
+
+    static {
+        CODINGS.put("br", ".br");
+        CODINGS.put("gzip", ".gz");
+    }
+
+    /**
+     * The webpack hashes, e.g. "main.0a1b2c3d4e5f6a7b8c9d.bundle.js" or "content/0a1b...9d.svg".
+     */
+    private static final Pattern HASHED_FILE_NAME = Pattern.compile("(?:^|\\.)[0-9a-f]{20,}\\.");
+
+    private static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    @Override
+    protected Resource resolveResourceInternal(HttpServletRequest request, String requestPath,
+                                               List<? extends Resource> locations, ResourceResolverChain chain) {
+        Resource resource = chain.resolveResource(request, requestPath, locations);
+        if (resource == null || request == null || resource.getFilename() == null) {
+            return resource;
+        }
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        boolean precompressed = false;
+        for (Map.Entry<String, String> coding : CODINGS.entrySet()) {
+            Resource variant = variant(resource, coding.getValue());
+            if (variant != null) {
+                if (AcceptEncodingUtil.accepts(acceptEncoding, coding.getKey())) {
+                    return new PrecompressedResource(resource, variant, coding.getKey(), true);
+                }
+                precompressed = true;
+            }
+        }
+        if (precompressed || isHashed(resource)) {
+            return new PrecompressedResource(resource, resource, null, precompressed);
+        }
+        return resource;
+    }
+
+    @Override
+    protected String resolveUrlPathInternal(String resourceUrlPath, List<? extends Resource> locations,
+                                            ResourceResolverChain chain) {
+        return chain.resolveUrlPath(resourceUrlPath, locations);
+    }
+
+    private static Resource variant(Resource resource, String extension) {
+        try {
+            Resource variant = resource.createRelative(resource.getFilename() + extension);
+            return variant.isReadable() ? variant : null;
+        } catch (IOException e) {
+            log.trace("No {} variant of {}: {}", extension, resource, e.getMessage());
+            return null;
+        }
+    }
+
+    private static boolean isHashed(Resource resource) {
+        return HASHED_FILE_NAME.matcher(resource.getFilename()).find();
+    }
+
+    /**
+     * A static resource served from one of its variants, with the file name, and so the media type, of the original.
+     */
+    static final class PrecompressedResource extends AbstractResource implements HttpResource {
+
+        private final Resource original;
+
+        private final Resource variant;
+
+        private final String coding;
+
+        private final boolean negotiated;
+
+        PrecompressedResource(Resource original, Resource variant, String coding, boolean negotiated) {
+            this.original = original;
+            this.variant = variant;
+            this.coding = coding;
+            this.negotiated = negotiated;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return variant.getInputStream();
+        }
+
+        @Override
+        public boolean exists() {
+            return variant.exists();
+        }
+
+        @Override
+        public boolean isReadable() {
+            return variant.isReadable();
+        }
+
+        @Override
+        public URL getURL() throws IOException {
+            return variant.getURL();
+        }
+
+        @Override
+        public URI getURI() throws IOException {
+            return variant.getURI();
+        }
+
+        @Override
+        public File getFile() throws IOException {
+            return variant.getFile();
+        }
+
+        @Override
+        public long contentLength() throws IOException {
+            return variant.contentLength();
+        }
+
+        @Override
+        public long lastModified() throws IOException {
+            return variant.lastModified();
+        }
+
+        @Override
+        public Resource createRelative(String relativePath) throws IOException {
+            return original.createRelative(relativePath);
+        }
+
+        @Override
+        public String getFilename() {
+            return original.getFilename();
+        }
+
+        @Override
+        public String getDescription() {
+            return variant.getDescription();
+        }
+
+        @Override
+        public HttpHeaders getResponseHeaders() {
+            HttpHeaders headers = new HttpHeaders();
+            if (coding != null) {
+                headers.add(HttpHeaders.CONTENT_ENCODING, coding);
+            }
+            if (negotiated) {
+                headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            }
+            if (isHashed(original)) {
+                headers.add(HttpHeaders.CACHE_CONTROL, IMMUTABLE_CACHE_CONTROL);
+            }
+            return headers;
+        }
+    }
+}
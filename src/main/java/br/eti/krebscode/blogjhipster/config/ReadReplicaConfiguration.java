@@ -0,0 +1,161 @@
+package br.eti.krebscode.blogjhipster.config;
+
+import br.eti.krebscode.blogjhipster.config.cache.BroadcastingCacheManager;
+import br.eti.krebscode.blogjhipster.config.cache.ReplicaAwareCacheManager;
+import br.eti.krebscode.blogjhipster.config.datasource.ReplicaRoutingDataSource;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends the read-only transactions to the read replicas, when "application.read-replicas.datasources" is set.
+ * <p>
+ * The primary pool is then built here from the "spring.datasource" properties instead of by Spring Boot, and the
+ * replica pools copy its settings. Only the routing data source is exposed as a bean, so that the pools aren't
+ * picked by the data source initialization of Spring Boot. For a local try, point the replicas to other embedded
+ * H2 databases.
+ * <p>
+ * The persistence contexts of the transactions served by a replica only read the second level and query caches,
+ * so that a lagging replica doesn't fill them with old data; neither do they fill the Spring caches.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "application.read-replicas", name = "datasources[0].url")
+public class ReadReplicaConfiguration {
+
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    /**
+     * The data source used by the application, which only chooses between the primary and a replica on the first
+     * statement of a transaction, once it knows whether the transaction is read-only.
+     */
+    @Bean
+    public DataSource dataSource(DataSourceProperties dataSourceProperties, ApplicationProperties applicationProperties,
+                                 Environment environment, ObjectProvider<MeterRegistry> meterRegistry,
+                                 ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        if (primary.getPoolName() == null) {
+            primary.setPoolName("Hikari");
+        }
+        meterRegistry.ifAvailable(registry -> primary.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+
+        ApplicationProperties.ReadReplicas readReplicas = applicationProperties.getReadReplicas();
+        List<ApplicationProperties.ReadReplicas.Replica> replicaProperties = readReplicas.getDatasources();
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < replicaProperties.size(); i++) {
+            ApplicationProperties.ReadReplicas.Replica replica = replicaProperties.get(i);
+            HikariConfig config = new HikariConfig();
+            primary.copyStateTo(config);
+            config.setPoolName(primary.getPoolName() + "-replica-" + i);
+            config.setJdbcUrl(replica.getUrl());
+            config.setUsername(replica.getUsername() == null ? primary.getUsername() : replica.getUsername());
+            config.setPassword(replica.getPassword() == null ? primary.getPassword() : replica.getPassword());
+            config.setReadOnly(true);
+            // an unavailable replica mustn't prevent the application from starting
+            config.setInitializationFailTimeout(-1);
+            replicas.put(config.getPoolName(), new HikariDataSource(config));
+        }
+        replicaRoutingDataSource = new ReplicaRoutingDataSource(primary, replicas, readReplicas.getReadYourWritesWindowMs());
+        replicaRoutingDataSource.setReplicaReadListener(() -> disableCachePuts(entityManagerFactory.getIfAvailable()));
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    /**
+     * The entity manager of the transaction is only bound by the JPA transaction manager; none is created here.
+     */
+    private static void disableCachePuts(EntityManagerFactory entityManagerFactory) {
+        Object holder = entityManagerFactory == null ? null : TransactionSynchronizationManager.getResource(entityManagerFactory);
+        if (holder instanceof EntityManagerHolder) {
+            ((EntityManagerHolder) holder).getEntityManager().unwrap(Session.class).setCacheMode(CacheMode.GET);
+        }
+    }
+
+    /**
+     * Skips the puts in the Spring caches during the transactions served by a replica, whether or not the cache
+     * invalidation is enabled.
+     */
+    @Bean
+    public static ReplicaAwareCacheManagerPostProcessor replicaAwareCacheManagerPostProcessor() {
+        return new ReplicaAwareCacheManagerPostProcessor();
+    }
+
+    /**
+     * Reports which replicas are in use; the application stays up without them, as the primary takes over.
+     */
+    @Bean
+    public HealthIndicator readReplicasHealthIndicator() {
+        return new AbstractHealthIndicator() {
+            @Override
+            protected void doHealthCheck(Health.Builder builder) {
+                builder.up();
+                replicaRoutingDataSource.getReplicaHealth().forEach((name, healthy) ->
+                    builder.withDetail(name, healthy ? "UP" : "DOWN"));
+            }
+        };
+    }
+
+    @Scheduled(fixedDelayString = "${application.read-replicas.health-check-interval-ms:5000}")
+    public void checkReplicas() {
+        if (replicaRoutingDataSource != null) {
+            replicaRoutingDataSource.checkHealth();
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (replicaRoutingDataSource != null) {
+            replicaRoutingDataSource.close();
+        }
+    }
+
+    /**
+     * Runs before the other post processors, so that the {@link BroadcastingCacheManager} stays the outermost
+     * decorator, which the cache invalidation handler unwraps.
+     */
+    public static class ReplicaAwareCacheManagerPostProcessor implements BeanPostProcessor, Ordered {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof CacheManager && !(bean instanceof ReplicaAwareCacheManager)
+                && !(bean instanceof BroadcastingCacheManager)) {
+                return new ReplicaAwareCacheManager((CacheManager) bean);
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package br.eti.krebscode.blogjhipster.config;
+
+import br.eti.krebscode.blogjhipster.config.datasource.SlowQueryLog;
+import br.eti.krebscode.blogjhipster.config.datasource.StatementStatisticsDataSource;
+import br.eti.krebscode.blogjhipster.web.filter.StatementStatisticsFilter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+/**
+ * Records the number and time of the SQL statements of each API request, see {@link StatementStatisticsFilter}, and
+ * the slow statements, see {@link SlowQueryLog}.
+ */
+@Configuration
+public class StatementStatisticsConfiguration {
+
+    @Bean
+    public SlowQueryLog slowQueryLog(ApplicationProperties applicationProperties) {
+        ApplicationProperties.SlowQueries slowQueries = applicationProperties.getSlowQueries();
+        return new SlowQueryLog(slowQueries.getThresholdMs(), slowQueries.getCapacity(),
+            slowQueries.getMaxParameterLength(), slowQueries.getRedactedColumns());
+    }
+
+    /**
+     * Decorates the data source, whether it is the Hikari pool of Spring Boot or the routing one of the replicas.
+     * The slow query log is resolved lazily, as post processors are created before the configuration properties.
+     */
+    @Bean
+    public static BeanPostProcessor statementStatisticsDataSourcePostProcessor(ObjectProvider<SlowQueryLog> slowQueryLog) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource && !(bean instanceof StatementStatisticsDataSource)) {
+                    return new StatementStatisticsDataSource((DataSource) bean, slowQueryLog.getIfAvailable());
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Runs before the security filters, so that the statements loading the current user are counted too.
+     */
+    @Bean
+    public FilterRegistrationBean<StatementStatisticsFilter> statementStatisticsFilter(
+        ApplicationProperties applicationProperties, ObjectProvider<MeterRegistry> meterRegistry) {
+        ApplicationProperties.StatementStatistics statementStatistics = applicationProperties.getStatementStatistics();
+        FilterRegistrationBean<StatementStatisticsFilter> registration = new FilterRegistrationBean<>(
+            new StatementStatisticsFilter(meterRegistry.getIfAvailable(), statementStatistics.isResponseHeaders(),
+                statementStatistics.getRepeatedSelectThreshold()));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -8,6 +8,7 @@ import io.undertow.UndertowOptions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.web.ResourceProperties;
 import org.springframework.boot.web.embedded.undertow.UndertowServletWebServerFactory;
 import org.springframework.boot.web.server.*;
 import org.springframework.boot.web.servlet.ServletContextInitializer;
@@ -19,6 +20,8 @@ import org.springframework.http.MediaType;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.filter.CorsFilter;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 import javax.servlet.*;
 import java.io.File;
@@ -33,7 +36,14 @@ import static java.net.URLDecoder.decode;
  * Configuration of web application with Servlet 3.0 APIs.
  */
 @Configuration
-public class WebConfigurer implements ServletContextInitializer, WebServerFactoryCustomizer<WebServerFactory> {
+public class WebConfigurer implements ServletContextInitializer, WebServerFactoryCustomizer<WebServerFactory>,
+    WebMvcConfigurer {
+
+    /**
+     * The webpack output: the index, the service worker and the stylesheets at the root, and the bundles, images
+     * and translations in their folders.
+     */
+    private static final String[] WEBPACK_RESOURCE_PATTERNS = {"/*", "/app/**", "/content/**", "/i18n/**"};
 
     private final Logger log = LoggerFactory.getLogger(WebConfigurer.class);
 
@@ -41,10 +51,13 @@ public class WebConfigurer implements ServletContextInitializer, WebServerFactor
 
     private final JHipsterProperties jHipsterProperties;
 
-    public WebConfigurer(Environment env, JHipsterProperties jHipsterProperties) {
+    private final ResourceProperties resourceProperties;
+
+    public WebConfigurer(Environment env, JHipsterProperties jHipsterProperties, ResourceProperties resourceProperties) {
 
         this.env = env;
         this.jHipsterProperties = jHipsterProperties;
+        this.resourceProperties = resourceProperties;
     }
 
     @Override
@@ -146,6 +159,26 @@ public class WebConfigurer implements ServletContextInitializer, WebServerFactor
         cachingHttpHeadersFilter.setAsyncSupported(true);
     }
 
+    /**
+     * Serve the webpack output from the same locations as Spring Boot, with its precompressed variants.
+     * <p>
+     * These patterns are more specific than the default "/**" mapping, which still serves the other static resources.
+     * The resolved resources are not cached, as the caching resolver does not tell Brotli clients apart.
+     */
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        if (!resourceProperties.isAddMappings()) {
+            return;
+        }
+        String[] locations = Arrays.copyOf(resourceProperties.getStaticLocations(),
+            resourceProperties.getStaticLocations().length + 1);
+        locations[locations.length - 1] = "/";
+        registry.addResourceHandler(WEBPACK_RESOURCE_PATTERNS)
+            .addResourceLocations(locations)
+            .resourceChain(false)
+            .addResolver(new PrecompressedResourceResolver());
+    }
+
     @Bean
     public CorsFilter corsFilter() {
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -0,0 +1,131 @@
+package br.eti.krebscode.blogjhipster.config.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Decorates a {@link CacheManager}, so that the evictions from its caches are also published to the other instances.
+ * <p>
+ * Like with {@link org.springframework.cache.transaction.TransactionAwareCacheDecorator}, the evictions done during
+ * a transaction are only published once it is committed; otherwise another instance could cache the old values
+ * again before the transaction is over.
+ */
+public class BroadcastingCacheManager implements CacheManager {
+
+    private final CacheManager targetCacheManager;
+
+    private final Supplier<CacheInvalidationBus> cacheInvalidationBus;
+
+    private final ConcurrentMap<String, Cache> caches = new ConcurrentHashMap<>();
+
+    /**
+     * @param targetCacheManager the decorated cache manager
+     * @param cacheInvalidationBus supplies the bus, which is looked up lazily
+     */
+    public BroadcastingCacheManager(CacheManager targetCacheManager, Supplier<CacheInvalidationBus> cacheInvalidationBus) {
+        this.targetCacheManager = targetCacheManager;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+    }
+
+    /**
+     * @return the decorated cache manager, to apply the evictions received from the other instances
+     */
+    public CacheManager getTargetCacheManager() {
+        return targetCacheManager;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = caches.get(name);
+        if (cache == null) {
+            Cache targetCache = targetCacheManager.getCache(name);
+            if (targetCache == null) {
+                return null;
+            }
+            cache = caches.computeIfAbsent(name, key -> new BroadcastingCache(targetCache));
+        }
+        return cache;
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return targetCacheManager.getCacheNames();
+    }
+
+    private void publish(CacheInvalidation invalidation) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    cacheInvalidationBus.get().publish(invalidation);
+                }
+            });
+        } else {
+            cacheInvalidationBus.get().publish(invalidation);
+        }
+    }
+
+    private class BroadcastingCache implements Cache {
+
+        private final Cache targetCache;
+
+        BroadcastingCache(Cache targetCache) {
+            this.targetCache = targetCache;
+        }
+
+        @Override
+        public String getName() {
+            return targetCache.getName();
+        }
+
+        @Override
+        public Object getNativeCache() {
+            return targetCache.getNativeCache();
+        }
+
+        @Override
+        public ValueWrapper get(Object key) {
+            return targetCache.get(key);
+        }
+
+        @Override
+        public <T> T get(Object key, Class<T> type) {
+            return targetCache.get(key, type);
+        }
+
+        @Override
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            return targetCache.get(key, valueLoader);
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            targetCache.put(key, value);
+        }
+
+        @Override
+        public ValueWrapper putIfAbsent(Object key, Object value) {
+            return targetCache.putIfAbsent(key, value);
+        }
+
+        @Override
+        public void evict(Object key) {
+            targetCache.evict(key);
+            publish(new CacheInvalidation(getName(), key));
+        }
+
+        @Override
+        public void clear() {
+            targetCache.clear();
+            publish(new CacheInvalidation(getName(), null));
+        }
+    }
+}
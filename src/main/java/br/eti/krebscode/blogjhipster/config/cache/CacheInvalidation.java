@@ -0,0 +1,59 @@
+package br.eti.krebscode.blogjhipster.config.cache;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * The eviction of a key from a cache region, or of the whole region when the key is null.
+ * <p>
+ * Regions are either Hibernate entity names, or Spring cache names.
+ */
+public final class CacheInvalidation implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String region;
+
+    private final Object key;
+
+    public CacheInvalidation(String region, Object key) {
+        this.region = Objects.requireNonNull(region);
+        this.key = key;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    /**
+     * @return the evicted key, or null if the whole region is cleared
+     */
+    public Object getKey() {
+        return key;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        CacheInvalidation cacheInvalidation = (CacheInvalidation) o;
+        return region.equals(cacheInvalidation.region) && Objects.equals(key, cacheInvalidation.key);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(region, key);
+    }
+
+    @Override
+    public String toString() {
+        return "CacheInvalidation{" +
+            "region='" + region + "'" +
+            ", key='" + key + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,23 @@
+package br.eti.krebscode.blogjhipster.config.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Broadcasts cache invalidations between the instances of the application.
+ * <p>
+ * Invalidations are only delivered to the other instances, each instance evicts its own caches directly.
+ */
+public interface CacheInvalidationBus {
+
+    /**
+     * Broadcast an invalidation to the other instances.
+     *
+     * @param invalidation the invalidation, which must have already been applied locally
+     */
+    void publish(CacheInvalidation invalidation);
+
+    /**
+     * @param subscriber called with each invalidation published by another instance
+     */
+    void subscribe(Consumer<CacheInvalidation> subscriber);
+}
@@ -0,0 +1,75 @@
+package br.eti.krebscode.blogjhipster.config.cache;
+
+import org.hibernate.Cache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.CacheManager;
+
+import java.io.Serializable;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Applies the invalidations published by the other instances to the local caches.
+ * <p>
+ * Invalidations of an entity also evict the collections it owns, and all the query cache regions, as the update
+ * timestamps used to invalidate cached queries are local to each instance.
+ */
+public class CacheInvalidationHandler implements Consumer<CacheInvalidation> {
+
+    private final Logger log = LoggerFactory.getLogger(CacheInvalidationHandler.class);
+
+    private final SessionFactoryImplementor sessionFactory;
+
+    private final CacheManager cacheManager;
+
+    /**
+     * @param sessionFactory the session factory owning the second level cache
+     * @param cacheManager the cache manager of the Spring caches, which must not publish the evictions again
+     */
+    public CacheInvalidationHandler(SessionFactoryImplementor sessionFactory, CacheManager cacheManager) {
+        this.sessionFactory = sessionFactory;
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public void accept(CacheInvalidation invalidation) {
+        String region = invalidation.getRegion();
+        if (sessionFactory.getMetamodel().entityPersisters().containsKey(region)) {
+            evictEntity(region, (Serializable) invalidation.getKey());
+        } else {
+            org.springframework.cache.Cache cache = cacheManager.getCache(region);
+            if (cache == null) {
+                log.debug("Ignoring {}, the region doesn't exist", invalidation);
+            } else if (invalidation.getKey() == null) {
+                cache.clear();
+            } else {
+                cache.evict(invalidation.getKey());
+            }
+        }
+    }
+
+    private void evictEntity(String entityName, Serializable id) {
+        Cache cache = sessionFactory.getCache();
+        if (id == null) {
+            cache.evictEntityRegion(entityName);
+        } else {
+            cache.evictEntity(entityName, id);
+        }
+        Set<String> roles = sessionFactory.getMetamodel().getCollectionRolesByEntityParticipant(entityName);
+        if (roles != null) {
+            for (String role : roles) {
+                if (!role.startsWith(entityName + ".")) {
+                    continue;
+                }
+                if (id == null) {
+                    cache.evictCollectionRegion(role);
+                } else {
+                    cache.evictCollection(role, id);
+                }
+            }
+        }
+        cache.evictQueryRegions();
+    }
+}
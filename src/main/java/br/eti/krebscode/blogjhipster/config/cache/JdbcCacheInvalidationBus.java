@@ -0,0 +1,197 @@
+package br.eti.krebscode.blogjhipster.config.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * {@link CacheInvalidationBus} going through the "cache_invalidation" table of the shared database, so that it
+ * doesn't need any other infrastructure.
+ * <p>
+ * Published invalidations are queued, and inserted by the next poll. Each poll then reads the invalidations
+ * inserted by the other instances since the previous one, using the database clock. Transactions may commit out
+ * of order, so the polls overlap by a few seconds; the invalidations already delivered are skipped.
+ */
+public class JdbcCacheInvalidationBus implements CacheInvalidationBus {
+
+    private static final long OVERLAP_MS = 10_000;
+
+    private static final long PURGE_INTERVAL_MS = 60_000;
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private static final Map<String, Function<String, Object>> KEY_PARSERS = new HashMap<>();
+
+    static {
+        KEY_PARSERS.put(Long.class.getName(), Long::valueOf);
+        KEY_PARSERS.put(Integer.class.getName(), Integer::valueOf);
+        KEY_PARSERS.put(String.class.getName(), key -> key);
+    }
+
+    private final Logger log = LoggerFactory.getLogger(JdbcCacheInvalidationBus.class);
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final long retentionMs;
+
+    private final Queue<CacheInvalidation> outgoing = new ConcurrentLinkedQueue<>();
+
+    private final List<Consumer<CacheInvalidation>> subscribers = new CopyOnWriteArrayList<>();
+
+    /**
+     * Ids of the invalidations already read, with their creation date, kept for the overlap of the polls.
+     */
+    private final Map<Long, Timestamp> received = new HashMap<>();
+
+    private Timestamp since;
+
+    private long lastPurge;
+
+    public JdbcCacheInvalidationBus(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                    long retentionSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retentionMs = retentionSeconds * 1000;
+    }
+
+    @Override
+    public void publish(CacheInvalidation invalidation) {
+        outgoing.add(invalidation);
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidation> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    /**
+     * Send the queued invalidations, and deliver the ones published by the other instances.
+     */
+    @Scheduled(fixedDelayString = "${application.cache.invalidation.poll-interval-ms:1000}")
+    public synchronized void synchronize() {
+        try {
+            send();
+            transactionTemplate.execute(status -> {
+                receive();
+                purge();
+                return null;
+            });
+        } catch (DataAccessException e) {
+            log.warn("Could not synchronize the cache invalidations: {}", e.getMessage());
+        }
+    }
+
+    private void send() {
+        Set<CacheInvalidation> invalidations = new LinkedHashSet<>();
+        for (CacheInvalidation invalidation = outgoing.poll(); invalidation != null; invalidation = outgoing.poll()) {
+            invalidations.add(invalidation);
+        }
+        if (invalidations.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(invalidations.size());
+        for (CacheInvalidation invalidation : invalidations) {
+            rows.add(toRow(invalidation));
+        }
+        try {
+            transactionTemplate.execute(status -> jdbcTemplate.batchUpdate("insert into cache_invalidation" +
+                " (node_id, region, cache_key, key_type, created_date) values (?, ?, ?, ?, current_timestamp)", rows));
+            log.debug("Sent {} cache invalidations", rows.size());
+        } catch (DataAccessException e) {
+            outgoing.addAll(invalidations);
+            throw e;
+        }
+    }
+
+    private void receive() {
+        if (since == null) {
+            // Only the invalidations published after the startup of this instance are relevant
+            since = jdbcTemplate.queryForObject("select max(created_date) from cache_invalidation", Timestamp.class);
+            if (since == null) {
+                since = new Timestamp(0);
+            }
+            return;
+        }
+        Timestamp from = new Timestamp(since.getTime() - OVERLAP_MS);
+        jdbcTemplate.query("select id, node_id, region, cache_key, key_type, created_date from cache_invalidation" +
+            " where created_date >= ? order by id", resultSet -> {
+            long id = resultSet.getLong("id");
+            Timestamp createdDate = resultSet.getTimestamp("created_date");
+            if (received.put(id, createdDate) == null && !nodeId.equals(resultSet.getString("node_id"))) {
+                deliver(new CacheInvalidation(resultSet.getString("region"),
+                    parseKey(resultSet.getString("cache_key"), resultSet.getString("key_type"))));
+            }
+            if (createdDate.after(since)) {
+                since = createdDate;
+            }
+        }, from);
+        Timestamp overlapStart = new Timestamp(since.getTime() - OVERLAP_MS);
+        received.values().removeIf(createdDate -> createdDate.before(overlapStart));
+    }
+
+    private void purge() {
+        long now = System.currentTimeMillis();
+        if (now - lastPurge < PURGE_INTERVAL_MS || since.getTime() < retentionMs) {
+            return;
+        }
+        lastPurge = now;
+        int purged = jdbcTemplate.update("delete from cache_invalidation where created_date < ?",
+            new Timestamp(since.getTime() - retentionMs));
+        log.debug("Purged {} cache invalidations", purged);
+    }
+
+    private void deliver(CacheInvalidation invalidation) {
+        log.debug("Received {}", invalidation);
+        for (Consumer<CacheInvalidation> subscriber : subscribers) {
+            try {
+                subscriber.accept(invalidation);
+            } catch (RuntimeException e) {
+                log.warn("Could not apply {}: {}", invalidation, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Keys that can't be stored are replaced by the invalidation of the whole region.
+     */
+    private Object[] toRow(CacheInvalidation invalidation) {
+        Object key = invalidation.getKey();
+        String cacheKey = null;
+        String keyType = null;
+        if (key != null && KEY_PARSERS.containsKey(key.getClass().getName())
+            && key.toString().length() <= MAX_KEY_LENGTH) {
+            cacheKey = key.toString();
+            keyType = key.getClass().getName();
+        } else if (key != null) {
+            log.debug("Invalidating the whole {} region instead of the key {}", invalidation.getRegion(), key);
+        }
+        return new Object[]{nodeId, invalidation.getRegion(), cacheKey, keyType};
+    }
+
+    private static Object parseKey(String cacheKey, String keyType) {
+        Function<String, Object> parser = KEY_PARSERS.get(keyType);
+        return cacheKey == null || parser == null ? null : parser.apply(cacheKey);
+    }
+}
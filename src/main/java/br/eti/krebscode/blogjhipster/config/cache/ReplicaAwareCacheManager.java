@@ -0,0 +1,120 @@
+package br.eti.krebscode.blogjhipster.config.cache;
+
+import br.eti.krebscode.blogjhipster.config.datasource.ReplicaRoutingDataSource;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Decorates a {@link CacheManager}, so that the values read in a transaction served by a read replica aren't cached:
+ * the replica may lag behind the primary, and the evictions of the last writes have already run.
+ *
+ * @see ReplicaRoutingDataSource#isReadingFromReplica()
+ */
+public class ReplicaAwareCacheManager implements CacheManager {
+
+    private final CacheManager targetCacheManager;
+
+    private final ConcurrentMap<String, Cache> caches = new ConcurrentHashMap<>();
+
+    /**
+     * @param targetCacheManager the decorated cache manager
+     */
+    public ReplicaAwareCacheManager(CacheManager targetCacheManager) {
+        this.targetCacheManager = targetCacheManager;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = caches.get(name);
+        if (cache == null) {
+            Cache targetCache = targetCacheManager.getCache(name);
+            if (targetCache == null) {
+                return null;
+            }
+            cache = caches.computeIfAbsent(name, key -> new ReplicaAwareCache(targetCache));
+        }
+        return cache;
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return targetCacheManager.getCacheNames();
+    }
+
+    private static class ReplicaAwareCache implements Cache {
+
+        private final Cache targetCache;
+
+        ReplicaAwareCache(Cache targetCache) {
+            this.targetCache = targetCache;
+        }
+
+        @Override
+        public String getName() {
+            return targetCache.getName();
+        }
+
+        @Override
+        public Object getNativeCache() {
+            return targetCache.getNativeCache();
+        }
+
+        @Override
+        public ValueWrapper get(Object key) {
+            return targetCache.get(key);
+        }
+
+        @Override
+        public <T> T get(Object key, Class<T> type) {
+            return targetCache.get(key, type);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            if (!ReplicaRoutingDataSource.isReadingFromReplica()) {
+                return targetCache.get(key, valueLoader);
+            }
+            ValueWrapper cached = targetCache.get(key);
+            if (cached != null) {
+                return (T) cached.get();
+            }
+            try {
+                return valueLoader.call();
+            } catch (Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            if (!ReplicaRoutingDataSource.isReadingFromReplica()) {
+                targetCache.put(key, value);
+            }
+        }
+
+        @Override
+        public ValueWrapper putIfAbsent(Object key, Object value) {
+            if (ReplicaRoutingDataSource.isReadingFromReplica()) {
+                return targetCache.get(key);
+            }
+            return targetCache.putIfAbsent(key, value);
+        }
+
+        @Override
+        public void evict(Object key) {
+            targetCache.evict(key);
+        }
+
+        @Override
+        public void clear() {
+            targetCache.clear();
+        }
+    }
+}
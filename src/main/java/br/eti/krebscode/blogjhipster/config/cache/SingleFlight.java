@@ -0,0 +1,21 @@
+package br.eti.krebscode.blogjhipster.config.cache;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Concurrent calls of the annotated method with equal arguments share the result of a single invocation.
+ * <p>
+ * Meant for {@link org.springframework.cache.annotation.Cacheable} methods: the calls are coalesced inside the
+ * caching interceptor, so only the cache misses are.
+ *
+ * @see SingleFlightGroup
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface SingleFlight {
+}
@@ -0,0 +1,58 @@
+package br.eti.krebscode.blogjhipster.config.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads of the same key: the first caller runs the loader, and the callers arriving while it
+ * runs wait for its result instead of running the loader again.
+ * <p>
+ * Nothing is kept once the load is over, the result is expected to be cached by the caller.
+ */
+public class SingleFlightGroup {
+
+    private final ConcurrentMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * @param key the key of the loaded value
+     * @param loader loads the value, only called if no load of the same key is running
+     * @param <T> the type of the value
+     * @return the loaded value, possibly loaded by another thread
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T load(Object key, Supplier<T> loader) {
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> runningLoad = inFlight.putIfAbsent(key, load);
+        if (runningLoad != null) {
+            return (T) await(runningLoad);
+        }
+        try {
+            T value = loader.get();
+            load.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, load);
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            // Rethrow the exception of the loader as is
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package br.eti.krebscode.blogjhipster.config.cache;
+
+import org.hibernate.HibernateException;
+import org.hibernate.LockMode;
+import org.hibernate.engine.spi.EntityKey;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.LoadEvent;
+import org.hibernate.event.spi.LoadEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Coalesces the concurrent loads of the same entity from the database when it's missing from the second level
+ * cache: one session loads it and puts it in the cache, while the others wait and then read it from the cache.
+ * <p>
+ * Only the outermost load of each thread waits, so that two threads loading each other's associations can't
+ * wait for each other.
+ */
+public class SingleFlightLoadEventListener implements LoadEventListener {
+
+    private static final ThreadLocal<Boolean> LOADING = new ThreadLocal<>();
+
+    private final List<LoadEventListener> delegates;
+
+    private final SingleFlightGroup singleFlightGroup;
+
+    public SingleFlightLoadEventListener(List<LoadEventListener> delegates, SingleFlightGroup singleFlightGroup) {
+        this.delegates = delegates;
+        this.singleFlightGroup = singleFlightGroup;
+    }
+
+    @Override
+    public void onLoad(LoadEvent event, LoadType loadType) throws HibernateException {
+        if (LOADING.get() != null || !isCoalesced(event, loadType)) {
+            delegate(event, loadType);
+            return;
+        }
+        EntityPersister persister = persister(event);
+        boolean[] loaded = {false};
+        LOADING.set(Boolean.TRUE);
+        try {
+            singleFlightGroup.load(Arrays.asList(persister.getRootEntityName(), event.getEntityId()), () -> {
+                delegate(event, loadType);
+                loaded[0] = true;
+                return null;
+            });
+        } finally {
+            LOADING.remove();
+        }
+        if (!loaded[0]) {
+            // Another session has just loaded the entity, it is read from the second level cache
+            delegate(event, loadType);
+        }
+    }
+
+    /**
+     * Proxies are created without any query, the entities of the persistence context are already loaded, and
+     * locking loads bypass the second level cache.
+     */
+    private static boolean isCoalesced(LoadEvent event, LoadType loadType) {
+        if (loadType.isAllowProxyCreation() || event.getInstanceToLoad() != null
+            || event.getLockMode().greaterThan(LockMode.READ)) {
+            return false;
+        }
+        EntityPersister persister = persister(event);
+        EventSource session = event.getSession();
+        if (!persister.hasCache() || !session.getCacheMode().isGetEnabled()) {
+            return false;
+        }
+        EntityKey key = session.generateEntityKey(event.getEntityId(), persister);
+        return session.getPersistenceContext().getEntity(key) == null;
+    }
+
+    private static EntityPersister persister(LoadEvent event) {
+        return event.getSession().getFactory().getMetamodel().entityPersister(event.getEntityClassName());
+    }
+
+    private void delegate(LoadEvent event, LoadType loadType) {
+        for (LoadEventListener delegate : delegates) {
+            delegate.onLoad(event, loadType);
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Cross-node cache invalidation and cache loading specific code.
+ */
+package br.eti.krebscode.blogjhipster.config.cache;
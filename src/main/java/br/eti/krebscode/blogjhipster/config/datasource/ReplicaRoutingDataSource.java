@@ -0,0 +1,294 @@
+package br.eti.krebscode.blogjhipster.config.datasource;
+
+import br.eti.krebscode.blogjhipster.security.SecurityUtils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * {@link DataSource} sending the connections of read-only transactions to the replicas, in turn, and all the
+ * other connections to the primary.
+ * <p>
+ * The transaction managers get their connection before the transaction is marked as read-only, so this data
+ * source must be used through a {@link LazyConnectionDataSourceProxy}.
+ * <p>
+ * A replica which fails to give a connection, or fails its last health check, is skipped until it passes a health
+ * check again; without any healthy replica, the primary serves all the connections. When a read-your-writes window
+ * is set, the read-only transactions of a user who just committed a read-write transaction go to the primary
+ * during that window, so that replication lag doesn't hide their own changes.
+ * <p>
+ * The replicas may lag, so what they return mustn't be cached for the other requests: the reads filling a shared
+ * cache go to the primary through {@link #readFromPrimary(Supplier)}, and the caches skip their puts while
+ * {@link #isReadingFromReplica()}.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+
+    private static final int HEALTH_CHECK_TIMEOUT_SECONDS = 2;
+
+    private static final ThreadLocal<Boolean> READ_FROM_PRIMARY = new ThreadLocal<>();
+
+    /**
+     * Bound to the transactions served by a replica.
+     */
+    private static final Object REPLICA_READ = new Object();
+
+    private final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private final DataSource primary;
+
+    private final List<Replica> replicas;
+
+    private final long readYourWritesWindowMs;
+
+    private final Clock clock;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * Commit time of the last read-write transaction of each user, kept for the read-your-writes window.
+     */
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    private Runnable replicaReadListener = () -> { };
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, long readYourWritesWindowMs) {
+        this(primary, replicas, readYourWritesWindowMs, Clock.systemUTC());
+    }
+
+    ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, long readYourWritesWindowMs, Clock clock) {
+        this.primary = primary;
+        List<Replica> replicaList = new ArrayList<>();
+        replicas.forEach((name, dataSource) -> replicaList.add(new Replica(name, dataSource)));
+        this.replicas = Collections.unmodifiableList(replicaList);
+        this.readYourWritesWindowMs = readYourWritesWindowMs;
+        this.clock = clock;
+    }
+
+    /**
+     * Run a read on the primary, even in a read-only transaction, as when its result is cached: a lagging replica
+     * could otherwise cache the state before the last writes, which their evictions already removed.
+     * <p>
+     * Only the transactions starting in the read, or which haven't run a statement yet, are concerned.
+     *
+     * @param read the read
+     * @param <T> the type of the result
+     * @return the result of the read
+     */
+    public static <T> T readFromPrimary(Supplier<T> read) {
+        Boolean previous = READ_FROM_PRIMARY.get();
+        READ_FROM_PRIMARY.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            if (previous == null) {
+                READ_FROM_PRIMARY.remove();
+            }
+        }
+    }
+
+    /**
+     * @return whether a replica serves the current transaction, in which case its results mustn't be cached
+     */
+    public static boolean isReadingFromReplica() {
+        return TransactionSynchronizationManager.hasResource(REPLICA_READ);
+    }
+
+    /**
+     * @param replicaReadListener called in a transaction when a replica serves it, e.g. to stop its persistence
+     * context from filling the second level cache
+     */
+    public void setReplicaReadListener(Runnable replicaReadListener) {
+        this.replicaReadListener = replicaReadListener;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return getConnection(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return getConnection(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    private Connection getConnection(ConnectionFactory connectionFactory) throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            rememberWrite();
+            return connectionFactory.getConnection(primary);
+        }
+        if (READ_FROM_PRIMARY.get() != null || readsOwnWrites()) {
+            return connectionFactory.getConnection(primary);
+        }
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+            if (!replica.healthy) {
+                continue;
+            }
+            Connection connection;
+            try {
+                connection = connectionFactory.getConnection(replica.dataSource);
+            } catch (SQLException e) {
+                replica.setHealthy(false, e);
+                continue;
+            }
+            rememberReplicaRead();
+            return connection;
+        }
+        return connectionFactory.getConnection(primary);
+    }
+
+    /**
+     * Mark the current transaction as served by a replica, until it completes; the mark follows the transaction
+     * when it is suspended.
+     */
+    private void rememberReplicaRead() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive() ||
+            TransactionSynchronizationManager.hasResource(REPLICA_READ)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(REPLICA_READ, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+
+            @Override
+            public void suspend() {
+                TransactionSynchronizationManager.unbindResourceIfPossible(REPLICA_READ);
+            }
+
+            @Override
+            public void resume() {
+                TransactionSynchronizationManager.bindResource(REPLICA_READ, Boolean.TRUE);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(REPLICA_READ);
+            }
+        });
+        replicaReadListener.run();
+    }
+
+    /**
+     * Remember the commit of the current read-write transaction, for the read-your-writes window of its user.
+     */
+    private void rememberWrite() {
+        if (readYourWritesWindowMs <= 0 || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        SecurityUtils.getCurrentUserLogin().ifPresent(login ->
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+
+                @Override
+                public void afterCommit() {
+                    lastWrites.put(login, clock.millis());
+                }
+            }));
+    }
+
+    private boolean readsOwnWrites() {
+        if (readYourWritesWindowMs <= 0 || lastWrites.isEmpty()) {
+            return false;
+        }
+        Optional<String> login = SecurityUtils.getCurrentUserLogin();
+        if (!login.isPresent()) {
+            return false;
+        }
+        Long lastWrite = lastWrites.get(login.get());
+        return lastWrite != null && clock.millis() - lastWrite < readYourWritesWindowMs;
+    }
+
+    /**
+     * Validate a connection of each replica, and forget the writes older than the read-your-writes window.
+     */
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                if (connection.isValid(HEALTH_CHECK_TIMEOUT_SECONDS)) {
+                    replica.setHealthy(true, null);
+                } else {
+                    replica.setHealthy(false, new SQLException("Invalid connection"));
+                }
+            } catch (SQLException e) {
+                replica.setHealthy(false, e);
+            }
+        }
+        long expired = clock.millis() - readYourWritesWindowMs;
+        lastWrites.values().removeIf(lastWrite -> lastWrite <= expired);
+    }
+
+    /**
+     * @return whether each replica is currently used, by name
+     */
+    public Map<String, Boolean> getReplicaHealth() {
+        Map<String, Boolean> health = new LinkedHashMap<>();
+        replicas.forEach(replica -> health.put(replica.name, replica.healthy));
+        return health;
+    }
+
+    /**
+     * Close the primary and the replicas.
+     */
+    @Override
+    public void close() throws IOException {
+        if (primary instanceof Closeable) {
+            ((Closeable) primary).close();
+        }
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof Closeable) {
+                ((Closeable) replica.dataSource).close();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface ConnectionFactory {
+
+        Connection getConnection(DataSource dataSource) throws SQLException;
+    }
+
+    private final class Replica {
+
+        private final String name;
+
+        private final DataSource dataSource;
+
+        private volatile boolean healthy = true;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        private void setHealthy(boolean healthy, SQLException cause) {
+            if (this.healthy == healthy) {
+                return;
+            }
+            this.healthy = healthy;
+            if (healthy) {
+                log.info("Read replica {} is back, sending read-only transactions to it again", name);
+            } else {
+                log.warn("Read replica {} is unavailable, sending its read-only transactions elsewhere: {}", name,
+                    cause.getMessage());
+            }
+        }
+    }
+}
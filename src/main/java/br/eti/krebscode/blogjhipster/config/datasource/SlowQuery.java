@@ -0,0 +1,76 @@
+package br.eti.krebscode.blogjhipster.config.datasource;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A statement recorded by the {@link SlowQueryLog}.
+ */
+public final class SlowQuery {
+
+    private final Instant timestamp;
+
+    private final String sql;
+
+    private final List<String> parameters;
+
+    private final Long rows;
+
+    private final long elapsedMs;
+
+    private final String callSite;
+
+    SlowQuery(Instant timestamp, String sql, List<String> parameters, Long rows, long elapsedMs, String callSite) {
+        this.timestamp = timestamp;
+        this.sql = sql;
+        this.parameters = Collections.unmodifiableList(parameters);
+        this.rows = rows;
+        this.elapsedMs = elapsedMs;
+        this.callSite = callSite;
+    }
+
+    /**
+     * @return when the statement completed
+     */
+    public Instant getTimestamp() {
+        return timestamp;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * @return the values of the parameters of the statement, in order, redacted or truncated
+     */
+    public List<String> getParameters() {
+        return parameters;
+    }
+
+    /**
+     * @return the number of rows read or updated, or null when unknown
+     */
+    public Long getRows() {
+        return rows;
+    }
+
+    /**
+     * @return the execution time of the statement, without the reading of its rows
+     */
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+
+    /**
+     * @return the application method which executed the statement, or null when unknown
+     */
+    public String getCallSite() {
+        return callSite;
+    }
+
+    @Override
+    public String toString() {
+        return elapsedMs + " ms, " + (rows != null ? rows : "?") + " rows, at " + callSite + ": " + sql + " " + parameters;
+    }
+}
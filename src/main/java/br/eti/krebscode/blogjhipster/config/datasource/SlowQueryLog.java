@@ -0,0 +1,214 @@
+package br.eti.krebscode.blogjhipster.config.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.time.Clock;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Log of the statements slower than a threshold, fed by {@link StatementStatisticsDataSource}.
+ * <p>
+ * The most recent ones are kept in a bounded buffer, with their parameters and the application method which executed
+ * them, so that the slow queries can be found without the database logs. The parameters of the sensitive columns are
+ * redacted: the column of a parameter is found in the usual statements of Hibernate, "insert into t (a, b) values
+ * (?, ?)" and "a = ?", and when it can't be found the parameter is redacted if the statement uses a sensitive column.
+ */
+public class SlowQueryLog {
+
+    private static final String APPLICATION_PACKAGE = "br.eti.krebscode.blogjhipster.";
+
+    private static final String[] RECORDING_CLASSES = {
+        SlowQueryLog.class.getName(), StatementStatisticsDataSource.class.getName()
+    };
+
+    private static final String REDACTED = "****";
+
+    private static final Pattern INSERT = Pattern.compile(
+        "^\\s*insert\\s+into\\s+\\S+\\s*\\(([^)]*)\\)\\s*values\\s*\\(([^)]*)\\)", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * The column compared to the parameter which ends the text, e.g. "where user0_.login=" or "id in (?, ".
+     */
+    private static final Pattern COMPARED_COLUMN = Pattern.compile(
+        "(\\w+)\\s*(?:=|<>|!=|<=|>=|<|>|\\s+like|\\s+in\\s*\\((?:\\s*\\?\\s*,)*)\\s*$", Pattern.CASE_INSENSITIVE);
+
+    private final Logger log = LoggerFactory.getLogger(SlowQueryLog.class);
+
+    private final long thresholdNanos;
+
+    private final int capacity;
+
+    private final int maxParameterLength;
+
+    private final Set<String> redactedColumns = new HashSet<>();
+
+    private final Clock clock;
+
+    private final Deque<SlowQuery> slowQueries = new ArrayDeque<>();
+
+    /**
+     * @param thresholdMs the execution time from which a statement is logged, negative to log none
+     * @param capacity the number of slow statements kept
+     * @param maxParameterLength the length from which the parameter values are truncated
+     * @param redactedColumns the columns whose parameter values are not logged
+     */
+    public SlowQueryLog(long thresholdMs, int capacity, int maxParameterLength, Collection<String> redactedColumns) {
+        this(thresholdMs, capacity, maxParameterLength, redactedColumns, Clock.systemUTC());
+    }
+
+    SlowQueryLog(long thresholdMs, int capacity, int maxParameterLength, Collection<String> redactedColumns, Clock clock) {
+        this.thresholdNanos = thresholdMs < 0 ? Long.MAX_VALUE : TimeUnit.MILLISECONDS.toNanos(thresholdMs);
+        this.capacity = capacity;
+        this.maxParameterLength = maxParameterLength;
+        redactedColumns.forEach(column -> this.redactedColumns.add(column.toLowerCase(Locale.ROOT)));
+        this.clock = clock;
+    }
+
+    /**
+     * @param nanos the execution time of a statement
+     * @return whether the statement must be recorded
+     */
+    public boolean isSlow(long nanos) {
+        return nanos >= thresholdNanos;
+    }
+
+    /**
+     * Record a slow statement, from the thread which executed it.
+     *
+     * @param sql the SQL of the statement
+     * @param parameters the values of the parameters, by index from 1
+     * @param rows the number of rows read or updated, or null when unknown
+     * @param nanos the execution time
+     */
+    public void record(String sql, Map<Integer, Object> parameters, Long rows, long nanos) {
+        SlowQuery slowQuery = new SlowQuery(clock.instant(), sql, formatParameters(sql, parameters), rows,
+            TimeUnit.NANOSECONDS.toMillis(nanos), findCallSite());
+        log.warn("Slow statement: {}", slowQuery);
+        if (capacity <= 0) {
+            return;
+        }
+        synchronized (slowQueries) {
+            if (slowQueries.size() == capacity) {
+                slowQueries.removeLast();
+            }
+            slowQueries.addFirst(slowQuery);
+        }
+    }
+
+    /**
+     * @return the slow statements kept, the most recent first
+     */
+    public List<SlowQuery> getSlowQueries() {
+        synchronized (slowQueries) {
+            return new ArrayList<>(slowQueries);
+        }
+    }
+
+    public void clear() {
+        synchronized (slowQueries) {
+            slowQueries.clear();
+        }
+    }
+
+    private List<String> formatParameters(String sql, Map<Integer, Object> parameters) {
+        List<String> formatted = new ArrayList<>();
+        if (sql == null || parameters.isEmpty()) {
+            return formatted;
+        }
+        List<String> columns = parameterColumns(sql);
+        String lowerCaseSql = sql.toLowerCase(Locale.ROOT);
+        boolean usesRedactedColumn = redactedColumns.stream().anyMatch(lowerCaseSql::contains);
+        int count = parameters.keySet().stream().mapToInt(Integer::intValue).max().orElse(0);
+        for (int index = 1; index <= count; index++) {
+            String column = index <= columns.size() ? columns.get(index - 1) : null;
+            boolean redacted = column != null ? redactedColumns.contains(column) : usesRedactedColumn;
+            formatted.add(redacted ? REDACTED : format(parameters.get(index)));
+        }
+        return formatted;
+    }
+
+    /**
+     * @return the column of each parameter of the statement, or null when it isn't known
+     */
+    private static List<String> parameterColumns(String sql) {
+        List<String> columns = new ArrayList<>();
+        Matcher insert = INSERT.matcher(sql);
+        if (insert.find()) {
+            String[] names = insert.group(1).split(",");
+            String[] values = insert.group(2).split(",");
+            for (int i = 0; i < values.length; i++) {
+                if (values[i].trim().equals("?")) {
+                    columns.add(i < names.length ? names[i].trim().toLowerCase(Locale.ROOT) : null);
+                }
+            }
+            return columns;
+        }
+        boolean quoted = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+            } else if (c == '?' && !quoted) {
+                Matcher compared = COMPARED_COLUMN.matcher(sql.substring(Math.max(0, i - 200), i));
+                columns.add(compared.find() ? compared.group(1).toLowerCase(Locale.ROOT) : null);
+            }
+        }
+        return columns;
+    }
+
+    private String format(Object value) {
+        if (value == null) {
+            return "null";
+        }
+        if (value instanceof byte[]) {
+            return "<" + ((byte[]) value).length + " bytes>";
+        }
+        if (value instanceof Blob || value instanceof Clob || value instanceof InputStream || value instanceof Reader) {
+            return "<" + value.getClass().getSimpleName() + ">";
+        }
+        String text = String.valueOf(value);
+        if (text.length() > maxParameterLength) {
+            text = text.substring(0, maxParameterLength) + "...";
+        }
+        return value instanceof String ? "'" + text + "'" : text;
+    }
+
+    /**
+     * @return the innermost application method of the stack, other than the recording classes and the CGLIB proxies
+     */
+    private static String findCallSite() {
+        StackTraceElement[] stackTrace = Thread.currentThread().getStackTrace();
+        for (StackTraceElement element : stackTrace) {
+            String className = element.getClassName();
+            if (className.startsWith(APPLICATION_PACKAGE) && !className.contains("$$") && !isRecordingClass(className)) {
+                return element.toString();
+            }
+        }
+        return null;
+    }
+
+    private static boolean isRecordingClass(String className) {
+        for (String recordingClass : RECORDING_CLASSES) {
+            if (className.equals(recordingClass) || className.startsWith(recordingClass + "$")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,114 @@
+package br.eti.krebscode.blogjhipster.config.datasource;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Statistics of the SQL statements executed by the current thread, typically during one HTTP request.
+ * <p>
+ * The statements are recorded by {@link StatementStatisticsDataSource} between {@link #start()} and {@link #stop()}.
+ * The select statements executed several times with the same SQL are kept apart, as they are probable N+1 queries:
+ * one query for a list, then one more for each element of the list.
+ */
+public final class StatementStatistics {
+
+    /**
+     * Upper bound of the distinct select statements counted by one recording.
+     */
+    private static final int MAX_DISTINCT_SELECTS = 1000;
+
+    private static final ThreadLocal<StatementStatistics> CURRENT = new ThreadLocal<>();
+
+    private int count;
+
+    private long totalNanos;
+
+    private String slowestStatement;
+
+    private long slowestNanos;
+
+    private final Map<String, Integer> selects = new HashMap<>();
+
+    /**
+     * Start recording the statements executed by the current thread, replacing any previous recording.
+     *
+     * @return the statistics of the new recording
+     */
+    public static StatementStatistics start() {
+        StatementStatistics statistics = new StatementStatistics();
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    /**
+     * @return the statistics of the current thread, or null when it isn't recording
+     */
+    public static StatementStatistics current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Stop recording the statements executed by the current thread.
+     */
+    public static void stop() {
+        CURRENT.remove();
+    }
+
+    void record(String sql, long nanos) {
+        count++;
+        totalNanos += nanos;
+        if (sql != null && (slowestStatement == null || nanos > slowestNanos)) {
+            slowestStatement = sql;
+            slowestNanos = nanos;
+        }
+        if (sql != null && sql.trim().regionMatches(true, 0, "select", 0, 6)
+            && (selects.size() < MAX_DISTINCT_SELECTS || selects.containsKey(sql))) {
+            selects.merge(sql, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * @return the number of statements executed, a JDBC batch counting as one statement
+     */
+    public int getCount() {
+        return count;
+    }
+
+    public long getTotalTime(TimeUnit unit) {
+        return unit.convert(totalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return the SQL of the slowest statement, or null when no statement was executed
+     */
+    public String getSlowestStatement() {
+        return slowestStatement;
+    }
+
+    public long getSlowestTime(TimeUnit unit) {
+        return unit.convert(slowestNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param threshold the number of executions from which a select statement is reported
+     * @return the select statements executed at least threshold times, with their number of executions
+     */
+    public Map<String, Integer> getRepeatedSelects(int threshold) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        selects.forEach((sql, executions) -> {
+            if (executions >= threshold) {
+                repeated.put(sql, executions);
+            }
+        });
+        return repeated;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%d statements in %d ms, slowest %d ms", count,
+            getTotalTime(TimeUnit.MILLISECONDS), getSlowestTime(TimeUnit.MILLISECONDS));
+    }
+}
@@ -0,0 +1,265 @@
+package br.eti.krebscode.blogjhipster.config.datasource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * {@link DataSource} timing the statements executed through its connections, for the {@link StatementStatistics}
+ * of the current thread and for the {@link SlowQueryLog}.
+ * <p>
+ * The connections and statements are JDK proxies of the ones of the target data source; when the current thread
+ * isn't recording and no slow query log is set, a statement execution only costs a thread local lookup. The rows
+ * of a slow query are counted as they are read, and the query is logged when its result set is closed.
+ */
+public class StatementStatisticsDataSource extends DelegatingDataSource {
+
+    private final SlowQueryLog slowQueryLog;
+
+    public StatementStatisticsDataSource(DataSource targetDataSource) {
+        this(targetDataSource, null);
+    }
+
+    /**
+     * @param targetDataSource the data source to decorate
+     * @param slowQueryLog the log of the slow statements, or null to only record the statistics
+     */
+    public StatementStatisticsDataSource(DataSource targetDataSource, SlowQueryLog slowQueryLog) {
+        super(targetDataSource);
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return proxy(Connection.class, new ConnectionHandler(super.getConnection(), slowQueryLog));
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return proxy(Connection.class, new ConnectionHandler(super.getConnection(username, password), slowQueryLog));
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(StatementStatisticsDataSource.class.getClassLoader(),
+            new Class<?>[]{type}, handler));
+    }
+
+    private static Object invokeOn(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    /**
+     * Handles the methods of {@link Object}, which must not be delegated as the proxy is not equal to its target.
+     */
+    private static abstract class DelegatingHandler implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return invokeTarget(method, args);
+            }
+        }
+
+        protected abstract Object invokeTarget(Method method, Object[] args) throws Throwable;
+    }
+
+    private static final class ConnectionHandler extends DelegatingHandler {
+
+        private final Connection target;
+
+        private final SlowQueryLog slowQueryLog;
+
+        private ConnectionHandler(Connection target, SlowQueryLog slowQueryLog) {
+            this.target = target;
+            this.slowQueryLog = slowQueryLog;
+        }
+
+        @Override
+        protected Object invokeTarget(Method method, Object[] args) throws Throwable {
+            Object result = invokeOn(target, method, args);
+            if (result instanceof CallableStatement) {
+                return proxy(CallableStatement.class, new StatementHandler(result, (String) args[0], slowQueryLog));
+            }
+            if (result instanceof PreparedStatement) {
+                return proxy(PreparedStatement.class, new StatementHandler(result, (String) args[0], slowQueryLog));
+            }
+            if (result instanceof Statement) {
+                return proxy(Statement.class, new StatementHandler(result, null, slowQueryLog));
+            }
+            return result;
+        }
+    }
+
+    private static final class StatementHandler extends DelegatingHandler {
+
+        private final Object target;
+
+        private final String sql;
+
+        private final SlowQueryLog slowQueryLog;
+
+        /**
+         * The parameters set by index, only tracked for the slow query log.
+         */
+        private final Map<Integer, Object> parameters = new TreeMap<>();
+
+        private SlowResultSetHandler pendingResultSet;
+
+        private StatementHandler(Object target, String sql, SlowQueryLog slowQueryLog) {
+            this.target = target;
+            this.sql = sql;
+            this.slowQueryLog = slowQueryLog;
+        }
+
+        @Override
+        protected Object invokeTarget(Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (slowQueryLog != null) {
+                trackParameters(name, args);
+            }
+            if (!name.startsWith("execute") || (slowQueryLog == null && StatementStatistics.current() == null)) {
+                return invokeOn(target, method, args);
+            }
+            String executed = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : sql;
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = invokeOn(target, method, args);
+            } catch (Throwable e) {
+                recordExecution(executed, System.nanoTime() - start, null);
+                throw e;
+            }
+            return recordExecution(executed, System.nanoTime() - start, result);
+        }
+
+        private void trackParameters(String name, Object[] args) {
+            if (name.equals("close") || name.startsWith("execute")) {
+                flushPendingResultSet();
+            }
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                parameters.put((Integer) args[0], name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+                parameters.clear();
+            }
+        }
+
+        /**
+         * @return the result of the execution, with its rows counted when the statement is slow
+         */
+        private Object recordExecution(String executed, long nanos, Object result) {
+            StatementStatistics statistics = StatementStatistics.current();
+            if (statistics != null) {
+                statistics.record(executed, nanos);
+            }
+            if (slowQueryLog == null || !slowQueryLog.isSlow(nanos)) {
+                return result;
+            }
+            if (result instanceof ResultSet) {
+                pendingResultSet = new SlowResultSetHandler((ResultSet) result, slowQueryLog, executed,
+                    new TreeMap<>(parameters), nanos);
+                return proxy(ResultSet.class, pendingResultSet);
+            }
+            slowQueryLog.record(executed, parameters, rows(result), nanos);
+            return result;
+        }
+
+        /**
+         * @return the number of rows updated by an execution, or null when unknown
+         */
+        private static Long rows(Object result) {
+            if (result instanceof Number) {
+                return ((Number) result).longValue();
+            }
+            long rows = 0;
+            if (result instanceof int[]) {
+                for (int count : (int[]) result) {
+                    rows += Math.max(count, 0);
+                }
+                return rows;
+            }
+            if (result instanceof long[]) {
+                for (long count : (long[]) result) {
+                    rows += Math.max(count, 0);
+                }
+                return rows;
+            }
+            return null;
+        }
+
+        private void flushPendingResultSet() {
+            if (pendingResultSet != null) {
+                pendingResultSet.record();
+                pendingResultSet = null;
+            }
+        }
+    }
+
+    /**
+     * Counts the rows of a slow query, which is logged once its result set or statement is closed.
+     */
+    private static final class SlowResultSetHandler extends DelegatingHandler {
+
+        private final ResultSet target;
+
+        private final SlowQueryLog slowQueryLog;
+
+        private final String sql;
+
+        private final Map<Integer, Object> parameters;
+
+        private final long nanos;
+
+        private long rows;
+
+        private boolean recorded;
+
+        private SlowResultSetHandler(ResultSet target, SlowQueryLog slowQueryLog, String sql,
+                                     Map<Integer, Object> parameters, long nanos) {
+            this.target = target;
+            this.slowQueryLog = slowQueryLog;
+            this.sql = sql;
+            this.parameters = parameters;
+            this.nanos = nanos;
+        }
+
+        @Override
+        protected Object invokeTarget(Method method, Object[] args) throws Throwable {
+            if (method.getName().equals("close")) {
+                record();
+            }
+            Object result = invokeOn(target, method, args);
+            if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                rows++;
+            }
+            return result;
+        }
+
+        private void record() {
+            if (!recorded) {
+                recorded = true;
+                slowQueryLog.record(sql, parameters, rows, nanos);
+            }
+        }
+    }
+}
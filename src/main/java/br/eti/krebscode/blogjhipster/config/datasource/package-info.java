@@ -0,0 +1,4 @@
+/**
+ * Routing of the read-only transactions to the read replicas, and statistics of the SQL statements.
+ */
+package br.eti.krebscode.blogjhipster.config.datasource;
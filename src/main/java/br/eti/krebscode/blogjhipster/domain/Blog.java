@@ -2,27 +2,44 @@ package br.eti.krebscode.blogjhipster.domain;
 
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.Where;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import javax.persistence.*;
 import javax.validation.constraints.*;
 
 import java.io.Serializable;
+import java.time.Instant;
 import java.util.Objects;
 
 /**
  * A Blog.
+ * <p>
+ * The updates only write the modified columns.
+ * <p>
+ * Deleted blogs are only marked with their deletion date, which hides them from all the queries, until they are
+ * removed by the TombstonePurger.
  */
 @Entity
 @Table(name = "blog")
 @Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
+@DynamicUpdate
+@Where(clause = "deleted_date is null")
+@BatchSize(size = 20)
+@EntityListeners(AuditingEntityListener.class)
 public class Blog implements Serializable {
 
     private static final long serialVersionUID = 1L;
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "blogIdGenerator")
+    @TableGenerator(name = "blogIdGenerator", table = "id_generator", pkColumnName = "sequence_name",
+        valueColumnName = "next_val", pkColumnValue = "blog", allocationSize = 50)
     private Long id;
 
     @NotNull
@@ -32,7 +49,7 @@ public class Blog implements Serializable {
 
     @NotNull
     @Size(min = 2)
-    @Column(name = "handle", nullable = false)
+    @Column(name = "handle", nullable = false, unique = true)
     private String handle;
 
     @ManyToOne(optional = false)
@@ -40,6 +57,17 @@ public class Blog implements Serializable {
     @JsonIgnoreProperties("blogs")
     private User user;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    @LastModifiedDate
+    @Column(name = "last_modified_date", nullable = false)
+    private Instant lastModifiedDate = Instant.now();
+
+    @Column(name = "deleted_date")
+    private Instant deletedDate;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here, do not remove
     public Long getId() {
         return id;
@@ -87,6 +115,33 @@ public class Blog implements Serializable {
     public void setUser(User user) {
         this.user = user;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public Instant getLastModifiedDate() {
+        return lastModifiedDate;
+    }
+
+    public void setLastModifiedDate(Instant lastModifiedDate) {
+        this.lastModifiedDate = lastModifiedDate;
+    }
+
+    /**
+     * @return when the blog was deleted, or null if it wasn't
+     */
+    public Instant getDeletedDate() {
+        return deletedDate;
+    }
+
+    public void setDeletedDate(Instant deletedDate) {
+        this.deletedDate = deletedDate;
+    }
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here, do not remove
 
     @Override
@@ -113,6 +168,7 @@ public class Blog implements Serializable {
     public String toString() {
         return "Blog{" +
             "id=" + getId() +
+            ", version=" + getVersion() +
             ", name='" + getName() + "'" +
             ", handle='" + getHandle() + "'" +
             "}";
@@ -2,13 +2,19 @@ package br.eti.krebscode.blogjhipster.domain;
 
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.Where;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import javax.persistence.*;
 import javax.validation.constraints.*;
 
 import java.io.Serializable;
+import java.time.Instant;
 import java.time.ZonedDateTime;
 import java.util.HashSet;
 import java.util.Set;
@@ -16,16 +22,26 @@ import java.util.Objects;
 
 /**
  * A Entry.
+ * <p>
+ * The updates only write the modified columns, so that editing the title of an entry doesn't rewrite its content.
+ * <p>
+ * Deleted entries are only marked with their deletion date, which hides them from all the queries, until they are
+ * removed by the TombstonePurger.
  */
 @Entity
 @Table(name = "entry")
 @Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
+@DynamicUpdate
+@Where(clause = "deleted_date is null")
+@EntityListeners(AuditingEntityListener.class)
 public class Entry implements Serializable {
 
     private static final long serialVersionUID = 1L;
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "entryIdGenerator")
+    @TableGenerator(name = "entryIdGenerator", table = "id_generator", pkColumnName = "sequence_name",
+        valueColumnName = "next_val", pkColumnValue = "entry", allocationSize = 50)
     private Long id;
 
     @NotNull
@@ -41,18 +57,42 @@ public class Entry implements Serializable {
     @Column(name = "jhi_date", nullable = false)
     private ZonedDateTime date;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     @NotNull
     @JsonIgnoreProperties("entries")
     private Blog blog;
 
+    /**
+     * Copy of the name of the blog, so that the entries can be listed without loading their blog.
+     */
+    @Column(name = "blog_name", nullable = false)
+    private String blogName;
+
+    /**
+     * Copy of the handle of the blog.
+     */
+    @Column(name = "blog_handle", nullable = false)
+    private String blogHandle;
+
     @ManyToMany
     @Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
+    @BatchSize(size = 20)
     @JoinTable(name = "entry_tag",
                joinColumns = @JoinColumn(name = "entry_id", referencedColumnName = "id"),
                inverseJoinColumns = @JoinColumn(name = "tag_id", referencedColumnName = "id"))
     private Set<Tag> tags = new HashSet<>();
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    @LastModifiedDate
+    @Column(name = "last_modified_date", nullable = false)
+    private Instant lastModifiedDate = Instant.now();
+
+    @Column(name = "deleted_date")
+    private Instant deletedDate;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here, do not remove
     public Long getId() {
         return id;
@@ -106,12 +146,22 @@ public class Entry implements Serializable {
     }
 
     public Entry blog(Blog blog) {
-        this.blog = blog;
+        setBlog(blog);
         return this;
     }
 
     public void setBlog(Blog blog) {
         this.blog = blog;
+        this.blogName = blog != null ? blog.getName() : null;
+        this.blogHandle = blog != null ? blog.getHandle() : null;
+    }
+
+    public String getBlogName() {
+        return blogName;
+    }
+
+    public String getBlogHandle() {
+        return blogHandle;
     }
 
     public Set<Tag> getTags() {
@@ -138,6 +188,33 @@ public class Entry implements Serializable {
     public void setTags(Set<Tag> tags) {
         this.tags = tags;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public Instant getLastModifiedDate() {
+        return lastModifiedDate;
+    }
+
+    public void setLastModifiedDate(Instant lastModifiedDate) {
+        this.lastModifiedDate = lastModifiedDate;
+    }
+
+    /**
+     * @return when the entry was deleted, or null if it wasn't
+     */
+    public Instant getDeletedDate() {
+        return deletedDate;
+    }
+
+    public void setDeletedDate(Instant deletedDate) {
+        this.deletedDate = deletedDate;
+    }
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here, do not remove
 
     @Override
@@ -164,6 +241,7 @@ public class Entry implements Serializable {
     public String toString() {
         return "Entry{" +
             "id=" + getId() +
+            ", version=" + getVersion() +
             ", title='" + getTitle() + "'" +
             ", content='" + getContent() + "'" +
             ", date='" + getDate() + "'" +
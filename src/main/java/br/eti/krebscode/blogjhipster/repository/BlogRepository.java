@@ -1,10 +1,13 @@
 package br.eti.krebscode.blogjhipster.repository;
 
 import br.eti.krebscode.blogjhipster.domain.Blog;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Spring Data  repository for the Blog entity.
@@ -13,7 +16,30 @@ import java.util.List;
 @Repository
 public interface BlogRepository extends JpaRepository<Blog, Long>, JpaSpecificationExecutor<Blog> {
 
+    String BLOGS_BY_CRITERIA_CACHE = "blogsByCriteria";
+
+    /**
+     * Ids of the blogs by handle, evicted when the handle of a blog changes or the blog is deleted.
+     */
+    String BLOG_IDS_BY_HANDLE_CACHE = "blogIdsByHandle";
+
     @Query("select blog from Blog blog where blog.user.login = ?#{principal.username}")
     List<Blog> findByUserIsCurrentUser();
 
+    @Query("select blog.version as version, blog.lastModifiedDate as lastModifiedDate from Blog blog where blog.id = :id")
+    Optional<EntityVersion> findVersionById(@Param("id") Long id);
+
+    @Cacheable(cacheNames = BLOG_IDS_BY_HANDLE_CACHE, unless = "#result == null")
+    @Query("select blog.id from Blog blog where blog.handle = :handle")
+    Optional<Long> findIdByHandle(@Param("handle") String handle);
+
+    /**
+     * Count the blogs with a handle, the deleted ones included as they keep their handle until they are removed.
+     *
+     * @param handle the handle
+     * @return the number of blogs with the handle
+     */
+    @Query(value = "select count(*) from blog where handle = :handle", nativeQuery = true)
+    long countByHandleIncludingDeleted(@Param("handle") String handle);
+
 }
@@ -0,0 +1,102 @@
+package br.eti.krebscode.blogjhipster.repository;
+
+import org.hibernate.jpa.QueryHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.repository.support.PageableExecutionUtils;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.Collections;
+import java.util.List;
+
+import static org.springframework.data.jpa.repository.query.QueryUtils.toOrders;
+
+/**
+ * Executes {@link Specification} queries through the Hibernate query cache.
+ * <p>
+ * The query cache stores the ids matching a given query, parameters and page, and hydrates them from the
+ * entity cache regions. Cached results are invalidated by the update timestamps of the tables they read from,
+ * so any write to those tables makes the next query hit the database again.
+ * <p>
+ * Unlike {@link org.springframework.data.jpa.repository.JpaSpecificationExecutor}, the count query of a page
+ * is cached as well.
+ */
+@Repository
+public class CachedSpecificationRepository {
+
+    private final EntityManager entityManager;
+
+    public CachedSpecificationRepository(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * @param domainClass the entity class
+     * @param specification the filters to apply
+     * @param pageable the pagination information, can be {@link Pageable#unpaged()}
+     * @param cacheRegion the query cache region to use
+     * @return the matching entities
+     */
+    public <T> Page<T> findAll(Class<T> domainClass, Specification<T> specification, Pageable pageable, String cacheRegion) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = builder.createQuery(domainClass);
+        Root<T> root = applySpecification(domainClass, specification, query);
+        query.select(root);
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(toOrders(pageable.getSort(), root, builder));
+        }
+        TypedQuery<T> typedQuery = cacheable(entityManager.createQuery(query), cacheRegion);
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(typedQuery.getResultList());
+        }
+        typedQuery.setFirstResult((int) pageable.getOffset());
+        typedQuery.setMaxResults(pageable.getPageSize());
+        return PageableExecutionUtils.getPage(typedQuery.getResultList(), pageable,
+            () -> count(domainClass, specification, cacheRegion));
+    }
+
+    /**
+     * @param domainClass the entity class
+     * @param specification the filters to apply
+     * @param cacheRegion the query cache region to use
+     * @return the number of matching entities
+     */
+    public <T> long count(Class<T> domainClass, Specification<T> specification, String cacheRegion) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = builder.createQuery(Long.class);
+        Root<T> root = applySpecification(domainClass, specification, query);
+        query.select(query.isDistinct() ? builder.countDistinct(root) : builder.count(root));
+        query.orderBy(Collections.emptyList());
+        List<Long> totals = cacheable(entityManager.createQuery(query), cacheRegion).getResultList();
+        long total = 0L;
+        for (Long element : totals) {
+            total += element == null ? 0 : element;
+        }
+        return total;
+    }
+
+    private <T> Root<T> applySpecification(Class<T> domainClass, Specification<T> specification, CriteriaQuery<?> query) {
+        Root<T> root = query.from(domainClass);
+        if (specification != null) {
+            Predicate predicate = specification.toPredicate(root, query, entityManager.getCriteriaBuilder());
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        return root;
+    }
+
+    private static <T> TypedQuery<T> cacheable(TypedQuery<T> query, String cacheRegion) {
+        return query
+            .setHint(QueryHints.HINT_CACHEABLE, true)
+            .setHint(QueryHints.HINT_CACHE_REGION, cacheRegion);
+    }
+}
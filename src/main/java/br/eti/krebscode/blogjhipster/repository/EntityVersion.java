@@ -0,0 +1,13 @@
+package br.eti.krebscode.blogjhipster.repository;
+
+import java.time.Instant;
+
+/**
+ * Projection on the version columns of an entity, read without loading any of its other columns.
+ */
+public interface EntityVersion {
+
+    Long getVersion();
+
+    Instant getLastModifiedDate();
+}
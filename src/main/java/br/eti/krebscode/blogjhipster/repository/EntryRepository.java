@@ -7,6 +7,8 @@ import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,6 +19,8 @@ import java.util.Optional;
 @Repository
 public interface EntryRepository extends JpaRepository<Entry, Long>, JpaSpecificationExecutor<Entry> {
 
+    String ENTRIES_BY_CRITERIA_CACHE = "entriesByCriteria";
+
     @Query(value = "select distinct entry from Entry entry left join fetch entry.tags",
         countQuery = "select count(distinct entry) from Entry entry")
     Page<Entry> findAllWithEagerRelationships(Pageable pageable);
@@ -27,4 +31,50 @@ public interface EntryRepository extends JpaRepository<Entry, Long>, JpaSpecific
     @Query("select entry from Entry entry left join fetch entry.tags where entry.id =:id")
     Optional<Entry> findOneWithEagerRelationships(@Param("id") Long id);
 
+    @Query("select distinct entry from Entry entry left join fetch entry.tags where entry.id in :ids")
+    List<Entry> findAllWithEagerRelationshipsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Copy the name and handle of a blog to its entries which have other values, in one statement.
+     *
+     * @return the number of entries updated
+     */
+    @Modifying
+    @Query("update Entry entry set entry.blogName = :name, entry.blogHandle = :handle" +
+        " where entry.blog.id = :blogId and (entry.blogName <> :name or entry.blogHandle <> :handle)")
+    int updateBlogNameAndHandle(@Param("blogId") Long blogId, @Param("name") String name, @Param("handle") String handle);
+
+    /**
+     * Mark the entries of a blog as deleted, in one statement; they are removed later by the TombstonePurger.
+     *
+     * @return the number of entries marked
+     */
+    @Modifying
+    @Query("update Entry entry set entry.deletedDate = :deletedDate where entry.blog.id = :blogId")
+    int softDeleteByBlogId(@Param("blogId") Long blogId, @Param("deletedDate") Instant deletedDate);
+
+    @Query("select entry.version as version, entry.lastModifiedDate as lastModifiedDate," +
+        " blog.version as blogVersion, blog.lastModifiedDate as blogLastModifiedDate," +
+        " coalesce(sum(tag.version), 0) as tagsVersion, max(tag.lastModifiedDate) as tagsLastModifiedDate" +
+        " from Entry entry join entry.blog blog left join entry.tags tag where entry.id = :id" +
+        " group by entry.version, entry.lastModifiedDate, blog.version, blog.lastModifiedDate")
+    Optional<EntryVersion> findVersionById(@Param("id") Long id);
+
+    /**
+     * The version columns of an entry and of the blog and tags included in its representation.
+     * <p>
+     * Adding or removing a tag increments the version of the entry, so the sum of the tag versions
+     * only changes when one of the tags is modified.
+     */
+    interface EntryVersion extends EntityVersion {
+
+        Long getBlogVersion();
+
+        Instant getBlogLastModifiedDate();
+
+        Long getTagsVersion();
+
+        Instant getTagsLastModifiedDate();
+    }
+
 }
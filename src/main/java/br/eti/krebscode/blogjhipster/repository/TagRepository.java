@@ -2,8 +2,11 @@ package br.eti.krebscode.blogjhipster.repository;
 
 import br.eti.krebscode.blogjhipster.domain.Tag;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+
 
 /**
  * Spring Data  repository for the Tag entity.
@@ -12,4 +15,9 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface TagRepository extends JpaRepository<Tag, Long>, JpaSpecificationExecutor<Tag> {
 
+    String TAGS_BY_CRITERIA_CACHE = "tagsByCriteria";
+
+    @Query("select tag.version as version, tag.lastModifiedDate as lastModifiedDate from Tag tag where tag.id = :id")
+    Optional<EntityVersion> findVersionById(@Param("id") Long id);
+
 }
@@ -1,12 +1,17 @@
 package br.eti.krebscode.blogjhipster.repository;
 
+import br.eti.krebscode.blogjhipster.config.cache.SingleFlight;
 import br.eti.krebscode.blogjhipster.domain.User;
 
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 import java.util.Optional;
@@ -22,10 +27,46 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     String USERS_BY_EMAIL_CACHE = "usersByEmail";
 
+    /**
+     * Logins without any user. They are only cached for a short time, so that lookups of unknown logins
+     * don't all go to the database.
+     */
+    String MISSING_USERS_BY_LOGIN_CACHE = "missingUsersByLogin";
+
+    /**
+     * Emails without any user. They are only cached for a short time, so that lookups of unknown emails
+     * don't all go to the database.
+     */
+    String MISSING_USERS_BY_EMAIL_CACHE = "missingUsersByEmail";
+
     Optional<User> findOneByActivationKey(String activationKey);
 
     List<User> findAllByActivatedIsFalseAndCreatedDateBefore(Instant dateTime);
 
+    /**
+     * The next not activated users created before a date, by keyset pagination on the id.
+     *
+     * @param dateTime the creation date before which the users are returned
+     * @param afterId the id after which the users are returned
+     * @param pageable the number of users returned
+     * @return the ids of the users, in order
+     */
+    @Query("select user.id from User user " +
+        "where user.activated = false and user.createdDate < :dateTime and user.id > :afterId order by user.id")
+    List<Long> findNotActivatedUserIds(@Param("dateTime") Instant dateTime, @Param("afterId") Long afterId,
+                                       Pageable pageable);
+
+    /**
+     * Bulk delete of users; Hibernate deletes their rows of jhi_user_authority first, and evicts the User regions
+     * of the second level cache.
+     *
+     * @param ids the ids of the users
+     * @return the number of users deleted
+     */
+    @Modifying
+    @Query("delete from User user where user.id in :ids")
+    int deleteByIdIn(@Param("ids") List<Long> ids);
+
     Optional<User> findOneByResetKey(String resetKey);
 
     Optional<User> findOneByEmailIgnoreCase(String email);
@@ -36,11 +77,19 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findOneWithAuthoritiesById(Long id);
 
     @EntityGraph(attributePaths = "authorities")
-    @Cacheable(cacheNames = USERS_BY_LOGIN_CACHE)
+    @Caching(cacheable = {
+        @Cacheable(cacheNames = USERS_BY_LOGIN_CACHE, unless = "#result == null"),
+        @Cacheable(cacheNames = MISSING_USERS_BY_LOGIN_CACHE, unless = "#result != null")
+    })
+    @SingleFlight
     Optional<User> findOneWithAuthoritiesByLogin(String login);
 
     @EntityGraph(attributePaths = "authorities")
-    @Cacheable(cacheNames = USERS_BY_EMAIL_CACHE)
+    @Caching(cacheable = {
+        @Cacheable(cacheNames = USERS_BY_EMAIL_CACHE, unless = "#result == null"),
+        @Cacheable(cacheNames = MISSING_USERS_BY_EMAIL_CACHE, unless = "#result != null")
+    })
+    @SingleFlight
     Optional<User> findOneWithAuthoritiesByEmail(String email);
 
     Page<User> findAllByLoginNot(Pageable pageable, String login);
@@ -2,8 +2,6 @@ package br.eti.krebscode.blogjhipster.service;
 
 import java.util.List;
 
-import javax.persistence.criteria.JoinType;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -16,6 +14,7 @@ import io.github.jhipster.service.QueryService;
 
 import br.eti.krebscode.blogjhipster.domain.Blog;
 import br.eti.krebscode.blogjhipster.domain.*; // for static metamodels
+import br.eti.krebscode.blogjhipster.repository.CachedSpecificationRepository;
 import br.eti.krebscode.blogjhipster.repository.BlogRepository;
 import br.eti.krebscode.blogjhipster.service.dto.BlogCriteria;
 import br.eti.krebscode.blogjhipster.service.dto.BlogDTO;
@@ -25,6 +24,7 @@ import br.eti.krebscode.blogjhipster.service.mapper.BlogMapper;
  * Service for executing complex queries for Blog entities in the database.
  * The main input is a {@link BlogCriteria} which gets converted to {@link Specification},
  * in a way that all the filters must apply.
+ * Results are served from the query cache region {@link BlogRepository#BLOGS_BY_CRITERIA_CACHE} when it is enabled.
  * It returns a {@link List} of {@link BlogDTO} or a {@link Page} of {@link BlogDTO} which fulfills the criteria.
  */
 @Service
@@ -37,9 +37,13 @@ public class BlogQueryService extends QueryService<Blog> {
 
     private final BlogMapper blogMapper;
 
-    public BlogQueryService(BlogRepository blogRepository, BlogMapper blogMapper) {
+    private final CachedSpecificationRepository cachedSpecificationRepository;
+
+    public BlogQueryService(BlogRepository blogRepository, BlogMapper blogMapper,
+            CachedSpecificationRepository cachedSpecificationRepository) {
         this.blogRepository = blogRepository;
         this.blogMapper = blogMapper;
+        this.cachedSpecificationRepository = cachedSpecificationRepository;
     }
 
     /**
@@ -51,7 +55,8 @@ public class BlogQueryService extends QueryService<Blog> {
     public List<BlogDTO> findByCriteria(BlogCriteria criteria) {
         log.debug("find by criteria : {}", criteria);
         final Specification<Blog> specification = createSpecification(criteria);
-        return blogMapper.toDto(blogRepository.findAll(specification));
+        return blogMapper.toDto(cachedSpecificationRepository
+            .findAll(Blog.class, specification, Pageable.unpaged(), BlogRepository.BLOGS_BY_CRITERIA_CACHE).getContent());
     }
 
     /**
@@ -64,7 +69,7 @@ public class BlogQueryService extends QueryService<Blog> {
     public Page<BlogDTO> findByCriteria(BlogCriteria criteria, Pageable page) {
         log.debug("find by criteria : {}, page: {}", criteria, page);
         final Specification<Blog> specification = createSpecification(criteria);
-        return blogRepository.findAll(specification, page)
+        return cachedSpecificationRepository.findAll(Blog.class, specification, page, BlogRepository.BLOGS_BY_CRITERIA_CACHE)
             .map(blogMapper::toDto);
     }
 
@@ -77,7 +82,7 @@ public class BlogQueryService extends QueryService<Blog> {
     public long countByCriteria(BlogCriteria criteria) {
         log.debug("count by criteria : {}", criteria);
         final Specification<Blog> specification = createSpecification(criteria);
-        return blogRepository.count(specification);
+        return cachedSpecificationRepository.count(Blog.class, specification, BlogRepository.BLOGS_BY_CRITERIA_CACHE);
     }
 
     /**
@@ -96,8 +101,9 @@ public class BlogQueryService extends QueryService<Blog> {
                 specification = specification.and(buildStringSpecification(criteria.getHandle(), Blog_.handle));
             }
             if (criteria.getUserId() != null) {
+                // the foreign key column, without joining the user, so that the user_id index is used
                 specification = specification.and(buildSpecification(criteria.getUserId(),
-                    root -> root.join(Blog_.user, JoinType.LEFT).get(User_.id)));
+                    root -> root.get(Blog_.user).get(User_.id)));
             }
         }
         return specification;
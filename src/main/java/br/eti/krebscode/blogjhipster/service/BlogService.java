@@ -1,18 +1,32 @@
 package br.eti.krebscode.blogjhipster.service;
 
 import br.eti.krebscode.blogjhipster.domain.Blog;
+import br.eti.krebscode.blogjhipster.domain.Entry;
 import br.eti.krebscode.blogjhipster.repository.BlogRepository;
+import br.eti.krebscode.blogjhipster.repository.EntryRepository;
+import br.eti.krebscode.blogjhipster.repository.UserRepository;
 import br.eti.krebscode.blogjhipster.service.dto.BlogDTO;
+import br.eti.krebscode.blogjhipster.service.dto.VersionDTO;
 import br.eti.krebscode.blogjhipster.service.mapper.BlogMapper;
+import br.eti.krebscode.blogjhipster.service.util.CacheEvictionUtil;
+import br.eti.krebscode.blogjhipster.web.rest.errors.HandleAlreadyUsedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.UnaryOperator;
 
 /**
  * Service Implementation for managing Blog.
@@ -21,27 +35,112 @@ import java.util.Optional;
 @Transactional
 public class BlogService {
 
+    /**
+     * Cache of the rendered GET /api/blogs/:id responses.
+     */
+    public static final String BLOG_RESPONSES_CACHE = "blogResponses";
+
+    private static final String HANDLE_UNIQUE_INDEX = "ux_blog_handle";
+
     private final Logger log = LoggerFactory.getLogger(BlogService.class);
 
     private final BlogRepository blogRepository;
 
+    private final EntryRepository entryRepository;
+
+    private final UserRepository userRepository;
+
     private final BlogMapper blogMapper;
 
-    public BlogService(BlogRepository blogRepository, BlogMapper blogMapper) {
+    private final CacheManager cacheManager;
+
+    public BlogService(BlogRepository blogRepository, EntryRepository entryRepository, UserRepository userRepository,
+                       BlogMapper blogMapper, CacheManager cacheManager) {
         this.blogRepository = blogRepository;
+        this.entryRepository = entryRepository;
+        this.userRepository = userRepository;
         this.blogMapper = blogMapper;
+        this.cacheManager = cacheManager;
     }
 
     /**
      * Save a blog.
+     * <p>
+     * The entries keep a copy of the name and handle of their blog, which is updated in bulk when they change.
      *
      * @param blogDTO the entity to save
      * @return the persisted entity
+     * @throws HandleAlreadyUsedException if another blog has the handle
      */
     public BlogDTO save(BlogDTO blogDTO) {
         log.debug("Request to save Blog : {}", blogDTO);
+        if (blogDTO.getId() == null) {
+            checkHandleIsAvailable(blogDTO.getHandle());
+        }
         Blog blog = blogMapper.toEntity(blogDTO);
         blog = blogRepository.save(blog);
+        flushHandle();
+        if (blogDTO.getId() != null) {
+            updateEntries(blog);
+        }
+        clearBlogResponseCaches(blog.getId());
+        return blogMapper.toDto(blog);
+    }
+
+    /**
+     * Update an existing blog, if it wasn't modified since the version of the blogDTO.
+     * <p>
+     * The fields are copied to the managed blog, so that only the modified columns are written, and the entries
+     * are only updated when the name or handle changed.
+     *
+     * @param blogDTO the entity to update
+     * @return the updated entity, or empty if it doesn't exist
+     * @throws ObjectOptimisticLockingFailureException if the blog was modified since the version of the blogDTO
+     * @throws HandleAlreadyUsedException if another blog has the new handle
+     */
+    public Optional<BlogDTO> update(BlogDTO blogDTO) {
+        log.debug("Request to update Blog : {}", blogDTO);
+        return blogRepository.findById(blogDTO.getId())
+            .map(blog -> update(blog, blogDTO));
+    }
+
+    /**
+     * Partially update an existing blog, if it wasn't modified since the version of the patched blogDTO.
+     *
+     * @param id the id of the entity
+     * @param patch the changes, applied to the current blogDTO
+     * @return the updated entity, or empty if it doesn't exist
+     * @throws ObjectOptimisticLockingFailureException if the blog was modified since the version of the blogDTO
+     * @throws HandleAlreadyUsedException if another blog has the new handle
+     */
+    public Optional<BlogDTO> partialUpdate(Long id, UnaryOperator<BlogDTO> patch) {
+        log.debug("Request to partially update Blog : {}", id);
+        return blogRepository.findById(id)
+            .map(blog -> update(blog, patch.apply(blogMapper.toDto(blog))));
+    }
+
+    private BlogDTO update(Blog blog, BlogDTO blogDTO) {
+        if (!Objects.equals(blogDTO.getVersion(), blog.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Blog.class, blog.getId());
+        }
+        String name = blog.getName();
+        String handle = blog.getHandle();
+        if (!Objects.equals(handle, blogDTO.getHandle())) {
+            checkHandleIsAvailable(blogDTO.getHandle());
+        }
+        blogMapper.updateEntity(blogDTO, blog);
+        if (blog.getUser() == null || !Objects.equals(blog.getUser().getId(), blogDTO.getUserId())) {
+            blog.setUser(blogDTO.getUserId() != null ? userRepository.getOne(blogDTO.getUserId()) : null);
+        }
+        // the version is checked by the update statement too, and is incremented by it
+        flushHandle();
+        if (!Objects.equals(name, blog.getName()) || !Objects.equals(handle, blog.getHandle())) {
+            updateEntries(blog);
+        }
+        if (!Objects.equals(handle, blog.getHandle())) {
+            evictBlogId(handle);
+        }
+        clearBlogResponseCaches(blog.getId());
         return blogMapper.toDto(blog);
     }
 
@@ -73,12 +172,114 @@ public class BlogService {
     }
 
     /**
-     * Delete the blog by id.
+     * Get the version of one blog by id, without loading the blog.
+     *
+     * @param id the id of the entity
+     * @return the version of the entity
+     */
+    @Transactional(readOnly = true)
+    public Optional<VersionDTO> findVersion(Long id) {
+        log.debug("Request to get the version of Blog : {}", id);
+        return blogRepository.findVersionById(id)
+            .map(version -> new VersionDTO(String.valueOf(version.getVersion()), version.getLastModifiedDate()));
+    }
+
+    /**
+     * Get the id of one blog by handle.
+     * <p>
+     * The ids are cached, and a cached id is read without starting a transaction.
+     *
+     * @param handle the handle of the entity
+     * @return the id of the entity
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Optional<Long> findIdByHandle(String handle) {
+        log.debug("Request to get the id of Blog : {}", handle);
+        return blogRepository.findIdByHandle(handle);
+    }
+
+    /**
+     * Delete the blog by id, with its entries.
+     * <p>
+     * The blog and its entries are only marked as deleted, which hides them at once; their rows are removed later by
+     * the TombstonePurger, off the request path.
      *
      * @param id the id of the entity
      */
     public void delete(Long id) {
         log.debug("Request to delete Blog : {}", id);
-        blogRepository.deleteById(id);
+        blogRepository.findById(id).ifPresent(blog -> {
+            Instant deletedDate = Instant.now();
+            blog.setDeletedDate(deletedDate);
+            deleteEntries(blog, deletedDate);
+            evictBlogId(blog.getHandle());
+        });
+        clearBlogResponseCaches(id);
+    }
+
+    /**
+     * The bulk update bypasses the second level cache, so the cached entries are all evicted, on the other instances
+     * too.
+     */
+    private void updateEntries(Blog blog) {
+        int updated = entryRepository.updateBlogNameAndHandle(blog.getId(), blog.getName(), blog.getHandle());
+        if (updated > 0) {
+            log.debug("Updated the blog name and handle of {} Entries", updated);
+            Objects.requireNonNull(cacheManager.getCache(Entry.class.getName())).clear();
+        }
+    }
+
+    /**
+     * Like {@link #updateEntries(Blog)}, the cached entries are all evicted after the bulk update.
+     */
+    private void deleteEntries(Blog blog, Instant deletedDate) {
+        int deleted = entryRepository.softDeleteByBlogId(blog.getId(), deletedDate);
+        if (deleted > 0) {
+            log.debug("Marked {} Entries as deleted", deleted);
+            Objects.requireNonNull(cacheManager.getCache(Entry.class.getName())).clear();
+        }
+    }
+
+    /**
+     * The deleted blogs are counted too: they keep their handle, and its unique index, until they are removed.
+     */
+    private void checkHandleIsAvailable(String handle) {
+        if (handle != null && blogRepository.countByHandleIncludingDeleted(handle) > 0) {
+            throw new HandleAlreadyUsedException();
+        }
+    }
+
+    /**
+     * The handle is checked before the blog is written, but another blog can take it in the meantime: the unique index
+     * rejects it then.
+     */
+    private void flushHandle() {
+        try {
+            blogRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            String message = e.getMostSpecificCause().getMessage();
+            if (message != null && message.toLowerCase(Locale.ROOT).contains(HANDLE_UNIQUE_INDEX)) {
+                throw new HandleAlreadyUsedException();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Like the responses, the id is evicted again after the commit, as a read can cache it in the meantime.
+     */
+    private void evictBlogId(String handle) {
+        CacheEvictionUtil.evictNowAndAfterCommit(() ->
+            Objects.requireNonNull(cacheManager.getCache(BlogRepository.BLOG_IDS_BY_HANDLE_CACHE)).evict(handle));
+    }
+
+    /**
+     * Entry responses embed the blog name, so they are all evicted as well.
+     */
+    private void clearBlogResponseCaches(Long id) {
+        CacheEvictionUtil.evictNowAndAfterCommit(() -> {
+            Objects.requireNonNull(cacheManager.getCache(BLOG_RESPONSES_CACHE)).evict(id);
+            Objects.requireNonNull(cacheManager.getCache(EntryService.ENTRY_RESPONSES_CACHE)).clear();
+        });
     }
 }
@@ -0,0 +1,207 @@
+package br.eti.krebscode.blogjhipster.service;
+
+import br.eti.krebscode.blogjhipster.config.ApplicationProperties;
+import br.eti.krebscode.blogjhipster.config.datasource.ReplicaRoutingDataSource;
+import br.eti.krebscode.blogjhipster.domain.Blog;
+import br.eti.krebscode.blogjhipster.domain.Entry;
+import br.eti.krebscode.blogjhipster.domain.Tag;
+import br.eti.krebscode.blogjhipster.repository.BlogRepository;
+import br.eti.krebscode.blogjhipster.repository.EntryRepository;
+import br.eti.krebscode.blogjhipster.repository.TagRepository;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service keeping the second level cache warm across restarts.
+ * <p>
+ * Accesses to single entities are counted in memory, and the ids of the most accessed ones are periodically
+ * recorded to a local file. On startup, a background task loads these entities back in batches; until it is done,
+ * the "cacheWarmUp" health indicator reports the application as out of service.
+ * <p>
+ * The counts are halved after each recording, so that the recorded ids follow the recent traffic.
+ */
+@Service
+public class CacheWarmUpService {
+
+    private static final TypeReference<Map<String, List<Long>>> HISTORY_TYPE = new TypeReference<Map<String, List<Long>>>() {
+    };
+
+    private final Logger log = LoggerFactory.getLogger(CacheWarmUpService.class);
+
+    private final ApplicationProperties.Cache.WarmUp warmUpProperties;
+
+    private final ObjectMapper objectMapper;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<String, Function<List<Long>, List<?>>> loaders = new LinkedHashMap<>();
+
+    private final Map<String, Map<Long, LongAdder>> accessCounts = new HashMap<>();
+
+    private volatile boolean warmedUp;
+
+    public CacheWarmUpService(ApplicationProperties applicationProperties, ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager, BlogRepository blogRepository,
+                              TagRepository tagRepository, EntryRepository entryRepository) {
+        this.warmUpProperties = applicationProperties.getCache().getWarmUp();
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        // Blogs and tags are loaded first, so that the entries find them in the cache
+        loaders.put(Blog.class.getSimpleName(), blogRepository::findAllById);
+        loaders.put(Tag.class.getSimpleName(), tagRepository::findAllById);
+        loaders.put(Entry.class.getSimpleName(), entryRepository::findAllWithEagerRelationshipsByIdIn);
+        loaders.keySet().forEach(name -> accessCounts.put(name, new ConcurrentHashMap<>()));
+    }
+
+    /**
+     * Count an access to an entity.
+     *
+     * @param domainClass the class of the entity
+     * @param id the id of the entity
+     */
+    public void recordAccess(Class<?> domainClass, Long id) {
+        Map<Long, LongAdder> counts = accessCounts.get(domainClass.getSimpleName());
+        if (!warmUpProperties.isEnabled() || counts == null || id == null) {
+            return;
+        }
+        LongAdder count = counts.get(id);
+        if (count == null) {
+            // Bounds the memory used by the requests for ids that don't exist
+            if (counts.size() >= warmUpProperties.getMaxIds() * 10) {
+                return;
+            }
+            count = counts.computeIfAbsent(id, key -> new LongAdder());
+        }
+        count.increment();
+    }
+
+    /**
+     * Record the ids of the most accessed entities to the warm-up file.
+     */
+    @Scheduled(initialDelayString = "${application.cache.warm-up.record-interval-ms:300000}",
+        fixedDelayString = "${application.cache.warm-up.record-interval-ms:300000}")
+    public void recordAccessHistory() {
+        if (!warmUpProperties.isEnabled()) {
+            return;
+        }
+        Map<String, List<Long>> history = new LinkedHashMap<>();
+        accessCounts.forEach((name, counts) -> history.put(name, mostAccessed(counts)));
+        Path file = Paths.get(warmUpProperties.getFile()).toAbsolutePath();
+        try {
+            Files.createDirectories(file.getParent());
+            Path tempFile = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            objectMapper.writeValue(tempFile.toFile(), history);
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Recorded the cache warm-up history to {}", file);
+        } catch (IOException e) {
+            log.warn("Could not record the cache warm-up history to {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Warm up the second level cache in the background once the application is started.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        warmUp();
+    }
+
+    /**
+     * Load the entities recorded in the warm-up file in the second level cache.
+     */
+    public void warmUp() {
+        Path file = Paths.get(warmUpProperties.getFile()).toAbsolutePath();
+        try {
+            if (warmUpProperties.isEnabled() && Files.exists(file)) {
+                long start = System.currentTimeMillis();
+                Map<String, List<Long>> history = objectMapper.readValue(file.toFile(), HISTORY_TYPE);
+                int loaded = 0;
+                for (Map.Entry<String, Function<List<Long>, List<?>>> loader : loaders.entrySet()) {
+                    List<Long> ids = history.getOrDefault(loader.getKey(), Collections.emptyList());
+                    loaded += load(loader.getValue(), ids);
+                    seedAccessCounts(accessCounts.get(loader.getKey()), ids);
+                }
+                log.info("Warmed up the second level cache with {} entities in {} ms", loaded,
+                    System.currentTimeMillis() - start);
+            }
+        } catch (IOException | DataAccessException e) {
+            log.warn("Could not warm up the second level cache from {}: {}", file, e.getMessage());
+        } finally {
+            warmedUp = true;
+        }
+    }
+
+    /**
+     * @return true once the warm-up is over, whether it succeeded or not
+     */
+    public boolean isWarmedUp() {
+        return warmedUp;
+    }
+
+    private int load(Function<List<Long>, List<?>> loader, List<Long> ids) {
+        int loaded = 0;
+        for (int from = 0; from < ids.size(); from += warmUpProperties.getBatchSize()) {
+            List<Long> batch = ids.subList(from, Math.min(from + warmUpProperties.getBatchSize(), ids.size()));
+            // One transaction, and so one persistence context, per batch, on the primary as a replica can't fill the cache
+            List<?> entities = ReplicaRoutingDataSource.readFromPrimary(() ->
+                transactionTemplate.execute(status -> loader.apply(batch)));
+            loaded += entities == null ? 0 : entities.size();
+        }
+        return loaded;
+    }
+
+    /**
+     * Give the warmed up ids a head start, so that a quiet period after a restart doesn't erase them from the history.
+     */
+    private static void seedAccessCounts(Map<Long, LongAdder> counts, List<Long> ids) {
+        for (int rank = 0; rank < ids.size(); rank++) {
+            counts.computeIfAbsent(ids.get(rank), key -> new LongAdder()).add(ids.size() - rank);
+        }
+    }
+
+    private List<Long> mostAccessed(Map<Long, LongAdder> counts) {
+        Map<Long, Long> snapshot = new HashMap<>();
+        counts.forEach((id, count) -> {
+            long total = count.sumThenReset();
+            snapshot.put(id, total);
+            if (total / 2 > 0) {
+                count.add(total / 2);
+            } else {
+                counts.remove(id, count);
+            }
+        });
+        return snapshot.entrySet().stream()
+            .sorted(Map.Entry.<Long, Long>comparingByValue().reversed())
+            .limit(warmUpProperties.getMaxIds())
+            .map(Map.Entry::getKey)
+            .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,325 @@
+package br.eti.krebscode.blogjhipster.service;
+
+import br.eti.krebscode.blogjhipster.config.ApplicationProperties;
+import br.eti.krebscode.blogjhipster.domain.Entry;
+import br.eti.krebscode.blogjhipster.repository.BlogRepository;
+import br.eti.krebscode.blogjhipster.repository.EntryRepository;
+import br.eti.krebscode.blogjhipster.repository.TagRepository;
+import br.eti.krebscode.blogjhipster.service.dto.EntryDTO;
+import br.eti.krebscode.blogjhipster.service.dto.ImportErrorDTO;
+import br.eti.krebscode.blogjhipster.service.dto.ImportStatusDTO;
+import br.eti.krebscode.blogjhipster.service.dto.TagDTO;
+import br.eti.krebscode.blogjhipster.service.mapper.EntryMapper;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Service importing entries from NDJSON, one entry per line.
+ * <p>
+ * The lines are read and parsed one at a time, and the entries are inserted in batches, each one in its own
+ * transaction: the memory used by an import doesn't depend on its size. The lines longer than
+ * "application.entry-import.max-line-length" are skipped without being kept in memory.
+ */
+@Service
+public class EntryImportService {
+
+    /**
+     * Callback of an import, notified of the lines which couldn't be imported and of the progress after each batch.
+     */
+    public interface ImportListener {
+
+        void onError(ImportErrorDTO error) throws IOException;
+
+        void onProgress(ImportStatusDTO status) throws IOException;
+    }
+
+    /**
+     * Upper bound of the blog and tag ids whose existence is remembered during an import.
+     */
+    private static final int MAX_KNOWN_IDS = 10_000;
+
+    private final Logger log = LoggerFactory.getLogger(EntryImportService.class);
+
+    private final EntryRepository entryRepository;
+
+    private final BlogRepository blogRepository;
+
+    private final TagRepository tagRepository;
+
+    private final EntryMapper entryMapper;
+
+    private final ObjectReader entryReader;
+
+    private final Validator validator;
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationProperties applicationProperties;
+
+    public EntryImportService(EntryRepository entryRepository, BlogRepository blogRepository, TagRepository tagRepository,
+                              EntryMapper entryMapper, ObjectMapper objectMapper, Validator validator,
+                              EntityManager entityManager, PlatformTransactionManager transactionManager,
+                              ApplicationProperties applicationProperties) {
+        this.entryRepository = entryRepository;
+        this.blogRepository = blogRepository;
+        this.tagRepository = tagRepository;
+        this.entryMapper = entryMapper;
+        this.entryReader = objectMapper.readerFor(EntryDTO.class);
+        this.validator = validator;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.applicationProperties = applicationProperties;
+    }
+
+    /**
+     * Import new entries, given as one JSON entry per line; blank lines are skipped.
+     * <p>
+     * The lines which can't be imported are reported and skipped, the other entries are imported anyway.
+     *
+     * @param reader the NDJSON lines
+     * @param listener notified of the errors and of the progress
+     * @return the final status of the import
+     * @throws IOException if the lines couldn't be read, or if the listener failed
+     */
+    public ImportStatusDTO importEntries(Reader reader, ImportListener listener) throws IOException {
+        int batchSize = applicationProperties.getEntryImport().getBatchSize();
+        int maxLineLength = applicationProperties.getEntryImport().getMaxLineLength();
+        log.debug("Request to import Entries, by batches of {}", batchSize);
+        LineReader lines = new LineReader(reader, maxLineLength);
+        ImportStatusDTO status = new ImportStatusDTO();
+        List<ImportLine> batch = new ArrayList<>(batchSize);
+        Map<Long, Boolean> knownBlogs = new HashMap<>();
+        Map<Long, Boolean> knownTags = new HashMap<>();
+        while (lines.next()) {
+            status.setLines(status.getLines() + 1);
+            if (lines.isTooLong()) {
+                fail(status, listener, status.getLines(), "Line longer than " + maxLineLength + " characters");
+                continue;
+            }
+            String line = lines.getLine();
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            EntryDTO entryDTO;
+            try {
+                entryDTO = entryReader.readValue(line);
+            } catch (JsonProcessingException e) {
+                fail(status, listener, status.getLines(), "Invalid JSON: " + e.getOriginalMessage());
+                continue;
+            }
+            String error = validate(entryDTO, knownBlogs, knownTags);
+            if (error != null) {
+                fail(status, listener, status.getLines(), error);
+                continue;
+            }
+            batch.add(new ImportLine(status.getLines(), entryDTO));
+            if (batch.size() >= batchSize) {
+                insert(batch, status, listener);
+                listener.onProgress(status);
+            }
+        }
+        insert(batch, status, listener);
+        status.setDone(true);
+        listener.onProgress(status);
+        log.debug("Imported Entries: {}", status);
+        return status;
+    }
+
+    private String validate(EntryDTO entryDTO, Map<Long, Boolean> knownBlogs, Map<Long, Boolean> knownTags) {
+        if (entryDTO == null) {
+            return "Not an entry";
+        }
+        if (entryDTO.getId() != null) {
+            return "A new entry cannot already have an ID";
+        }
+        Set<ConstraintViolation<EntryDTO>> violations = validator.validate(entryDTO);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+        }
+        if (entryDTO.getContent() == null) {
+            return "content: must not be null";
+        }
+        if (entryDTO.getBlogId() == null) {
+            return "blogId: must not be null";
+        }
+        if (!exists(knownBlogs, entryDTO.getBlogId(), blogRepository::existsById)) {
+            return "Unknown blog " + entryDTO.getBlogId();
+        }
+        if (entryDTO.getTags() == null) {
+            return null;
+        }
+        for (TagDTO tag : entryDTO.getTags()) {
+            if (tag == null || tag.getId() == null) {
+                return "tags: must have an id";
+            }
+            if (!exists(knownTags, tag.getId(), tagRepository::existsById)) {
+                return "Unknown tag " + tag.getId();
+            }
+        }
+        return null;
+    }
+
+    private static boolean exists(Map<Long, Boolean> knownIds, Long id, Predicate<Long> existsById) {
+        if (knownIds.size() >= MAX_KNOWN_IDS && !knownIds.containsKey(id)) {
+            knownIds.clear();
+        }
+        return knownIds.computeIfAbsent(id, existsById::test);
+    }
+
+    /**
+     * Insert a batch in one transaction; if it fails, its entries are inserted one by one to find the failing ones.
+     */
+    private void insert(List<ImportLine> batch, ImportStatusDTO status, ImportListener listener) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            save(batch);
+            status.setImported(status.getImported() + batch.size());
+        } catch (RuntimeException e) {
+            log.debug("Could not import the batch of Entries ending at line {}, importing them one by one: {}",
+                batch.get(batch.size() - 1).number, e.getMessage());
+            for (ImportLine line : batch) {
+                try {
+                    save(Collections.singletonList(line));
+                    status.setImported(status.getImported() + 1);
+                } catch (RuntimeException lineException) {
+                    fail(status, listener, line.number, NestedExceptionUtils.getMostSpecificCause(lineException).getMessage());
+                }
+            }
+        }
+        batch.clear();
+    }
+
+    private void save(List<ImportLine> lines) {
+        transactionTemplate.execute(transactionStatus -> {
+            for (ImportLine line : lines) {
+                Entry entry = entryMapper.toEntity(line.entryDTO);
+                // copies the name and handle of the blog, which is loaded once per batch
+                entry.setBlog(blogRepository.getOne(line.entryDTO.getBlogId()));
+                entryRepository.save(entry);
+            }
+            entityManager.flush();
+            entityManager.clear();
+            return null;
+        });
+    }
+
+    private static void fail(ImportStatusDTO status, ImportListener listener, long line, String error) throws IOException {
+        status.setFailed(status.getFailed() + 1);
+        listener.onError(new ImportErrorDTO(line, error));
+    }
+
+    /**
+     * Reads the lines like {@link java.io.BufferedReader#readLine()}, but keeps at most the maximum length of a line:
+     * the rest of a longer line is read and dropped.
+     */
+    private static final class LineReader {
+
+        private final Reader reader;
+
+        private final int maxLength;
+
+        private final char[] buffer = new char[8192];
+
+        private int position;
+
+        private int limit;
+
+        private boolean skipLineFeed;
+
+        private final StringBuilder line = new StringBuilder();
+
+        private boolean tooLong;
+
+        private LineReader(Reader reader, int maxLength) {
+            this.reader = reader;
+            this.maxLength = maxLength;
+        }
+
+        /**
+         * @return false at the end of the input, else the next line is read
+         */
+        private boolean next() throws IOException {
+            line.setLength(0);
+            tooLong = false;
+            boolean read = false;
+            while (true) {
+                if (position == limit) {
+                    limit = Math.max(reader.read(buffer), 0);
+                    position = 0;
+                    if (limit == 0) {
+                        return read;
+                    }
+                }
+                char c = buffer[position++];
+                if (skipLineFeed) {
+                    skipLineFeed = false;
+                    if (c == '\n') {
+                        continue;
+                    }
+                }
+                read = true;
+                if (c == '\n' || c == '\r') {
+                    skipLineFeed = c == '\r';
+                    return true;
+                }
+                if (line.length() < maxLength) {
+                    line.append(c);
+                } else {
+                    tooLong = true;
+                }
+            }
+        }
+
+        /**
+         * @return whether the line is longer than the maximum length, in which case it isn't available
+         */
+        private boolean isTooLong() {
+            return tooLong;
+        }
+
+        private String getLine() {
+            return line.toString();
+        }
+    }
+
+    private static final class ImportLine {
+
+        private final long number;
+
+        private final EntryDTO entryDTO;
+
+        private ImportLine(long number, EntryDTO entryDTO) {
+            this.number = number;
+            this.entryDTO = entryDTO;
+        }
+    }
+}
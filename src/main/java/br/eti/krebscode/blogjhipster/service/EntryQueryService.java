@@ -1,9 +1,19 @@
 package br.eti.krebscode.blogjhipster.service;
 
+import java.io.IOException;
 import java.util.List;
 
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
 
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.query.Query;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -14,8 +24,10 @@ import org.springframework.transaction.annotation.Transactional;
 
 import io.github.jhipster.service.QueryService;
 
+import br.eti.krebscode.blogjhipster.config.ApplicationProperties;
 import br.eti.krebscode.blogjhipster.domain.Entry;
 import br.eti.krebscode.blogjhipster.domain.*; // for static metamodels
+import br.eti.krebscode.blogjhipster.repository.CachedSpecificationRepository;
 import br.eti.krebscode.blogjhipster.repository.EntryRepository;
 import br.eti.krebscode.blogjhipster.service.dto.EntryCriteria;
 import br.eti.krebscode.blogjhipster.service.dto.EntryDTO;
@@ -25,21 +37,43 @@ import br.eti.krebscode.blogjhipster.service.mapper.EntryMapper;
  * Service for executing complex queries for Entry entities in the database.
  * The main input is a {@link EntryCriteria} which gets converted to {@link Specification},
  * in a way that all the filters must apply.
- * It returns a {@link List} of {@link EntryDTO} or a {@link Page} of {@link EntryDTO} which fulfills the criteria.
+ * Results are served from the query cache region {@link EntryRepository#ENTRIES_BY_CRITERIA_CACHE} when it is enabled.
+ * It returns a {@link List} of {@link EntryDTO} or a {@link Page} of {@link EntryDTO} which fulfills the criteria,
+ * or streams them to an {@link EntryHandler} for exports.
  */
 @Service
 @Transactional(readOnly = true)
 public class EntryQueryService extends QueryService<Entry> {
 
+    /**
+     * Callback of a streamed query, receiving the matching entries one at a time.
+     */
+    @FunctionalInterface
+    public interface EntryHandler {
+
+        void handle(EntryDTO entryDTO) throws IOException;
+    }
+
     private final Logger log = LoggerFactory.getLogger(EntryQueryService.class);
 
     private final EntryRepository entryRepository;
 
     private final EntryMapper entryMapper;
 
-    public EntryQueryService(EntryRepository entryRepository, EntryMapper entryMapper) {
+    private final CachedSpecificationRepository cachedSpecificationRepository;
+
+    private final EntityManager entityManager;
+
+    private final ApplicationProperties applicationProperties;
+
+    public EntryQueryService(EntryRepository entryRepository, EntryMapper entryMapper,
+            CachedSpecificationRepository cachedSpecificationRepository, EntityManager entityManager,
+            ApplicationProperties applicationProperties) {
         this.entryRepository = entryRepository;
         this.entryMapper = entryMapper;
+        this.cachedSpecificationRepository = cachedSpecificationRepository;
+        this.entityManager = entityManager;
+        this.applicationProperties = applicationProperties;
     }
 
     /**
@@ -51,7 +85,8 @@ public class EntryQueryService extends QueryService<Entry> {
     public List<EntryDTO> findByCriteria(EntryCriteria criteria) {
         log.debug("find by criteria : {}", criteria);
         final Specification<Entry> specification = createSpecification(criteria);
-        return entryMapper.toDto(entryRepository.findAll(specification));
+        return entryMapper.toDto(cachedSpecificationRepository
+            .findAll(Entry.class, specification, Pageable.unpaged(), EntryRepository.ENTRIES_BY_CRITERIA_CACHE).getContent());
     }
 
     /**
@@ -64,7 +99,7 @@ public class EntryQueryService extends QueryService<Entry> {
     public Page<EntryDTO> findByCriteria(EntryCriteria criteria, Pageable page) {
         log.debug("find by criteria : {}, page: {}", criteria, page);
         final Specification<Entry> specification = createSpecification(criteria);
-        return entryRepository.findAll(specification, page)
+        return cachedSpecificationRepository.findAll(Entry.class, specification, page, EntryRepository.ENTRIES_BY_CRITERIA_CACHE)
             .map(entryMapper::toDto);
     }
 
@@ -77,7 +112,54 @@ public class EntryQueryService extends QueryService<Entry> {
     public long countByCriteria(EntryCriteria criteria) {
         log.debug("count by criteria : {}", criteria);
         final Specification<Entry> specification = createSpecification(criteria);
-        return entryRepository.count(specification);
+        return cachedSpecificationRepository.count(Entry.class, specification, EntryRepository.ENTRIES_BY_CRITERIA_CACHE);
+    }
+
+    /**
+     * Stream the entries which match the criteria, ordered by id, to a handler.
+     * <p>
+     * The rows are read with a forward-only cursor, fetching the tags of the entries in the same query, the blog name
+     * and handle being copied on the entries; each entry is detached once handled: the memory used doesn't depend on
+     * the number of matching entries.
+     * The query cache and the second-level cache are bypassed.
+     *
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param handler called with each matching entry, it may block to slow down the read of the rows.
+     * @return the number of matching entries.
+     * @throws IOException if the handler failed.
+     */
+    @Transactional(readOnly = true)
+    public long streamByCriteria(EntryCriteria criteria, EntryHandler handler) throws IOException {
+        int fetchSize = applicationProperties.getEntryExport().getFetchSize();
+        log.debug("stream by criteria : {}, fetch size: {}", criteria, fetchSize);
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Entry> query = builder.createQuery(Entry.class);
+        Root<Entry> root = query.from(Entry.class);
+        root.fetch(Entry_.tags, JoinType.LEFT);
+        Predicate predicate = createSpecification(criteria).toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        // the rows of an entry and its tags must be consecutive for the scroll to assemble them
+        query.orderBy(builder.asc(root.get(Entry_.id)));
+        ScrollableResults results = entityManager.createQuery(query).unwrap(Query.class)
+            .setFetchSize(fetchSize)
+            .setReadOnly(true)
+            .setCacheable(false)
+            .setCacheMode(CacheMode.IGNORE)
+            .scroll(ScrollMode.FORWARD_ONLY);
+        long count = 0;
+        try {
+            while (results.next()) {
+                Entry entry = (Entry) results.get(0);
+                handler.handle(entryMapper.toDto(entry));
+                entityManager.detach(entry);
+                count++;
+            }
+        } finally {
+            results.close();
+        }
+        return count;
     }
 
     /**
@@ -96,12 +178,15 @@ public class EntryQueryService extends QueryService<Entry> {
                 specification = specification.and(buildRangeSpecification(criteria.getDate(), Entry_.date));
             }
             if (criteria.getBlogId() != null) {
+                // the foreign key column, without joining the blog, so that the blog_id indexes are used
                 specification = specification.and(buildSpecification(criteria.getBlogId(),
-                    root -> root.join(Entry_.blog, JoinType.LEFT).get(Blog_.id)));
+                    root -> root.get(Entry_.blog).get(Blog_.id)));
             }
             if (criteria.getTagId() != null) {
+                // an inner join lets the database start from the tag, it must be outer to find the entries without tags
+                JoinType joinType = criteria.getTagId().getSpecified() == null ? JoinType.INNER : JoinType.LEFT;
                 specification = specification.and(buildSpecification(criteria.getTagId(),
-                    root -> root.join(Entry_.tags, JoinType.LEFT).get(Tag_.id)));
+                    root -> root.join(Entry_.tags, joinType).get(Tag_.id)));
             }
         }
         return specification;
@@ -1,18 +1,35 @@
 package br.eti.krebscode.blogjhipster.service;
 
 import br.eti.krebscode.blogjhipster.domain.Entry;
+import br.eti.krebscode.blogjhipster.domain.Tag;
+import br.eti.krebscode.blogjhipster.repository.BlogRepository;
 import br.eti.krebscode.blogjhipster.repository.EntryRepository;
+import br.eti.krebscode.blogjhipster.repository.TagRepository;
 import br.eti.krebscode.blogjhipster.service.dto.EntryDTO;
+import br.eti.krebscode.blogjhipster.service.dto.TagDTO;
+import br.eti.krebscode.blogjhipster.service.dto.VersionDTO;
 import br.eti.krebscode.blogjhipster.service.mapper.EntryMapper;
+import br.eti.krebscode.blogjhipster.service.util.CacheEvictionUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service Implementation for managing Entry.
@@ -21,15 +38,30 @@ import java.util.Optional;
 @Transactional
 public class EntryService {
 
+    /**
+     * Cache of the rendered GET /api/entries/:id responses.
+     */
+    public static final String ENTRY_RESPONSES_CACHE = "entryResponses";
+
     private final Logger log = LoggerFactory.getLogger(EntryService.class);
 
     private final EntryRepository entryRepository;
 
+    private final BlogRepository blogRepository;
+
+    private final TagRepository tagRepository;
+
     private final EntryMapper entryMapper;
 
-    public EntryService(EntryRepository entryRepository, EntryMapper entryMapper) {
+    private final CacheManager cacheManager;
+
+    public EntryService(EntryRepository entryRepository, BlogRepository blogRepository, TagRepository tagRepository,
+                        EntryMapper entryMapper, CacheManager cacheManager) {
         this.entryRepository = entryRepository;
+        this.blogRepository = blogRepository;
+        this.tagRepository = tagRepository;
         this.entryMapper = entryMapper;
+        this.cacheManager = cacheManager;
     }
 
     /**
@@ -41,10 +73,76 @@ public class EntryService {
     public EntryDTO save(EntryDTO entryDTO) {
         log.debug("Request to save Entry : {}", entryDTO);
         Entry entry = entryMapper.toEntity(entryDTO);
+        if (entry.getBlog() != null) {
+            // copies the name and handle of the blog
+            entry.setBlog(blogRepository.getOne(entry.getBlog().getId()));
+        }
         entry = entryRepository.save(entry);
+        clearEntryResponseCache(entry.getId());
         return entryMapper.toDto(entry);
     }
 
+    /**
+     * Update an existing entry, if it wasn't modified since the version of the entryDTO.
+     * <p>
+     * The fields are copied to the managed entry, so that only the modified columns are written, and the tags are
+     * added and removed one by one, so that only the modified rows of entry_tag are written.
+     *
+     * @param entryDTO the entity to update
+     * @return the updated entity, or empty if it doesn't exist
+     * @throws ObjectOptimisticLockingFailureException if the entry was modified since the version of the entryDTO
+     */
+    public Optional<EntryDTO> update(EntryDTO entryDTO) {
+        log.debug("Request to update Entry : {}", entryDTO);
+        return entryRepository.findById(entryDTO.getId())
+            .map(entry -> update(entry, entryDTO));
+    }
+
+    /**
+     * Partially update an existing entry, if it wasn't modified since the version of the patched entryDTO.
+     *
+     * @param id the id of the entity
+     * @param patch the changes, applied to the current entryDTO
+     * @return the updated entity, or empty if it doesn't exist
+     * @throws ObjectOptimisticLockingFailureException if the entry was modified since the version of the entryDTO
+     */
+    public Optional<EntryDTO> partialUpdate(Long id, UnaryOperator<EntryDTO> patch) {
+        log.debug("Request to partially update Entry : {}", id);
+        return entryRepository.findById(id)
+            .map(entry -> update(entry, patch.apply(entryMapper.toDto(entry))));
+    }
+
+    private EntryDTO update(Entry entry, EntryDTO entryDTO) {
+        if (!Objects.equals(entryDTO.getVersion(), entry.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Entry.class, entry.getId());
+        }
+        ZonedDateTime date = entry.getDate();
+        entryMapper.updateEntity(entryDTO, entry);
+        if (date != null && entry.getDate() != null && date.isEqual(entry.getDate())) {
+            // the same instant in another time zone isn't a change
+            entry.setDate(date);
+        }
+        if (entry.getBlog() == null || !Objects.equals(entry.getBlog().getId(), entryDTO.getBlogId())) {
+            // copies the name and handle of the blog
+            entry.setBlog(entryDTO.getBlogId() != null ? blogRepository.getOne(entryDTO.getBlogId()) : null);
+        }
+        updateTags(entry, entryDTO.getTags() != null ? entryDTO.getTags() : Collections.emptySet());
+        // the version is checked by the update statement too, and is incremented by it
+        entryRepository.flush();
+        clearEntryResponseCache(entry.getId());
+        return entryMapper.toDto(entry);
+    }
+
+    private void updateTags(Entry entry, Set<TagDTO> tagDTOs) {
+        Set<Long> tagIds = tagDTOs.stream().map(TagDTO::getId).collect(Collectors.toSet());
+        Set<Long> currentTagIds = entry.getTags().stream().map(Tag::getId).collect(Collectors.toSet());
+        entry.getTags().removeIf(tag -> !tagIds.contains(tag.getId()));
+        tagIds.stream()
+            .filter(tagId -> !currentTagIds.contains(tagId))
+            .map(tagRepository::getOne)
+            .forEach(entry::addTag);
+    }
+
     /**
      * Get all the entries.
      *
@@ -81,13 +179,42 @@ public class EntryService {
             .map(entryMapper::toDto);
     }
 
+    /**
+     * Get the version of one entry by id, without loading its content.
+     * <p>
+     * The version changes whenever the entry, its blog or one of its tags is modified.
+     *
+     * @param id the id of the entity
+     * @return the version of the entity
+     */
+    @Transactional(readOnly = true)
+    public Optional<VersionDTO> findVersion(Long id) {
+        log.debug("Request to get the version of Entry : {}", id);
+        return entryRepository.findVersionById(id)
+            .map(version -> new VersionDTO(
+                version.getVersion() + "-" + version.getBlogVersion() + "-" + version.getTagsVersion(),
+                Stream.of(version.getLastModifiedDate(), version.getBlogLastModifiedDate(), version.getTagsLastModifiedDate())
+                    .filter(Objects::nonNull)
+                    .max(Comparator.naturalOrder())
+                    .orElse(null)));
+    }
+
     /**
      * Delete the entry by id.
+     * <p>
+     * The entry is only marked as deleted, which hides it at once; its row and tags are removed later by the
+     * TombstonePurger, off the request path.
      *
      * @param id the id of the entity
      */
     public void delete(Long id) {
         log.debug("Request to delete Entry : {}", id);
-        entryRepository.deleteById(id);
+        entryRepository.findById(id).ifPresent(entry -> entry.setDeletedDate(Instant.now()));
+        clearEntryResponseCache(id);
+    }
+
+    private void clearEntryResponseCache(Long id) {
+        CacheEvictionUtil.evictNowAndAfterCommit(
+            () -> Objects.requireNonNull(cacheManager.getCache(ENTRY_RESPONSES_CACHE)).evict(id));
     }
 }
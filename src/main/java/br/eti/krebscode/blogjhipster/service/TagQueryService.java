@@ -16,6 +16,7 @@ import io.github.jhipster.service.QueryService;
 
 import br.eti.krebscode.blogjhipster.domain.Tag;
 import br.eti.krebscode.blogjhipster.domain.*; // for static metamodels
+import br.eti.krebscode.blogjhipster.repository.CachedSpecificationRepository;
 import br.eti.krebscode.blogjhipster.repository.TagRepository;
 import br.eti.krebscode.blogjhipster.service.dto.TagCriteria;
 import br.eti.krebscode.blogjhipster.service.dto.TagDTO;
@@ -25,6 +26,7 @@ import br.eti.krebscode.blogjhipster.service.mapper.TagMapper;
  * Service for executing complex queries for Tag entities in the database.
  * The main input is a {@link TagCriteria} which gets converted to {@link Specification},
  * in a way that all the filters must apply.
+ * Results are served from the query cache region {@link TagRepository#TAGS_BY_CRITERIA_CACHE} when it is enabled.
  * It returns a {@link List} of {@link TagDTO} or a {@link Page} of {@link TagDTO} which fulfills the criteria.
  */
 @Service
@@ -37,9 +39,13 @@ public class TagQueryService extends QueryService<Tag> {
 
     private final TagMapper tagMapper;
 
-    public TagQueryService(TagRepository tagRepository, TagMapper tagMapper) {
+    private final CachedSpecificationRepository cachedSpecificationRepository;
+
+    public TagQueryService(TagRepository tagRepository, TagMapper tagMapper,
+            CachedSpecificationRepository cachedSpecificationRepository) {
         this.tagRepository = tagRepository;
         this.tagMapper = tagMapper;
+        this.cachedSpecificationRepository = cachedSpecificationRepository;
     }
 
     /**
@@ -51,7 +57,8 @@ public class TagQueryService extends QueryService<Tag> {
     public List<TagDTO> findByCriteria(TagCriteria criteria) {
         log.debug("find by criteria : {}", criteria);
         final Specification<Tag> specification = createSpecification(criteria);
-        return tagMapper.toDto(tagRepository.findAll(specification));
+        return tagMapper.toDto(cachedSpecificationRepository
+            .findAll(Tag.class, specification, Pageable.unpaged(), TagRepository.TAGS_BY_CRITERIA_CACHE).getContent());
     }
 
     /**
@@ -64,7 +71,7 @@ public class TagQueryService extends QueryService<Tag> {
     public Page<TagDTO> findByCriteria(TagCriteria criteria, Pageable page) {
         log.debug("find by criteria : {}, page: {}", criteria, page);
         final Specification<Tag> specification = createSpecification(criteria);
-        return tagRepository.findAll(specification, page)
+        return cachedSpecificationRepository.findAll(Tag.class, specification, page, TagRepository.TAGS_BY_CRITERIA_CACHE)
             .map(tagMapper::toDto);
     }
 
@@ -77,7 +84,7 @@ public class TagQueryService extends QueryService<Tag> {
     public long countByCriteria(TagCriteria criteria) {
         log.debug("count by criteria : {}", criteria);
         final Specification<Tag> specification = createSpecification(criteria);
-        return tagRepository.count(specification);
+        return cachedSpecificationRepository.count(Tag.class, specification, TagRepository.TAGS_BY_CRITERIA_CACHE);
     }
 
     /**
@@ -3,16 +3,22 @@ package br.eti.krebscode.blogjhipster.service;
 import br.eti.krebscode.blogjhipster.domain.Tag;
 import br.eti.krebscode.blogjhipster.repository.TagRepository;
 import br.eti.krebscode.blogjhipster.service.dto.TagDTO;
+import br.eti.krebscode.blogjhipster.service.dto.VersionDTO;
 import br.eti.krebscode.blogjhipster.service.mapper.TagMapper;
+import br.eti.krebscode.blogjhipster.service.util.CacheEvictionUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.UnaryOperator;
 
 /**
  * Service Implementation for managing Tag.
@@ -27,9 +33,12 @@ public class TagService {
 
     private final TagMapper tagMapper;
 
-    public TagService(TagRepository tagRepository, TagMapper tagMapper) {
+    private final CacheManager cacheManager;
+
+    public TagService(TagRepository tagRepository, TagMapper tagMapper, CacheManager cacheManager) {
         this.tagRepository = tagRepository;
         this.tagMapper = tagMapper;
+        this.cacheManager = cacheManager;
     }
 
     /**
@@ -42,6 +51,47 @@ public class TagService {
         log.debug("Request to save Tag : {}", tagDTO);
         Tag tag = tagMapper.toEntity(tagDTO);
         tag = tagRepository.save(tag);
+        clearEntryResponseCache();
+        return tagMapper.toDto(tag);
+    }
+
+    /**
+     * Update an existing tag, if it wasn't modified since the version of the tagDTO.
+     * <p>
+     * The fields are copied to the managed tag, so that only the modified columns are written.
+     *
+     * @param tagDTO the entity to update
+     * @return the updated entity, or empty if it doesn't exist
+     * @throws ObjectOptimisticLockingFailureException if the tag was modified since the version of the tagDTO
+     */
+    public Optional<TagDTO> update(TagDTO tagDTO) {
+        log.debug("Request to update Tag : {}", tagDTO);
+        return tagRepository.findById(tagDTO.getId())
+            .map(tag -> update(tag, tagDTO));
+    }
+
+    /**
+     * Partially update an existing tag, if it wasn't modified since the version of the patched tagDTO.
+     *
+     * @param id the id of the entity
+     * @param patch the changes, applied to the current tagDTO
+     * @return the updated entity, or empty if it doesn't exist
+     * @throws ObjectOptimisticLockingFailureException if the tag was modified since the version of the tagDTO
+     */
+    public Optional<TagDTO> partialUpdate(Long id, UnaryOperator<TagDTO> patch) {
+        log.debug("Request to partially update Tag : {}", id);
+        return tagRepository.findById(id)
+            .map(tag -> update(tag, patch.apply(tagMapper.toDto(tag))));
+    }
+
+    private TagDTO update(Tag tag, TagDTO tagDTO) {
+        if (!Objects.equals(tagDTO.getVersion(), tag.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Tag.class, tag.getId());
+        }
+        tagMapper.updateEntity(tagDTO, tag);
+        // the version is checked by the update statement too, and is incremented by it
+        tagRepository.flush();
+        clearEntryResponseCache();
         return tagMapper.toDto(tag);
     }
 
@@ -72,6 +122,19 @@ public class TagService {
             .map(tagMapper::toDto);
     }
 
+    /**
+     * Get the version of one tag by id, without loading the tag.
+     *
+     * @param id the id of the entity
+     * @return the version of the entity
+     */
+    @Transactional(readOnly = true)
+    public Optional<VersionDTO> findVersion(Long id) {
+        log.debug("Request to get the version of Tag : {}", id);
+        return tagRepository.findVersionById(id)
+            .map(version -> new VersionDTO(String.valueOf(version.getVersion()), version.getLastModifiedDate()));
+    }
+
     /**
      * Delete the tag by id.
      *
@@ -80,5 +143,14 @@ public class TagService {
     public void delete(Long id) {
         log.debug("Request to delete Tag : {}", id);
         tagRepository.deleteById(id);
+        clearEntryResponseCache();
+    }
+
+    /**
+     * Entry responses embed their tags, so they are all evicted when a tag changes.
+     */
+    private void clearEntryResponseCache() {
+        CacheEvictionUtil.evictNowAndAfterCommit(
+            () -> Objects.requireNonNull(cacheManager.getCache(EntryService.ENTRY_RESPONSES_CACHE)).clear());
     }
 }
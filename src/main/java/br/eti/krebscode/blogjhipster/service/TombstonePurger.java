@@ -0,0 +1,135 @@
+package br.eti.krebscode.blogjhipster.service;
+
+import br.eti.krebscode.blogjhipster.config.ApplicationProperties;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Service removing the entries and blogs marked as deleted, in the background.
+ * <p>
+ * The rows deleted for longer than the retention are removed in small batches, one transaction per batch, so that
+ * the locks are held briefly. The purge is throttled by the database load: it pauses after each batch in
+ * proportion to the time the batch took, and it stops until its next run as soon as threads are waiting for a
+ * connection of the pool.
+ * <p>
+ * The rows are removed with plain SQL: they are already hidden from the entities, and native queries through
+ * Hibernate would evict the whole second level cache.
+ */
+@Service
+public class TombstonePurger {
+
+    private static final String PENDING_CONNECTIONS_GAUGE = "hikaricp.connections.pending";
+
+    private final Logger log = LoggerFactory.getLogger(TombstonePurger.class);
+
+    private final ApplicationProperties.Purge purgeProperties;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final MeterRegistry meterRegistry;
+
+    public TombstonePurger(ApplicationProperties applicationProperties, JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.purgeProperties = applicationProperties.getPurge();
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Remove the entries and blogs deleted for longer than the retention.
+     */
+    @Scheduled(initialDelayString = "${application.purge.interval-ms:60000}",
+        fixedDelayString = "${application.purge.interval-ms:60000}")
+    public void purge() {
+        purge(Instant.now().minusSeconds(purgeProperties.getRetentionSeconds()));
+    }
+
+    /**
+     * Remove the entries and blogs deleted before a date; the entries first, as the blogs are only removed once
+     * they have none left.
+     *
+     * @param deletedBefore the date before which the rows were deleted
+     * @return the number of rows removed
+     */
+    public synchronized int purge(Instant deletedBefore) {
+        Timestamp timestamp = Timestamp.from(deletedBefore);
+        int batchSize = purgeProperties.getBatchSize();
+        try {
+            int entries = purgeTable("entry", "select id from entry where deleted_date < ?" +
+                " order by deleted_date limit " + batchSize, timestamp);
+            int blogs = purgeTable("blog", "select id from blog where deleted_date < ?" +
+                " and not exists (select 1 from entry where entry.blog_id = blog.id)" +
+                " order by deleted_date limit " + batchSize, timestamp);
+            if (entries + blogs > 0) {
+                log.info("Purged {} deleted entries and {} deleted blogs", entries, blogs);
+            }
+            return entries + blogs;
+        } catch (DataAccessException e) {
+            log.warn("Could not purge the deleted entries and blogs: {}", e.getMessage());
+            return 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        }
+    }
+
+    /**
+     * @return the number of rows removed, until none is left or the database is busy
+     */
+    private int purgeTable(String table, String selectIds, Timestamp deletedBefore) throws InterruptedException {
+        int purged = 0;
+        while (true) {
+            if (isDatabaseBusy()) {
+                log.debug("Stopped purging the deleted rows of {}, threads are waiting for a connection", table);
+                return purged;
+            }
+            long start = System.nanoTime();
+            Integer removed = transactionTemplate.execute(status -> {
+                List<Long> ids = jdbcTemplate.queryForList(selectIds, Long.class, deletedBefore);
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                MapSqlParameterSource parameters = new MapSqlParameterSource("ids", ids);
+                if (table.equals("entry")) {
+                    namedParameterJdbcTemplate.update("delete from entry_tag where entry_id in (:ids)", parameters);
+                }
+                return namedParameterJdbcTemplate.update("delete from " + table + " where id in (:ids)", parameters);
+            });
+            if (removed == null || removed == 0) {
+                return purged;
+            }
+            purged += removed;
+            meterRegistry.counter("tombstones.purged", "table", table).increment(removed);
+            long pauseNanos = (long) ((System.nanoTime() - start) * purgeProperties.getPauseRatio());
+            Thread.sleep(pauseNanos / 1_000_000, (int) (pauseNanos % 1_000_000));
+        }
+    }
+
+    private boolean isDatabaseBusy() {
+        double pending = meterRegistry.find(PENDING_CONNECTIONS_GAUGE).gauges().stream()
+            .mapToDouble(Gauge::value)
+            .sum();
+        return pending > purgeProperties.getMaxPendingConnections();
+    }
+}
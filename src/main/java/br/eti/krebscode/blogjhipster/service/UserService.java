@@ -1,6 +1,9 @@
 package br.eti.krebscode.blogjhipster.service;
 
+import br.eti.krebscode.blogjhipster.config.ApplicationProperties;
 import br.eti.krebscode.blogjhipster.config.Constants;
+import br.eti.krebscode.blogjhipster.config.cache.SingleFlight;
+import br.eti.krebscode.blogjhipster.config.datasource.ReplicaRoutingDataSource;
 import br.eti.krebscode.blogjhipster.domain.Authority;
 import br.eti.krebscode.blogjhipster.domain.User;
 import br.eti.krebscode.blogjhipster.repository.AuthorityRepository;
@@ -8,18 +11,27 @@ import br.eti.krebscode.blogjhipster.repository.UserRepository;
 import br.eti.krebscode.blogjhipster.security.AuthoritiesConstants;
 import br.eti.krebscode.blogjhipster.security.SecurityUtils;
 import br.eti.krebscode.blogjhipster.service.dto.UserDTO;
+import br.eti.krebscode.blogjhipster.service.util.CacheEvictionUtil;
 import br.eti.krebscode.blogjhipster.service.util.RandomUtil;
 import br.eti.krebscode.blogjhipster.web.rest.errors.*;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
@@ -33,6 +45,8 @@ import java.util.stream.Collectors;
 @Transactional
 public class UserService {
 
+    public static final String ACCOUNTS_CACHE = "accounts";
+
     private final Logger log = LoggerFactory.getLogger(UserService.class);
 
     private final UserRepository userRepository;
@@ -43,11 +57,34 @@ public class UserService {
 
     private final CacheManager cacheManager;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, AuthorityRepository authorityRepository, CacheManager cacheManager) {
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final Counter removedNotActivatedUsers;
+
+    private final Counter failedNotActivatedUsers;
+
+    private final Timer notActivatedUsersChunks;
+
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, AuthorityRepository authorityRepository,
+                       CacheManager cacheManager, PlatformTransactionManager transactionManager,
+                       ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.authorityRepository = authorityRepository;
         this.cacheManager = cacheManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.applicationProperties = applicationProperties;
+        this.removedNotActivatedUsers = Counter.builder("users.not.activated.removed")
+            .description("Not activated users removed by the daily cleanup")
+            .register(meterRegistry);
+        this.failedNotActivatedUsers = Counter.builder("users.not.activated.failed")
+            .description("Not activated users whose removal failed, they are retried by the next cleanup")
+            .register(meterRegistry);
+        this.notActivatedUsersChunks = Timer.builder("users.not.activated.chunks")
+            .description("Transactions of the daily cleanup of the not activated users")
+            .register(meterRegistry);
     }
 
     public Optional<User> activateRegistration(String key) {
@@ -264,20 +301,63 @@ public class UserService {
         return SecurityUtils.getCurrentUserLogin().flatMap(userRepository::findOneWithAuthoritiesByLogin);
     }
 
+    /**
+     * The account of a user, as returned on each navigation of the client; it is evicted with the other user caches.
+     * As it is cached, it is read from the primary.
+     *
+     * @param login the login of the user
+     * @return the user with his authorities, or empty if it doesn't exist
+     */
+    @SingleFlight
+    @Cacheable(cacheNames = ACCOUNTS_CACHE, unless = "#result == null")
+    @Transactional(readOnly = true)
+    public Optional<UserDTO> getAccount(String login) {
+        return ReplicaRoutingDataSource.readFromPrimary(() ->
+            userRepository.findOneWithAuthoritiesByLogin(login).map(UserDTO::new));
+    }
+
     /**
      * Not activated users should be automatically deleted after 3 days.
      * <p>
      * This is scheduled to get fired everyday, at 01:00 (am).
+     * <p>
+     * The users are deleted by chunks, each one in its own transaction unless a transaction is already active: the
+     * ids of a chunk are selected after the ids of the previous one, the users and their authorities are deleted by
+     * bulk statements, and the user caches are cleared once per chunk rather than evicted for each user. A chunk
+     * which fails is skipped, its users are retried by the next run.
      */
     @Scheduled(cron = "0 0 1 * * ?")
+    @Transactional(propagation = Propagation.SUPPORTS)
     public void removeNotActivatedUsers() {
-        userRepository
-            .findAllByActivatedIsFalseAndCreatedDateBefore(Instant.now().minus(3, ChronoUnit.DAYS))
-            .forEach(user -> {
-                log.debug("Deleting not activated user {}", user.getLogin());
-                userRepository.delete(user);
-                this.clearUserCaches(user);
-            });
+        Instant createdBefore = Instant.now().minus(3, ChronoUnit.DAYS);
+        PageRequest chunk = PageRequest.of(0, applicationProperties.getNotActivatedUsers().getChunkSize());
+        long afterId = Long.MIN_VALUE;
+        long removed = 0;
+        List<Long> ids;
+        while (!(ids = userRepository.findNotActivatedUserIds(createdBefore, afterId, chunk)).isEmpty()) {
+            afterId = ids.get(ids.size() - 1);
+            List<Long> chunkIds = ids;
+            try {
+                removed += notActivatedUsersChunks.recordCallable(() -> removeNotActivatedUsers(chunkIds));
+                log.info("Removed {} not activated users, up to id {}", removed, afterId);
+            } catch (Exception e) {
+                failedNotActivatedUsers.increment(ids.size());
+                log.error("Could not remove {} not activated users, up to id {}", ids.size(), afterId, e);
+            }
+            if (ids.size() < chunk.getPageSize()) {
+                break;
+            }
+        }
+    }
+
+    private int removeNotActivatedUsers(List<Long> ids) {
+        Integer removed = transactionTemplate.execute(status -> {
+            int count = userRepository.deleteByIdIn(ids);
+            clearUserCaches();
+            return count;
+        });
+        removedNotActivatedUsers.increment(removed);
+        return removed;
     }
 
     /**
@@ -287,8 +367,38 @@ public class UserService {
         return authorityRepository.findAll().stream().map(Authority::getName).collect(Collectors.toList());
     }
 
+    /**
+     * A lookup running before the transaction commits can still cache the previous state of the user, so the
+     * caches are cleared again once it has committed.
+     */
     private void clearUserCaches(User user) {
-        Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE)).evict(user.getLogin());
-        Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE)).evict(user.getEmail());
+        String login = user.getLogin();
+        String email = user.getEmail();
+        CacheEvictionUtil.evictNowAndAfterCommit(() -> evictUserCaches(login, email));
+    }
+
+    /**
+     * The bulk version of {@link #clearUserCaches(User)}, which also clears the User region of the second level
+     * cache on the other instances.
+     */
+    private void clearUserCaches() {
+        CacheEvictionUtil.evictNowAndAfterCommit(this::clearAllUserCaches);
+    }
+
+    private void clearAllUserCaches() {
+        Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE)).clear();
+        Objects.requireNonNull(cacheManager.getCache(UserRepository.MISSING_USERS_BY_LOGIN_CACHE)).clear();
+        Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE)).clear();
+        Objects.requireNonNull(cacheManager.getCache(UserRepository.MISSING_USERS_BY_EMAIL_CACHE)).clear();
+        Objects.requireNonNull(cacheManager.getCache(ACCOUNTS_CACHE)).clear();
+        Objects.requireNonNull(cacheManager.getCache(User.class.getName())).clear();
+    }
+
+    private void evictUserCaches(String login, String email) {
+        Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE)).evict(login);
+        Objects.requireNonNull(cacheManager.getCache(UserRepository.MISSING_USERS_BY_LOGIN_CACHE)).evict(login);
+        Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE)).evict(email);
+        Objects.requireNonNull(cacheManager.getCache(UserRepository.MISSING_USERS_BY_EMAIL_CACHE)).evict(email);
+        Objects.requireNonNull(cacheManager.getCache(ACCOUNTS_CACHE)).evict(login);
     }
 }
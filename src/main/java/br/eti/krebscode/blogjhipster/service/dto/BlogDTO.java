@@ -1,6 +1,7 @@
 package br.eti.krebscode.blogjhipster.service.dto;
 import javax.validation.constraints.*;
 import java.io.Serializable;
+import java.time.Instant;
 import java.util.Objects;
 
 /**
@@ -23,6 +24,10 @@ public class BlogDTO implements Serializable {
 
     private String userLogin;
 
+    private Long version;
+
+    private Instant lastModifiedDate;
+
     public Long getId() {
         return id;
     }
@@ -63,6 +68,22 @@ public class BlogDTO implements Serializable {
         this.userLogin = userLogin;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Instant getLastModifiedDate() {
+        return lastModifiedDate;
+    }
+
+    public void setLastModifiedDate(Instant lastModifiedDate) {
+        this.lastModifiedDate = lastModifiedDate;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -88,6 +109,7 @@ public class BlogDTO implements Serializable {
     public String toString() {
         return "BlogDTO{" +
             "id=" + getId() +
+            ", version=" + getVersion() +
             ", name='" + getName() + "'" +
             ", handle='" + getHandle() + "'" +
             ", user=" + getUserId() +
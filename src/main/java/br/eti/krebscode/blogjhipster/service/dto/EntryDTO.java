@@ -2,6 +2,7 @@ package br.eti.krebscode.blogjhipster.service.dto;
 import java.time.ZonedDateTime;
 import javax.validation.constraints.*;
 import java.io.Serializable;
+import java.time.Instant;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.Objects;
@@ -29,8 +30,14 @@ public class EntryDTO implements Serializable {
 
     private String blogName;
 
+    private String blogHandle;
+
     private Set<TagDTO> tags = new HashSet<>();
 
+    private Long version;
+
+    private Instant lastModifiedDate;
+
     public Long getId() {
         return id;
     }
@@ -79,6 +86,14 @@ public class EntryDTO implements Serializable {
         this.blogName = blogName;
     }
 
+    public String getBlogHandle() {
+        return blogHandle;
+    }
+
+    public void setBlogHandle(String blogHandle) {
+        this.blogHandle = blogHandle;
+    }
+
     public Set<TagDTO> getTags() {
         return tags;
     }
@@ -87,6 +102,22 @@ public class EntryDTO implements Serializable {
         this.tags = tags;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Instant getLastModifiedDate() {
+        return lastModifiedDate;
+    }
+
+    public void setLastModifiedDate(Instant lastModifiedDate) {
+        this.lastModifiedDate = lastModifiedDate;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -112,11 +143,13 @@ public class EntryDTO implements Serializable {
     public String toString() {
         return "EntryDTO{" +
             "id=" + getId() +
+            ", version=" + getVersion() +
             ", title='" + getTitle() + "'" +
             ", content='" + getContent() + "'" +
             ", date='" + getDate() + "'" +
             ", blog=" + getBlogId() +
             ", blog='" + getBlogName() + "'" +
+            ", blogHandle='" + getBlogHandle() + "'" +
             "}";
     }
 }
@@ -0,0 +1,39 @@
+package br.eti.krebscode.blogjhipster.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * A line of an import which couldn't be imported.
+ */
+public class ImportErrorDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long line;
+
+    private final String error;
+
+    public ImportErrorDTO(long line, String error) {
+        this.line = line;
+        this.error = error;
+    }
+
+    /**
+     * @return the number of the line, starting at 1
+     */
+    public long getLine() {
+        return line;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportErrorDTO{" +
+            "line=" + line +
+            ", error='" + error + "'" +
+            "}";
+    }
+}
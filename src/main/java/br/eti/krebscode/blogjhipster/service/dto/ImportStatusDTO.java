@@ -0,0 +1,64 @@
+package br.eti.krebscode.blogjhipster.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * The progress of an import, reported after each batch and once it is done.
+ */
+public class ImportStatusDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private long lines;
+
+    private long imported;
+
+    private long failed;
+
+    private boolean done;
+
+    /**
+     * @return the number of lines read so far, including the blank ones
+     */
+    public long getLines() {
+        return lines;
+    }
+
+    public void setLines(long lines) {
+        this.lines = lines;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+
+    public void setDone(boolean done) {
+        this.done = done;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportStatusDTO{" +
+            "lines=" + lines +
+            ", imported=" + imported +
+            ", failed=" + failed +
+            ", done=" + done +
+            "}";
+    }
+}
@@ -1,6 +1,7 @@
 package br.eti.krebscode.blogjhipster.service.dto;
 import javax.validation.constraints.*;
 import java.io.Serializable;
+import java.time.Instant;
 import java.util.Objects;
 import javax.persistence.Lob;
 
@@ -20,6 +21,10 @@ public class TagDTO implements Serializable {
 
     private String imageContentType;
 
+    private Long version;
+
+    private Instant lastModifiedDate;
+
     public Long getId() {
         return id;
     }
@@ -52,6 +57,22 @@ public class TagDTO implements Serializable {
         this.imageContentType = imageContentType;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Instant getLastModifiedDate() {
+        return lastModifiedDate;
+    }
+
+    public void setLastModifiedDate(Instant lastModifiedDate) {
+        this.lastModifiedDate = lastModifiedDate;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -77,6 +98,7 @@ public class TagDTO implements Serializable {
     public String toString() {
         return "TagDTO{" +
             "id=" + getId() +
+            ", version=" + getVersion() +
             ", name='" + getName() + "'" +
             ", image='" + getImage() + "'" +
             "}";
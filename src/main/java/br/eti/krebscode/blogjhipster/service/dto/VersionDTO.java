@@ -0,0 +1,59 @@
+package br.eti.krebscode.blogjhipster.service.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * The version of the representation of an entity, used to answer conditional requests.
+ */
+public class VersionDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String version;
+
+    private final Instant lastModifiedDate;
+
+    public VersionDTO(String version, Instant lastModifiedDate) {
+        this.version = version;
+        this.lastModifiedDate = lastModifiedDate;
+    }
+
+    /**
+     * @return an opaque value, which changes whenever the representation of the entity changes
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    public Instant getLastModifiedDate() {
+        return lastModifiedDate;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        VersionDTO versionDTO = (VersionDTO) o;
+        return Objects.equals(version, versionDTO.version) &&
+            Objects.equals(lastModifiedDate, versionDTO.lastModifiedDate);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(version, lastModifiedDate);
+    }
+
+    @Override
+    public String toString() {
+        return "VersionDTO{" +
+            "version='" + version + "'" +
+            ", lastModifiedDate='" + lastModifiedDate + "'" +
+            "}";
+    }
+}
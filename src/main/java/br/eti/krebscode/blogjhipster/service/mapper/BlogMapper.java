@@ -16,8 +16,20 @@ public interface BlogMapper extends EntityMapper<BlogDTO, Blog> {
     BlogDTO toDto(Blog blog);
 
     @Mapping(source = "userId", target = "user")
+    @Mapping(target = "lastModifiedDate", ignore = true)
+    @Mapping(target = "deletedDate", ignore = true)
     Blog toEntity(BlogDTO blogDTO);
 
+    /**
+     * Copy the fields of a blogDTO to a managed blog; its version and user are left to the caller.
+     */
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "lastModifiedDate", ignore = true)
+    @Mapping(target = "deletedDate", ignore = true)
+    @Mapping(target = "user", ignore = true)
+    void updateEntity(BlogDTO blogDTO, @MappingTarget Blog blog);
+
     default Blog fromId(Long id) {
         if (id == null) {
             return null;
@@ -12,12 +12,24 @@ import org.mapstruct.*;
 public interface EntryMapper extends EntityMapper<EntryDTO, Entry> {
 
     @Mapping(source = "blog.id", target = "blogId")
-    @Mapping(source = "blog.name", target = "blogName")
     EntryDTO toDto(Entry entry);
 
     @Mapping(source = "blogId", target = "blog")
+    @Mapping(target = "lastModifiedDate", ignore = true)
+    @Mapping(target = "deletedDate", ignore = true)
     Entry toEntity(EntryDTO entryDTO);
 
+    /**
+     * Copy the fields of an entryDTO to a managed entry; its version, blog and tags are left to the caller.
+     */
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "lastModifiedDate", ignore = true)
+    @Mapping(target = "deletedDate", ignore = true)
+    @Mapping(target = "blog", ignore = true)
+    @Mapping(target = "tags", ignore = true)
+    void updateEntity(EntryDTO entryDTO, @MappingTarget Entry entry);
+
     default Entry fromId(Long id) {
         if (id == null) {
             return null;
@@ -11,7 +11,16 @@ import org.mapstruct.*;
 @Mapper(componentModel = "spring", uses = {})
 public interface TagMapper extends EntityMapper<TagDTO, Tag> {
 
+    @Mapping(target = "lastModifiedDate", ignore = true)
+    Tag toEntity(TagDTO tagDTO);
 
+    /**
+     * Copy the fields of a tagDTO to a managed tag; its version is left to the caller.
+     */
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "lastModifiedDate", ignore = true)
+    void updateEntity(TagDTO tagDTO, @MappingTarget Tag tag);
 
     default Tag fromId(Long id) {
         if (id == null) {
@@ -0,0 +1,31 @@
+package br.eti.krebscode.blogjhipster.service.util;
+
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Utility class for evicting cached values from within a transaction.
+ */
+public final class CacheEvictionUtil {
+
+    private CacheEvictionUtil() {
+    }
+
+    /**
+     * Run an eviction now, and again once the current transaction has committed: a read running before the commit
+     * can still cache the previous state of the data.
+     *
+     * @param eviction the eviction to run
+     */
+    public static void evictNowAndAfterCommit(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        }
+    }
+}
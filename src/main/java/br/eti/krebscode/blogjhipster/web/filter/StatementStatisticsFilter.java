@@ -0,0 +1,182 @@
+package br.eti.krebscode.blogjhipster.web.filter;
+
+import br.eti.krebscode.blogjhipster.config.datasource.StatementStatistics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Records the {@link StatementStatistics} of each request, and reports them as metrics per endpoint, in the logs
+ * for the probable N+1 queries and, when enabled, as response headers.
+ * <p>
+ * The headers are added when the response body starts being written, so they cover the statements executed
+ * before: all of them for the usual endpoints, but not the ones executed while a response is streamed.
+ */
+public class StatementStatisticsFilter extends OncePerRequestFilter {
+
+    public static final String STATEMENT_COUNT_HEADER = "X-SQL-Statement-Count";
+
+    public static final String STATEMENT_TIME_HEADER = "X-SQL-Time-Ms";
+
+    public static final String SLOWEST_STATEMENT_TIME_HEADER = "X-SQL-Slowest-Ms";
+
+    public static final String REPEATED_SELECTS_HEADER = "X-SQL-Repeated-Selects";
+
+    private final Logger log = LoggerFactory.getLogger(StatementStatisticsFilter.class);
+
+    private final MeterRegistry meterRegistry;
+
+    private final boolean responseHeaders;
+
+    private final int repeatedSelectThreshold;
+
+    /**
+     * @param meterRegistry the registry of the metrics, or null to only log
+     * @param responseHeaders whether to add the statistics to the response headers
+     * @param repeatedSelectThreshold the number of executions of a select statement from which it is reported
+     */
+    public StatementStatisticsFilter(MeterRegistry meterRegistry, boolean responseHeaders, int repeatedSelectThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.responseHeaders = responseHeaders;
+        this.repeatedSelectThreshold = repeatedSelectThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        StatementStatistics statistics = StatementStatistics.start();
+        StatisticsHeadersResponseWrapper headersResponse = responseHeaders ?
+            new StatisticsHeadersResponseWrapper(response, statistics, repeatedSelectThreshold) : null;
+        try {
+            filterChain.doFilter(request, headersResponse != null ? headersResponse : response);
+        } finally {
+            StatementStatistics.stop();
+            if (headersResponse != null) {
+                headersResponse.addStatisticsHeaders();
+            }
+            report(request, statistics);
+        }
+    }
+
+    private void report(HttpServletRequest request, StatementStatistics statistics) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        Map<String, Integer> repeatedSelects = statistics.getRepeatedSelects(repeatedSelectThreshold);
+        if (meterRegistry != null) {
+            Tags tags = Tags.of("method", request.getMethod(), "uri", uri);
+            DistributionSummary.builder("http.server.requests.sql.statements")
+                .description("SQL statements executed per request")
+                .baseUnit("statements")
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(statistics.getCount());
+            Timer.builder("http.server.requests.sql.time")
+                .description("Time spent executing SQL statements per request")
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(statistics.getTotalTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+            if (!repeatedSelects.isEmpty()) {
+                Counter.builder("http.server.requests.sql.repeated")
+                    .description("Requests repeating the same select statement, probable N+1 queries")
+                    .tags(tags)
+                    .register(meterRegistry)
+                    .increment();
+            }
+        }
+        if (!repeatedSelects.isEmpty()) {
+            log.warn("Probable N+1 queries in {} {}: {}", request.getMethod(), uri, repeatedSelects.entrySet().stream()
+                .map(repeated -> repeated.getValue() + " x " + repeated.getKey())
+                .collect(Collectors.joining(", ")));
+        }
+        if (statistics.getCount() > 0) {
+            log.debug("{} {}: {}, slowest: {}", request.getMethod(), uri, statistics, statistics.getSlowestStatement());
+        }
+    }
+
+    /**
+     * Adds the statistics headers before the response is committed.
+     */
+    private static final class StatisticsHeadersResponseWrapper extends HttpServletResponseWrapper {
+
+        private final StatementStatistics statistics;
+
+        private final int repeatedSelectThreshold;
+
+        private boolean headersAdded;
+
+        private StatisticsHeadersResponseWrapper(HttpServletResponse response, StatementStatistics statistics,
+                                                 int repeatedSelectThreshold) {
+            super(response);
+            this.statistics = statistics;
+            this.repeatedSelectThreshold = repeatedSelectThreshold;
+        }
+
+        private void addStatisticsHeaders() {
+            if (headersAdded || isCommitted()) {
+                return;
+            }
+            headersAdded = true;
+            setHeader(STATEMENT_COUNT_HEADER, String.valueOf(statistics.getCount()));
+            setHeader(STATEMENT_TIME_HEADER, String.valueOf(statistics.getTotalTime(TimeUnit.MILLISECONDS)));
+            setHeader(SLOWEST_STATEMENT_TIME_HEADER, String.valueOf(statistics.getSlowestTime(TimeUnit.MILLISECONDS)));
+            setHeader(REPEATED_SELECTS_HEADER, String.valueOf(statistics.getRepeatedSelects(repeatedSelectThreshold).size()));
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            addStatisticsHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            addStatisticsHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            addStatisticsHeaders();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            addStatisticsHeaders();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            addStatisticsHeaders();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            addStatisticsHeaders();
+            super.sendRedirect(location);
+        }
+    }
+}
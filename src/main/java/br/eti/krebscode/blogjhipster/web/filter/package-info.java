@@ -0,0 +1,4 @@
+/**
+ * Servlet filters.
+ */
+package br.eti.krebscode.blogjhipster.web.filter;
@@ -96,8 +96,8 @@ public class AccountResource {
      */
     @GetMapping("/account")
     public UserDTO getAccount() {
-        return userService.getUserWithAuthorities()
-            .map(UserDTO::new)
+        return SecurityUtils.getCurrentUserLogin()
+            .flatMap(userService::getAccount)
             .orElseThrow(() -> new InternalServerErrorException("User could not be found"));
     }
 
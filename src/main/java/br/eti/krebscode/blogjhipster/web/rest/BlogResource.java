@@ -1,11 +1,17 @@
 package br.eti.krebscode.blogjhipster.web.rest;
+import br.eti.krebscode.blogjhipster.domain.Blog;
+import br.eti.krebscode.blogjhipster.repository.BlogRepository;
+import br.eti.krebscode.blogjhipster.service.CacheWarmUpService;
 import br.eti.krebscode.blogjhipster.service.BlogService;
 import br.eti.krebscode.blogjhipster.web.rest.errors.BadRequestAlertException;
 import br.eti.krebscode.blogjhipster.web.rest.util.HeaderUtil;
+import br.eti.krebscode.blogjhipster.web.rest.util.MergePatcher;
 import br.eti.krebscode.blogjhipster.web.rest.util.PaginationUtil;
+import br.eti.krebscode.blogjhipster.web.rest.util.RenderedResponseCache;
 import br.eti.krebscode.blogjhipster.service.dto.BlogDTO;
 import br.eti.krebscode.blogjhipster.service.dto.BlogCriteria;
 import br.eti.krebscode.blogjhipster.service.BlogQueryService;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.github.jhipster.web.util.ResponseUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,7 +22,10 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 
@@ -38,9 +47,19 @@ public class BlogResource {
 
     private final BlogQueryService blogQueryService;
 
-    public BlogResource(BlogService blogService, BlogQueryService blogQueryService) {
+    private final CacheWarmUpService cacheWarmUpService;
+
+    private final RenderedResponseCache renderedResponseCache;
+
+    private final MergePatcher mergePatcher;
+
+    public BlogResource(BlogService blogService, BlogQueryService blogQueryService, RenderedResponseCache renderedResponseCache,
+                        CacheWarmUpService cacheWarmUpService, MergePatcher mergePatcher) {
         this.blogService = blogService;
         this.blogQueryService = blogQueryService;
+        this.cacheWarmUpService = cacheWarmUpService;
+        this.renderedResponseCache = renderedResponseCache;
+        this.mergePatcher = mergePatcher;
     }
 
     /**
@@ -68,6 +87,8 @@ public class BlogResource {
      * @param blogDTO the blogDTO to update
      * @return the ResponseEntity with status 200 (OK) and with body the updated blogDTO,
      * or with status 400 (Bad Request) if the blogDTO is not valid,
+     * or with status 404 (Not Found) if the blog doesn't exist,
+     * or with status 409 (Conflict) if the blog was modified since the version of the blogDTO,
      * or with status 500 (Internal Server Error) if the blogDTO couldn't be updated
      * @throws URISyntaxException if the Location URI syntax is incorrect
      */
@@ -77,10 +98,32 @@ public class BlogResource {
         if (blogDTO.getId() == null) {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
         }
-        BlogDTO result = blogService.save(blogDTO);
-        return ResponseEntity.ok()
-            .headers(HeaderUtil.createEntityUpdateAlert(ENTITY_NAME, blogDTO.getId().toString()))
-            .body(result);
+        if (blogDTO.getVersion() == null) {
+            throw new BadRequestAlertException("Invalid version", ENTITY_NAME, "versionnull");
+        }
+        Optional<BlogDTO> result = blogService.update(blogDTO);
+        return ResponseUtil.wrapOrNotFound(result,
+            HeaderUtil.createEntityUpdateAlert(ENTITY_NAME, blogDTO.getId().toString()));
+    }
+
+    /**
+     * PATCH  /blogs/:id : Partially updates an existing blog, with a JSON Merge Patch (RFC 7396).
+     * <p>
+     * Only the members of the patch are changed, and only the modified columns are written; the patch must carry
+     * the version of the blog it was built from.
+     *
+     * @param id the id of the blogDTO to update
+     * @param patch the changes to the blogDTO
+     * @return the ResponseEntity with status 200 (OK) and with body the updated blogDTO,
+     * or with status 400 (Bad Request) if the patch or the patched blogDTO is not valid,
+     * or with status 404 (Not Found) if the blog doesn't exist,
+     * or with status 409 (Conflict) if the blog was modified since the version of the patch
+     */
+    @PatchMapping(value = "/blogs/{id}", consumes = MergePatcher.APPLICATION_MERGE_PATCH_JSON_VALUE)
+    public ResponseEntity<BlogDTO> partialUpdateBlog(@PathVariable Long id, @RequestBody ObjectNode patch) {
+        log.debug("REST request to partially update Blog : {}, {}", id, patch);
+        Optional<BlogDTO> result = blogService.partialUpdate(id, mergePatcher.mergePatch(patch, id, ENTITY_NAME));
+        return ResponseUtil.wrapOrNotFound(result, HeaderUtil.createEntityUpdateAlert(ENTITY_NAME, id.toString()));
     }
 
     /**
@@ -113,14 +156,43 @@ public class BlogResource {
     /**
      * GET  /blogs/:id : get the "id" blog.
      *
+     * Answers If-None-Match and If-Modified-Since with 304 (Not Modified) when the client has the current version.
+     * The rendered JSON is served from the {@link BlogService#BLOG_RESPONSES_CACHE} cache.
+     *
      * @param id the id of the blogDTO to retrieve
-     * @return the ResponseEntity with status 200 (OK) and with body the blogDTO, or with status 404 (Not Found)
+     * @param request the HTTP request
+     * @param response the HTTP response, with status 200 (OK) and with body the blogDTO, or with status 404 (Not Found)
+     * @throws IOException if the response couldn't be written
      */
     @GetMapping("/blogs/{id}")
-    public ResponseEntity<BlogDTO> getBlog(@PathVariable Long id) {
+    public void getBlog(@PathVariable Long id, HttpServletRequest request, HttpServletResponse response) throws IOException {
         log.debug("REST request to get Blog : {}", id);
-        Optional<BlogDTO> blogDTO = blogService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(blogDTO);
+        cacheWarmUpService.recordAccess(Blog.class, id);
+        renderedResponseCache.write(BlogService.BLOG_RESPONSES_CACHE, id,
+            () -> blogService.findVersion(id), () -> blogService.findOne(id), request, response);
+    }
+
+    /**
+     * GET  /blogs/by-handle/:handle : get the blog with the "handle".
+     *
+     * The id of the blog is read from the {@link BlogRepository#BLOG_IDS_BY_HANDLE_CACHE} cache, and the response is
+     * then written like the one of GET /blogs/:id, so that the usual request doesn't reach the database.
+     *
+     * @param handle the handle of the blogDTO to retrieve
+     * @param request the HTTP request
+     * @param response the HTTP response, with status 200 (OK) and with body the blogDTO, or with status 404 (Not Found)
+     * @throws IOException if the response couldn't be written
+     */
+    @GetMapping("/blogs/by-handle/{handle:.+}")
+    public void getBlogByHandle(@PathVariable String handle, HttpServletRequest request, HttpServletResponse response)
+        throws IOException {
+        log.debug("REST request to get Blog by handle : {}", handle);
+        Optional<Long> id = blogService.findIdByHandle(handle);
+        if (!id.isPresent()) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        getBlog(id.get(), request, response);
     }
 
     /**
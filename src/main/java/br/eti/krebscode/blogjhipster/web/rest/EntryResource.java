@@ -1,11 +1,21 @@
 package br.eti.krebscode.blogjhipster.web.rest;
+import br.eti.krebscode.blogjhipster.domain.Entry;
+import br.eti.krebscode.blogjhipster.service.CacheWarmUpService;
+import br.eti.krebscode.blogjhipster.service.EntryImportService;
 import br.eti.krebscode.blogjhipster.service.EntryService;
 import br.eti.krebscode.blogjhipster.web.rest.errors.BadRequestAlertException;
 import br.eti.krebscode.blogjhipster.web.rest.util.HeaderUtil;
+import br.eti.krebscode.blogjhipster.web.rest.util.MergePatcher;
 import br.eti.krebscode.blogjhipster.web.rest.util.PaginationUtil;
+import br.eti.krebscode.blogjhipster.web.rest.util.RenderedResponseCache;
 import br.eti.krebscode.blogjhipster.service.dto.EntryDTO;
 import br.eti.krebscode.blogjhipster.service.dto.EntryCriteria;
 import br.eti.krebscode.blogjhipster.service.EntryQueryService;
+import br.eti.krebscode.blogjhipster.service.dto.ImportErrorDTO;
+import br.eti.krebscode.blogjhipster.service.dto.ImportStatusDTO;
+import br.eti.krebscode.blogjhipster.service.dto.TagDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.github.jhipster.web.util.ResponseUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,12 +26,22 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 /**
  * REST controller for managing Entry.
@@ -34,13 +54,37 @@ public class EntryResource {
 
     private static final String ENTITY_NAME = "entry";
 
+    /**
+     * Newline delimited JSON, one JSON value per line.
+     */
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
     private final EntryService entryService;
 
     private final EntryQueryService entryQueryService;
 
-    public EntryResource(EntryService entryService, EntryQueryService entryQueryService) {
+    private final CacheWarmUpService cacheWarmUpService;
+
+    private final RenderedResponseCache renderedResponseCache;
+
+    private final EntryImportService entryImportService;
+
+    private final ObjectMapper objectMapper;
+
+    private final MergePatcher mergePatcher;
+
+    public EntryResource(EntryService entryService, EntryQueryService entryQueryService, RenderedResponseCache renderedResponseCache,
+                         CacheWarmUpService cacheWarmUpService, EntryImportService entryImportService, ObjectMapper objectMapper,
+                         MergePatcher mergePatcher) {
         this.entryService = entryService;
         this.entryQueryService = entryQueryService;
+        this.cacheWarmUpService = cacheWarmUpService;
+        this.renderedResponseCache = renderedResponseCache;
+        this.entryImportService = entryImportService;
+        this.objectMapper = objectMapper;
+        this.mergePatcher = mergePatcher;
     }
 
     /**
@@ -62,12 +106,120 @@ public class EntryResource {
             .body(result);
     }
 
+    /**
+     * POST  /entries/import : Import new entries, given as NDJSON.
+     * <p>
+     * The body is read one line at a time. The response, in NDJSON too, reports each line which couldn't be
+     * imported, and the progress after each batch; its last line is the final status of the import.
+     *
+     * @param request the HTTP request, with one entryDTO to create per line in body
+     * @param response the HTTP response, with status 200 (OK) and with body the errors and the progress of the import
+     * @throws IOException if the body couldn't be read or the response couldn't be written
+     */
+    @PostMapping(value = "/entries/import", consumes = APPLICATION_NDJSON_VALUE)
+    public void importEntries(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        log.debug("REST request to import Entries");
+        response.setContentType(APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        OutputStream out = response.getOutputStream();
+        entryImportService.importEntries(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8),
+            new EntryImportService.ImportListener() {
+
+                @Override
+                public void onError(ImportErrorDTO error) throws IOException {
+                    writeLine(out, error);
+                }
+
+                @Override
+                public void onProgress(ImportStatusDTO status) throws IOException {
+                    writeLine(out, status);
+                    out.flush();
+                }
+            });
+    }
+
+    private void writeLine(OutputStream out, Object value) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(value));
+        out.write('\n');
+    }
+
+    /**
+     * GET  /entries/export : export all the entries matching the criteria, as one JSON entry per line.
+     * <p>
+     * The entries are written while they are read from the database, in the order of their ids.
+     *
+     * @param criteria the criterias which the exported entities should match
+     * @param response the HTTP response, with status 200 (OK) and with body the entries
+     * @throws IOException if the response couldn't be written
+     */
+    @GetMapping("/entries/export")
+    public void exportEntries(EntryCriteria criteria, HttpServletResponse response) throws IOException {
+        log.debug("REST request to export Entries by criteria: {}", criteria);
+        response.setContentType(APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"entries.ndjson\"");
+        OutputStream out = response.getOutputStream();
+        entryQueryService.streamByCriteria(criteria, entryDTO -> writeLine(out, entryDTO));
+    }
+
+    /**
+     * GET  /entries/export?format=csv : export all the entries matching the criteria, as CSV with a header line.
+     * <p>
+     * The tags of an entry are given by their names, separated by semicolons.
+     *
+     * @param criteria the criterias which the exported entities should match
+     * @param response the HTTP response, with status 200 (OK) and with body the entries
+     * @throws IOException if the response couldn't be written
+     */
+    @GetMapping(value = "/entries/export", params = "format=csv")
+    public void exportEntriesAsCsv(EntryCriteria criteria, HttpServletResponse response) throws IOException {
+        log.debug("REST request to export Entries as CSV by criteria: {}", criteria);
+        response.setContentType(TEXT_CSV_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"entries.csv\"");
+        Writer writer = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+        writeCsvLine(writer, "id", "title", "content", "date", "blog_id", "blog_name", "tags", "version", "last_modified_date");
+        entryQueryService.streamByCriteria(criteria, entryDTO -> writeCsvLine(writer,
+            entryDTO.getId(),
+            entryDTO.getTitle(),
+            entryDTO.getContent(),
+            entryDTO.getDate(),
+            entryDTO.getBlogId(),
+            entryDTO.getBlogName(),
+            entryDTO.getTags().stream().map(TagDTO::getName).sorted().collect(Collectors.joining(";")),
+            entryDTO.getVersion(),
+            entryDTO.getLastModifiedDate()));
+        writer.flush();
+    }
+
+    /**
+     * Write the values as one RFC 4180 line, quoting the values which contain a separator, a quote or a line break.
+     */
+    private static void writeCsvLine(Writer writer, Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            String value = values[i] == null ? "" : values[i].toString();
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                writer.write(value);
+            } else {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            }
+        }
+        writer.write("\r\n");
+    }
+
     /**
      * PUT  /entries : Updates an existing entry.
      *
      * @param entryDTO the entryDTO to update
      * @return the ResponseEntity with status 200 (OK) and with body the updated entryDTO,
      * or with status 400 (Bad Request) if the entryDTO is not valid,
+     * or with status 404 (Not Found) if the entry doesn't exist,
+     * or with status 409 (Conflict) if the entry was modified since the version of the entryDTO,
      * or with status 500 (Internal Server Error) if the entryDTO couldn't be updated
      * @throws URISyntaxException if the Location URI syntax is incorrect
      */
@@ -77,10 +229,32 @@ public class EntryResource {
         if (entryDTO.getId() == null) {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
         }
-        EntryDTO result = entryService.save(entryDTO);
-        return ResponseEntity.ok()
-            .headers(HeaderUtil.createEntityUpdateAlert(ENTITY_NAME, entryDTO.getId().toString()))
-            .body(result);
+        if (entryDTO.getVersion() == null) {
+            throw new BadRequestAlertException("Invalid version", ENTITY_NAME, "versionnull");
+        }
+        Optional<EntryDTO> result = entryService.update(entryDTO);
+        return ResponseUtil.wrapOrNotFound(result,
+            HeaderUtil.createEntityUpdateAlert(ENTITY_NAME, entryDTO.getId().toString()));
+    }
+
+    /**
+     * PATCH  /entries/:id : Partially updates an existing entry, with a JSON Merge Patch (RFC 7396).
+     * <p>
+     * Only the members of the patch are changed, and only the modified columns are written; the patch must carry
+     * the version of the entry it was built from.
+     *
+     * @param id the id of the entryDTO to update
+     * @param patch the changes to the entryDTO
+     * @return the ResponseEntity with status 200 (OK) and with body the updated entryDTO,
+     * or with status 400 (Bad Request) if the patch or the patched entryDTO is not valid,
+     * or with status 404 (Not Found) if the entry doesn't exist,
+     * or with status 409 (Conflict) if the entry was modified since the version of the patch
+     */
+    @PatchMapping(value = "/entries/{id}", consumes = MergePatcher.APPLICATION_MERGE_PATCH_JSON_VALUE)
+    public ResponseEntity<EntryDTO> partialUpdateEntry(@PathVariable Long id, @RequestBody ObjectNode patch) {
+        log.debug("REST request to partially update Entry : {}, {}", id, patch);
+        Optional<EntryDTO> result = entryService.partialUpdate(id, mergePatcher.mergePatch(patch, id, ENTITY_NAME));
+        return ResponseUtil.wrapOrNotFound(result, HeaderUtil.createEntityUpdateAlert(ENTITY_NAME, id.toString()));
     }
 
     /**
@@ -113,14 +287,20 @@ public class EntryResource {
     /**
      * GET  /entries/:id : get the "id" entry.
      *
+     * Answers If-None-Match and If-Modified-Since with 304 (Not Modified) when the client has the current version.
+     * The rendered JSON is served from the {@link EntryService#ENTRY_RESPONSES_CACHE} cache.
+     *
      * @param id the id of the entryDTO to retrieve
-     * @return the ResponseEntity with status 200 (OK) and with body the entryDTO, or with status 404 (Not Found)
+     * @param request the HTTP request
+     * @param response the HTTP response, with status 200 (OK) and with body the entryDTO, or with status 404 (Not Found)
+     * @throws IOException if the response couldn't be written
      */
     @GetMapping("/entries/{id}")
-    public ResponseEntity<EntryDTO> getEntry(@PathVariable Long id) {
+    public void getEntry(@PathVariable Long id, HttpServletRequest request, HttpServletResponse response) throws IOException {
         log.debug("REST request to get Entry : {}", id);
-        Optional<EntryDTO> entryDTO = entryService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(entryDTO);
+        cacheWarmUpService.recordAccess(Entry.class, id);
+        renderedResponseCache.write(EntryService.ENTRY_RESPONSES_CACHE, id,
+            () -> entryService.findVersion(id), () -> entryService.findOne(id), request, response);
     }
 
     /**
@@ -0,0 +1,42 @@
+package br.eti.krebscode.blogjhipster.web.rest;
+
+import br.eti.krebscode.blogjhipster.config.datasource.SlowQuery;
+import br.eti.krebscode.blogjhipster.config.datasource.SlowQueryLog;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controller for viewing the slow SQL statements recorded at runtime.
+ */
+@RestController
+@RequestMapping("/management")
+public class SlowQueriesResource {
+
+    private final SlowQueryLog slowQueryLog;
+
+    public SlowQueriesResource(SlowQueryLog slowQueryLog) {
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    /**
+     * GET  /slow-queries : get the most recent slow statements, the most recent first.
+     *
+     * @return the slow statements
+     */
+    @GetMapping("/slow-queries")
+    public List<SlowQuery> getSlowQueries() {
+        return slowQueryLog.getSlowQueries();
+    }
+
+    /**
+     * DELETE  /slow-queries : forget the slow statements recorded so far.
+     */
+    @DeleteMapping("/slow-queries")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void clearSlowQueries() {
+        slowQueryLog.clear();
+    }
+}
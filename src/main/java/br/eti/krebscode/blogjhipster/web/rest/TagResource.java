@@ -1,12 +1,18 @@
 package br.eti.krebscode.blogjhipster.web.rest;
+import br.eti.krebscode.blogjhipster.domain.Tag;
+import br.eti.krebscode.blogjhipster.service.CacheWarmUpService;
 import br.eti.krebscode.blogjhipster.service.TagService;
 import br.eti.krebscode.blogjhipster.web.rest.errors.BadRequestAlertException;
+import br.eti.krebscode.blogjhipster.web.rest.util.ConditionalRequestUtil;
 import br.eti.krebscode.blogjhipster.web.rest.util.HeaderUtil;
+import br.eti.krebscode.blogjhipster.web.rest.util.MergePatcher;
 import br.eti.krebscode.blogjhipster.web.rest.util.PaginationUtil;
 import br.eti.krebscode.blogjhipster.service.dto.TagDTO;
 import br.eti.krebscode.blogjhipster.service.dto.TagCriteria;
+import br.eti.krebscode.blogjhipster.service.dto.VersionDTO;
 import br.eti.krebscode.blogjhipster.service.TagQueryService;
 import io.github.jhipster.web.util.ResponseUtil;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -15,6 +21,7 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import javax.validation.Valid;
 import java.net.URI;
@@ -38,9 +45,16 @@ public class TagResource {
 
     private final TagQueryService tagQueryService;
 
-    public TagResource(TagService tagService, TagQueryService tagQueryService) {
+    private final CacheWarmUpService cacheWarmUpService;
+
+    private final MergePatcher mergePatcher;
+
+    public TagResource(TagService tagService, TagQueryService tagQueryService,
+                       CacheWarmUpService cacheWarmUpService, MergePatcher mergePatcher) {
         this.tagService = tagService;
         this.tagQueryService = tagQueryService;
+        this.cacheWarmUpService = cacheWarmUpService;
+        this.mergePatcher = mergePatcher;
     }
 
     /**
@@ -68,6 +82,8 @@ public class TagResource {
      * @param tagDTO the tagDTO to update
      * @return the ResponseEntity with status 200 (OK) and with body the updated tagDTO,
      * or with status 400 (Bad Request) if the tagDTO is not valid,
+     * or with status 404 (Not Found) if the tag doesn't exist,
+     * or with status 409 (Conflict) if the tag was modified since the version of the tagDTO,
      * or with status 500 (Internal Server Error) if the tagDTO couldn't be updated
      * @throws URISyntaxException if the Location URI syntax is incorrect
      */
@@ -77,10 +93,32 @@ public class TagResource {
         if (tagDTO.getId() == null) {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
         }
-        TagDTO result = tagService.save(tagDTO);
-        return ResponseEntity.ok()
-            .headers(HeaderUtil.createEntityUpdateAlert(ENTITY_NAME, tagDTO.getId().toString()))
-            .body(result);
+        if (tagDTO.getVersion() == null) {
+            throw new BadRequestAlertException("Invalid version", ENTITY_NAME, "versionnull");
+        }
+        Optional<TagDTO> result = tagService.update(tagDTO);
+        return ResponseUtil.wrapOrNotFound(result,
+            HeaderUtil.createEntityUpdateAlert(ENTITY_NAME, tagDTO.getId().toString()));
+    }
+
+    /**
+     * PATCH  /tags/:id : Partially updates an existing tag, with a JSON Merge Patch (RFC 7396).
+     * <p>
+     * Only the members of the patch are changed, and only the modified columns are written; the patch must carry
+     * the version of the tag it was built from.
+     *
+     * @param id the id of the tagDTO to update
+     * @param patch the changes to the tagDTO
+     * @return the ResponseEntity with status 200 (OK) and with body the updated tagDTO,
+     * or with status 400 (Bad Request) if the patch or the patched tagDTO is not valid,
+     * or with status 404 (Not Found) if the tag doesn't exist,
+     * or with status 409 (Conflict) if the tag was modified since the version of the patch
+     */
+    @PatchMapping(value = "/tags/{id}", consumes = MergePatcher.APPLICATION_MERGE_PATCH_JSON_VALUE)
+    public ResponseEntity<TagDTO> partialUpdateTag(@PathVariable Long id, @RequestBody ObjectNode patch) {
+        log.debug("REST request to partially update Tag : {}, {}", id, patch);
+        Optional<TagDTO> result = tagService.partialUpdate(id, mergePatcher.mergePatch(patch, id, ENTITY_NAME));
+        return ResponseUtil.wrapOrNotFound(result, HeaderUtil.createEntityUpdateAlert(ENTITY_NAME, id.toString()));
     }
 
     /**
@@ -113,12 +151,24 @@ public class TagResource {
     /**
      * GET  /tags/:id : get the "id" tag.
      *
+     * Answers If-None-Match and If-Modified-Since with 304 (Not Modified) when the client has the current version,
+     * without loading the tag image.
+     *
      * @param id the id of the tagDTO to retrieve
+     * @param request the current request
      * @return the ResponseEntity with status 200 (OK) and with body the tagDTO, or with status 404 (Not Found)
      */
     @GetMapping("/tags/{id}")
-    public ResponseEntity<TagDTO> getTag(@PathVariable Long id) {
+    public ResponseEntity<TagDTO> getTag(@PathVariable Long id, WebRequest request) {
         log.debug("REST request to get Tag : {}", id);
+        cacheWarmUpService.recordAccess(Tag.class, id);
+        Optional<VersionDTO> version = tagService.findVersion(id);
+        if (!version.isPresent()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        if (ConditionalRequestUtil.checkNotModified(request, version.get())) {
+            return null;
+        }
         Optional<TagDTO> tagDTO = tagService.findOne(id);
         return ResponseUtil.wrapOrNotFound(tagDTO);
     }
@@ -0,0 +1,10 @@
+package br.eti.krebscode.blogjhipster.web.rest.errors;
+
+public class HandleAlreadyUsedException extends BadRequestAlertException {
+
+    private static final long serialVersionUID = 1L;
+
+    public HandleAlreadyUsedException() {
+        super(ErrorConstants.HANDLE_ALREADY_USED_TYPE, "Blog handle already used!", "blog", "handleexists");
+    }
+}
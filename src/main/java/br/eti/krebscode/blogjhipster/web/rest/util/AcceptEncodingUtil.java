@@ -0,0 +1,69 @@
+package br.eti.krebscode.blogjhipster.web.rest.util;
+
+import org.springframework.http.HttpHeaders;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Locale;
+
+/**
+ * Utility class for the negotiation of the content codings, from the Accept-Encoding header (RFC 7231).
+ */
+public final class AcceptEncodingUtil {
+
+    private AcceptEncodingUtil() {
+    }
+
+    /**
+     * Check whether a request accepts a content coding: the coding, or else "*", must be listed with a non zero
+     * quality value.
+     *
+     * @param request the current request
+     * @param coding the content coding, e.g. "gzip"
+     * @return true if the response can be encoded with the coding
+     */
+    public static boolean accepts(HttpServletRequest request, String coding) {
+        return accepts(request.getHeader(HttpHeaders.ACCEPT_ENCODING), coding);
+    }
+
+    /**
+     * @param acceptEncoding the value of the Accept-Encoding header, or null when it is absent
+     * @param coding the content coding, e.g. "gzip"
+     * @return true if the coding is accepted
+     * @see #accepts(HttpServletRequest, String)
+     */
+    public static boolean accepts(String acceptEncoding, String coding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double codingQuality = null;
+        Double wildcardQuality = null;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parameters = element.split(";");
+            String name = parameters[0].trim().toLowerCase(Locale.ROOT);
+            if (name.equals(coding)) {
+                codingQuality = quality(parameters);
+            } else if (name.equals("*")) {
+                wildcardQuality = quality(parameters);
+            }
+        }
+        Double quality = codingQuality != null ? codingQuality : wildcardQuality;
+        return quality != null && quality > 0;
+    }
+
+    /**
+     * @return the quality value of a coding, 1 when it has none and 0 when it isn't valid
+     */
+    private static double quality(String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            String parameter = parameters[i].trim();
+            if (parameter.length() > 2 && parameter.substring(0, 2).equalsIgnoreCase("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,29 @@
+package br.eti.krebscode.blogjhipster.web.rest.util;
+
+import br.eti.krebscode.blogjhipster.service.dto.VersionDTO;
+
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Utility class for answering conditional requests from the version of an entity.
+ * <p>
+ * The entity tags are weak, as the same version of an entity may be sent with different content encodings.
+ */
+public final class ConditionalRequestUtil {
+
+    private ConditionalRequestUtil() {
+    }
+
+    /**
+     * Add the ETag and Last-Modified headers of an entity to the response, and check them against the
+     * If-None-Match and If-Modified-Since headers of the request.
+     *
+     * @param request the current request
+     * @param version the current version of the entity
+     * @return true if the client's copy is up to date, the response status then is 304 (Not Modified)
+     */
+    public static boolean checkNotModified(WebRequest request, VersionDTO version) {
+        long lastModified = version.getLastModifiedDate() != null ? version.getLastModifiedDate().toEpochMilli() : -1;
+        return request.checkNotModified("W/\"" + version.getVersion() + "\"", lastModified);
+    }
+}
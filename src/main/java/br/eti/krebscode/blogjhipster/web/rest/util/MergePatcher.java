@@ -0,0 +1,73 @@
+package br.eti.krebscode.blogjhipster.web.rest.util;
+
+import br.eti.krebscode.blogjhipster.web.rest.errors.BadRequestAlertException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.stereotype.Component;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.ConstraintViolationException;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+/**
+ * Applies JSON Merge Patch documents (RFC 7396) to DTOs: the members of the patch replace the fields of the DTO,
+ * a null member clears its field, and the fields absent from the patch are left as they are.
+ * <p>
+ * The DTOs have no nested objects, so the patch is applied by updating the DTO with Jackson; arrays, like the tags
+ * of an entry, are replaced as a whole, as required by the RFC.
+ */
+@Component
+public class MergePatcher {
+
+    public static final String APPLICATION_MERGE_PATCH_JSON_VALUE = "application/merge-patch+json";
+
+    private final ObjectMapper objectMapper;
+
+    private final Validator validator;
+
+    public MergePatcher(ObjectMapper objectMapper, Validator validator) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+    }
+
+    /**
+     * Check a patch of an entity, and return the function applying it to the current DTO of the entity.
+     * <p>
+     * The patch must carry the version of the entity the client modified, so that concurrent changes are detected
+     * like with PUT, and can't change its id.
+     *
+     * @param patch the JSON Merge Patch document
+     * @param id the id of the patched entity
+     * @param entityName the name of the entity, for the error alerts
+     * @param <T> the type of the DTO
+     * @return the function returning the patched DTO, which throws a ConstraintViolationException if it isn't valid
+     * @throws BadRequestAlertException if the patch changes the id or doesn't have the version
+     */
+    public <T> UnaryOperator<T> mergePatch(ObjectNode patch, Long id, String entityName) {
+        JsonNode patchId = patch.get("id");
+        if (patchId != null && !(patchId.canConvertToLong() && patchId.asLong() == id)) {
+            throw new BadRequestAlertException("Invalid id", entityName, "idinvalid");
+        }
+        if (!patch.hasNonNull("version")) {
+            throw new BadRequestAlertException("Invalid version", entityName, "versionnull");
+        }
+        return dto -> {
+            T patched;
+            try {
+                patched = objectMapper.readerForUpdating(dto).readValue(patch);
+            } catch (IOException e) {
+                throw new BadRequestAlertException("Invalid patch: " + e.getMessage(), entityName, "patchinvalid");
+            }
+            Set<ConstraintViolation<T>> violations = validator.validate(patched);
+            if (!violations.isEmpty()) {
+                throw new ConstraintViolationException(violations);
+            }
+            return patched;
+        };
+    }
+}
@@ -0,0 +1,156 @@
+package br.eti.krebscode.blogjhipster.web.rest.util;
+
+import br.eti.krebscode.blogjhipster.config.ApplicationProperties;
+import br.eti.krebscode.blogjhipster.config.datasource.ReplicaRoutingDataSource;
+import br.eti.krebscode.blogjhipster.service.dto.VersionDTO;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache of the serialized JSON representation of single entities, so that popular entities are written to the
+ * response without any mapping or serialization work.
+ * <p>
+ * Bodies bigger than "application.response-cache.gzip-min-size" are also stored gzipped, and sent as such to
+ * clients accepting that encoding. Services evict the cached representations when their entities change, and each
+ * representation keeps the version it was rendered from to answer conditional requests.
+ */
+@Component
+public class RenderedResponseCache {
+
+    private static final String GZIP = "gzip";
+
+    private final ObjectMapper objectMapper;
+
+    private final CacheManager cacheManager;
+
+    private final ApplicationProperties.ResponseCache responseCacheProperties;
+
+    public RenderedResponseCache(ObjectMapper objectMapper, CacheManager cacheManager, ApplicationProperties applicationProperties) {
+        this.objectMapper = objectMapper;
+        this.cacheManager = cacheManager;
+        this.responseCacheProperties = applicationProperties.getResponseCache();
+    }
+
+    /**
+     * Write the JSON representation of an entity to the response, or a 404 (Not Found) status if it doesn't exist.
+     * <p>
+     * The response carries the ETag and Last-Modified headers of the entity version. When the client already has
+     * that version, only a 304 (Not Modified) status is sent, and the entity isn't loaded if it wasn't cached.
+     *
+     * @param cacheName the cache holding the representations of this kind of entity
+     * @param id the id of the entity
+     * @param versionLoader loads the current version of the entity, only called when the representation isn't cached
+     * @param loader loads the DTO to render, only called when the representation isn't cached
+     * @param request the current request
+     * @param response the response to write to
+     * @throws IOException if the response couldn't be written
+     */
+    public void write(String cacheName, Long id, Supplier<Optional<VersionDTO>> versionLoader,
+                      Supplier<? extends Optional<?>> loader,
+                      HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Cache cache = cacheManager.getCache(cacheName);
+        RenderedResponse rendered = cache == null ? null : cache.get(id, RenderedResponse.class);
+        // The version is read before the DTO, so that a concurrent update can only make it older than the body; both
+        // are read from the primary, as they are cached
+        VersionDTO version = rendered != null ? rendered.getVersion() :
+            ReplicaRoutingDataSource.readFromPrimary(versionLoader).orElse(null);
+        if (version == null) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        if (ConditionalRequestUtil.checkNotModified(new ServletWebRequest(request, response), version)) {
+            return;
+        }
+        if (rendered == null) {
+            Optional<?> dto = ReplicaRoutingDataSource.readFromPrimary(loader);
+            if (!dto.isPresent()) {
+                response.setStatus(HttpStatus.NOT_FOUND.value());
+                return;
+            }
+            rendered = render(dto.get(), version);
+            if (cache != null) {
+                cache.put(id, rendered);
+            }
+        }
+
+        byte[] body = rendered.getJson();
+        if (rendered.getGzip() != null) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (AcceptEncodingUtil.accepts(request, GZIP)) {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+                body = rendered.getGzip();
+            }
+        }
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_JSON_UTF8_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private RenderedResponse render(Object dto, VersionDTO version) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(dto);
+        byte[] gzip = null;
+        if (responseCacheProperties.isGzip() && json.length >= responseCacheProperties.getGzipMinSize()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 2);
+            try (GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+                gzipOut.write(json);
+            }
+            gzip = out.toByteArray();
+        }
+        return new RenderedResponse(version, json, gzip);
+    }
+
+    /**
+     * The cached representation of an entity.
+     */
+    public static class RenderedResponse implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final VersionDTO version;
+
+        private final byte[] json;
+
+        private final byte[] gzip;
+
+        public RenderedResponse(VersionDTO version, byte[] json, byte[] gzip) {
+            this.version = version;
+            this.json = json;
+            this.gzip = gzip;
+        }
+
+        /**
+         * @return the version of the entity at the time it was loaded
+         */
+        public VersionDTO getVersion() {
+            return version;
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        /**
+         * @return the gzipped JSON, or null if the body is too small to be worth compressing
+         */
+        public byte[] getGzip() {
+            return gzip;
+        }
+    }
+}
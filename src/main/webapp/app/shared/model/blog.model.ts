@@ -4,8 +4,18 @@ export interface IBlog {
     handle?: string;
     userLogin?: string;
     userId?: number;
+    version?: number;
+    lastModifiedDate?: Date;
 }
 
 export class Blog implements IBlog {
-    constructor(public id?: number, public name?: string, public handle?: string, public userLogin?: string, public userId?: number) {}
+    constructor(
+        public id?: number,
+        public name?: string,
+        public handle?: string,
+        public userLogin?: string,
+        public userId?: number,
+        public version?: number,
+        public lastModifiedDate?: Date
+    ) {}
 }
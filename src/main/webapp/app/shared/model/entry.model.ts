@@ -9,6 +9,9 @@ export interface IEntry {
     blogName?: string;
     blogId?: number;
     tags?: ITag[];
+    version?: number;
+    lastModifiedDate?: Date;
+    blogHandle?: string;
 }
 
 export class Entry implements IEntry {
@@ -19,6 +22,9 @@ export class Entry implements IEntry {
         public date?: Moment,
         public blogName?: string,
         public blogId?: number,
-        public tags?: ITag[]
+        public tags?: ITag[],
+        public version?: number,
+        public lastModifiedDate?: Date,
+        public blogHandle?: string
     ) {}
 }
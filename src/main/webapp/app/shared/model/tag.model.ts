@@ -3,8 +3,17 @@ export interface ITag {
     name?: string;
     imageContentType?: string;
     image?: any;
+    version?: number;
+    lastModifiedDate?: Date;
 }
 
 export class Tag implements ITag {
-    constructor(public id?: number, public name?: string, public imageContentType?: string, public image?: any) {}
+    constructor(
+        public id?: number,
+        public name?: string,
+        public imageContentType?: string,
+        public image?: any,
+        public version?: number,
+        public lastModifiedDate?: Date
+    ) {}
 }
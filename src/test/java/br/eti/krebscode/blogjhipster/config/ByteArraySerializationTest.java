@@ -0,0 +1,112 @@
+package br.eti.krebscode.blogjhipster.config;
+
+import br.eti.krebscode.blogjhipster.service.dto.TagDTO;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.io.output.NullOutputStream;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Guards the handling of byte[] fields, such as the images of the tags, by a default Jackson ObjectMapper.
+ * <p>
+ * Jackson encodes and decodes the base64 text in chunks on the UTF-8 streams used by Spring MVC, so a large image
+ * doesn't need a full copy of its base64 text; these tests catch a regression of that behaviour, or of the round
+ * trip itself, on a Jackson upgrade.
+ */
+public class ByteArraySerializationTest {
+
+    private static final int PAYLOAD_SIZE = 5 * 1024 * 1024;
+
+    private final Logger log = LoggerFactory.getLogger(ByteArraySerializationTest.class);
+
+    private ObjectMapper mapper;
+
+    private TagDTO tagDTO;
+
+    @Before
+    public void setup() {
+        mapper = new ObjectMapper();
+
+        byte[] image = new byte[PAYLOAD_SIZE];
+        new Random(42).nextBytes(image);
+        tagDTO = new TagDTO();
+        tagDTO.setId(1L);
+        tagDTO.setName("AAAAAAAAAA");
+        tagDTO.setImage(image);
+        tagDTO.setImageContentType("image/png");
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        byte[] json = mapper.writeValueAsBytes(tagDTO);
+
+        assertThat(mapper.readValue(new ByteArrayInputStream(json), TagDTO.class).getImage())
+            .isEqualTo(tagDTO.getImage());
+        assertThat(mapper.readValue(new String(json, "UTF-8"), TagDTO.class).getImage())
+            .isEqualTo(tagDTO.getImage());
+    }
+
+    @Test
+    public void testNumericArrayAndEmptyValues() throws Exception {
+        assertThat(mapper.readValue("{\"image\":[1,2,3]}", TagDTO.class).getImage()).containsExactly(1, 2, 3);
+        assertThat(mapper.readValue("{\"image\":\"\"}", TagDTO.class).getImage()).isEmpty();
+        assertThat(mapper.readValue("{\"image\":null}", TagDTO.class).getImage()).isNull();
+    }
+
+    @Test
+    public void benchmarkAllocationFor5MbPayload() throws Exception {
+        byte[] json = mapper.writeValueAsBytes(tagDTO);
+        // warm up the code paths before measuring
+        for (int i = 0; i < 3; i++) {
+            serialize();
+            deserialize(json);
+        }
+
+        long write = allocatedBytes(this::serialize);
+        long read = allocatedBytes(() -> deserialize(json));
+        log.info("Allocation for a {} bytes payload - write: {}, read: {}", PAYLOAD_SIZE, write, read);
+
+        if (write >= 0) {
+            assertThat(write).isLessThan(PAYLOAD_SIZE / 10);
+            assertThat(read).isLessThan(3L * PAYLOAD_SIZE);
+        }
+    }
+
+    private void serialize() throws IOException {
+        mapper.writeValue(new NullOutputStream(), tagDTO);
+    }
+
+    private void deserialize(byte[] json) throws IOException {
+        mapper.readValue(new ByteArrayInputStream(json), TagDTO.class);
+    }
+
+    /**
+     * @return the bytes allocated by the current thread while running the task, or -1 if the JVM can't tell
+     */
+    private static long allocatedBytes(IOTask task) throws IOException {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+            task.run();
+            return -1;
+        }
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long before = threadMXBean.getThreadAllocatedBytes(threadId);
+        task.run();
+        return threadMXBean.getThreadAllocatedBytes(threadId) - before;
+    }
+
+    @FunctionalInterface
+    private interface IOTask {
+        void run() throws IOException;
+    }
+}
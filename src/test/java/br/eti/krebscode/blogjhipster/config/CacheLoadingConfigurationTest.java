@@ -0,0 +1,107 @@
+package br.eti.krebscode.blogjhipster.config;
+
+import br.eti.krebscode.blogjhipster.config.cache.SingleFlight;
+import br.eti.krebscode.blogjhipster.config.cache.SingleFlightGroup;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.aop.framework.ProxyFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the single flight advisor of the CacheLoadingConfiguration.
+ *
+ * @see CacheLoadingConfiguration
+ */
+public class CacheLoadingConfigurationTest {
+
+    private static final int CALLERS = 8;
+
+    private final ConcurrentMap<String, AtomicInteger> queries = new ConcurrentHashMap<>();
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private Lookup lookup;
+
+    @Before
+    public void setup() {
+        CacheLoadingConfiguration configuration = new CacheLoadingConfiguration();
+        ProxyFactory proxyFactory = new ProxyFactory(new SlowLookup());
+        proxyFactory.addInterface(Lookup.class);
+        proxyFactory.addAdvisor(configuration.singleFlightAdvisor(new SingleFlightGroup()));
+        lookup = (Lookup) proxyFactory.getProxy();
+    }
+
+    @Test
+    public void testOnlyOneQueryRunsPerKeyUnderContention() throws Exception {
+        List<Thread> callers = new ArrayList<>();
+        List<FutureTask<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            String key = i % 2 == 0 ? "even" : "odd";
+            FutureTask<String> result = new FutureTask<>(() -> lookup.find(key));
+            results.add(result);
+            callers.add(new Thread(result));
+        }
+        callers.forEach(Thread::start);
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (System.currentTimeMillis() < deadline
+            && !callers.stream().allMatch(caller -> caller.getState() == Thread.State.WAITING
+                || caller.getState() == Thread.State.TIMED_WAITING)) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+
+        for (int i = 0; i < CALLERS; i++) {
+            assertThat(results.get(i).get(10, TimeUnit.SECONDS)).isEqualTo(i % 2 == 0 ? "found even" : "found odd");
+        }
+        assertThat(queries.get("even").get()).isEqualTo(1);
+        assertThat(queries.get("odd").get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testMethodsWithoutAnnotationAreNotCoalesced() throws Exception {
+        release.countDown();
+
+        lookup.findUncoalesced("key");
+        lookup.findUncoalesced("key");
+
+        assertThat(queries.get("key").get()).isEqualTo(2);
+    }
+
+    public interface Lookup {
+
+        @SingleFlight
+        String find(String key);
+
+        String findUncoalesced(String key);
+    }
+
+    private class SlowLookup implements Lookup {
+
+        @Override
+        public String find(String key) {
+            queries.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "found " + key;
+        }
+
+        @Override
+        public String findUncoalesced(String key) {
+            return find(key);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package br.eti.krebscode.blogjhipster.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the JCacheRegionMetrics.
+ *
+ * @see JCacheRegionMetrics
+ */
+public class JCacheRegionMetricsTest {
+
+    private static final String CACHE_NAME = "regionMetrics";
+
+    private CacheManager cacheManager;
+
+    private MeterRegistry registry;
+
+    private Cache<Object, Object> cache;
+
+    @Before
+    public void setup() {
+        cacheManager = Caching.getCachingProvider(EhcacheCachingProvider.class.getName()).getCacheManager();
+        cache = cacheManager.createCache(CACHE_NAME, Eh107Configuration.fromEhcacheCacheConfiguration(
+            CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(2))));
+        cacheManager.enableStatistics(CACHE_NAME, true);
+        registry = new SimpleMeterRegistry();
+        new JCacheRegionMetrics(cache, Tags.of("cacheManager", "cacheManager")).bindTo(registry);
+    }
+
+    @After
+    public void tearDown() {
+        cacheManager.close();
+    }
+
+    @Test
+    public void testRegionStatisticsAreBound() {
+        cache.put(1L, "one");
+        cache.put(2L, "two");
+        cache.get(1L);
+        cache.get(3L);
+        cache.put(3L, "three");
+
+        assertThat(registry.get("cache.gets").tags("cache", CACHE_NAME, "result", "hit").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("cache.gets").tags("cache", CACHE_NAME, "result", "miss").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("cache.puts").tags("cache", CACHE_NAME).functionCounter().count()).isEqualTo(3);
+        assertThat(registry.get("cache.evictions").tags("cache", CACHE_NAME).functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("cache.size").tags("cache", CACHE_NAME, "cacheManager", "cacheManager").gauge().value())
+            .isEqualTo(2);
+        assertThat(registry.get("cache.gets.latency").tags("cache", CACHE_NAME).timeGauge().value(TimeUnit.MICROSECONDS))
+            .isGreaterThanOrEqualTo(0);
+    }
+}
@@ -0,0 +1,146 @@
+package br.eti.krebscode.blogjhipster.config;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.resource.PathResourceResolver;
+import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the PrecompressedResourceResolver.
+ *
+ * @see PrecompressedResourceResolver
+ */
+public class PrecompressedResourceResolverTest {
+
+    private static final String BUNDLE = "app/main.0a1b2c3d4e5f6a7b8c9d.bundle.js";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ResourceHttpRequestHandler handler;
+
+    @Before
+    public void setup() throws Exception {
+        File root = folder.getRoot();
+        write(new File(root, BUNDLE), "identity");
+        write(new File(root, BUNDLE + ".br"), "brotli");
+        write(new File(root, BUNDLE + ".gz"), "gzip");
+        write(new File(root, "index.html"), "index");
+        write(new File(root, "index.html.gz"), "gzipped index");
+        write(new File(root, "robots.txt"), "robots");
+
+        handler = new ResourceHttpRequestHandler();
+        handler.setServletContext(new MockServletContext());
+        handler.setLocations(Collections.singletonList(new FileSystemResource(root.getPath() + "/")));
+        handler.setResourceResolvers(Arrays.asList(new PrecompressedResourceResolver(), new PathResourceResolver()));
+        handler.afterPropertiesSet();
+    }
+
+    @Test
+    public void testBrotliIsPreferred() throws Exception {
+        MockHttpServletResponse response = get(BUNDLE, "gzip, deflate, br");
+
+        assertThat(response.getContentAsString()).isEqualTo("brotli");
+        assertThat(response.getContentType()).isEqualTo("application/javascript");
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("br");
+        assertThat(response.getHeader(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo("public, max-age=31536000, immutable");
+    }
+
+    @Test
+    public void testGzipVariant() throws Exception {
+        MockHttpServletResponse response = get(BUNDLE, "gzip, deflate");
+
+        assertThat(response.getContentAsString()).isEqualTo("gzip");
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(response.getHeader(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT_ENCODING);
+    }
+
+    @Test
+    public void testIdentityWhenNoCodingIsAccepted() throws Exception {
+        MockHttpServletResponse response = get(BUNDLE, null);
+
+        assertThat(response.getContentAsString()).isEqualTo("identity");
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(response.getHeader(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo("public, max-age=31536000, immutable");
+    }
+
+    @Test
+    public void testCodingsWithZeroQualityAreNotAccepted() throws Exception {
+        assertThat(get(BUNDLE, "br;q=0, gzip").getContentAsString()).isEqualTo("gzip");
+        assertThat(get(BUNDLE, "gzip;q=0.0, deflate").getContentAsString()).isEqualTo("identity");
+
+        MockHttpServletResponse response = get(BUNDLE, "BR;Q=0, GZIP;Q=0.5");
+        assertThat(response.getContentAsString()).isEqualTo("gzip");
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+    }
+
+    @Test
+    public void testCodingsAreMatchedExactly() throws Exception {
+        MockHttpServletResponse response = get(BUNDLE, "x-gzip, brx");
+
+        assertThat(response.getContentAsString()).isEqualTo("identity");
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(response.getHeader(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT_ENCODING);
+    }
+
+    @Test
+    public void testWildcard() throws Exception {
+        assertThat(get(BUNDLE, "*").getContentAsString()).isEqualTo("brotli");
+        assertThat(get(BUNDLE, "br;q=0, *").getContentAsString()).isEqualTo("gzip");
+        assertThat(get(BUNDLE, "*;q=0").getContentAsString()).isEqualTo("identity");
+        assertThat(get(BUNDLE, "gzip, *;q=0").getContentAsString()).isEqualTo("gzip");
+    }
+
+    @Test
+    public void testUnhashedResourcesAreNotImmutable() throws Exception {
+        MockHttpServletResponse response = get("index.html", "gzip, deflate, br");
+
+        assertThat(response.getContentAsString()).isEqualTo("gzipped index");
+        assertThat(response.getContentType()).startsWith("text/html");
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).isNull();
+    }
+
+    @Test
+    public void testResourcesWithoutVariant() throws Exception {
+        MockHttpServletResponse response = get("robots.txt", "gzip, deflate, br");
+
+        assertThat(response.getContentAsString()).isEqualTo("robots");
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(response.getHeader(HttpHeaders.VARY)).isNull();
+    }
+
+    private MockHttpServletResponse get(String path, String acceptEncoding) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/" + path);
+        request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, path);
+        if (acceptEncoding != null) {
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        handler.handleRequest(request, response);
+        return response;
+    }
+
+    private static void write(File file, String content) throws Exception {
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
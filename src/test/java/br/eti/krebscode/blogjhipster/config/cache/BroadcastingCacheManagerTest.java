@@ -0,0 +1,83 @@
+package br.eti.krebscode.blogjhipster.config.cache;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the BroadcastingCacheManager.
+ *
+ * @see BroadcastingCacheManager
+ */
+public class BroadcastingCacheManagerTest {
+
+    private final List<CacheInvalidation> published = new CopyOnWriteArrayList<>();
+
+    private BroadcastingCacheManager cacheManager;
+
+    @Before
+    public void setup() {
+        CacheInvalidationBus bus = new CacheInvalidationBus() {
+            @Override
+            public void publish(CacheInvalidation invalidation) {
+                published.add(invalidation);
+            }
+
+            @Override
+            public void subscribe(Consumer<CacheInvalidation> subscriber) {
+            }
+        };
+        cacheManager = new BroadcastingCacheManager(new ConcurrentMapCacheManager("test"), () -> bus);
+    }
+
+    @After
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void testEvictionsArePublished() {
+        Cache cache = cacheManager.getCache("test");
+        cache.put("key", "value");
+        cache.evict("key");
+        cache.clear();
+
+        assertThat(cache.get("key")).isNull();
+        assertThat(published).containsExactly(new CacheInvalidation("test", "key"), new CacheInvalidation("test", null));
+    }
+
+    @Test
+    public void testPutsAreNotPublished() {
+        cacheManager.getCache("test").put("key", "value");
+
+        assertThat(published).isEmpty();
+    }
+
+    @Test
+    public void testEvictionsArePublishedAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        Cache cache = cacheManager.getCache("test");
+        cache.put("key", "value");
+        cache.evict("key");
+
+        assertThat(cache.get("key")).isNull();
+        assertThat(published).isEmpty();
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+        assertThat(published).containsExactly(new CacheInvalidation("test", "key"));
+    }
+}
@@ -0,0 +1,122 @@
+package br.eti.krebscode.blogjhipster.config.cache;
+
+import br.eti.krebscode.blogjhipster.BlogJhipsterApp;
+import br.eti.krebscode.blogjhipster.domain.Tag;
+import br.eti.krebscode.blogjhipster.repository.UserRepository;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the JdbcCacheInvalidationBus, with a second instance simulated by another bus on the same database.
+ *
+ * @see JdbcCacheInvalidationBus
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = BlogJhipsterApp.class, properties = "application.cache.invalidation.type=jdbc")
+public class JdbcCacheInvalidationBusIntTest {
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private JdbcCacheInvalidationBus otherInstanceBus;
+
+    private final List<CacheInvalidation> receivedByOtherInstance = new CopyOnWriteArrayList<>();
+
+    private final List<CacheInvalidation> receivedLocally = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void setup() {
+        otherInstanceBus = new JdbcCacheInvalidationBus(jdbcTemplate, transactionManager, 3600);
+        otherInstanceBus.subscribe(receivedByOtherInstance::add);
+        cacheInvalidationBus.subscribe(receivedLocally::add);
+        // The first poll of each bus only starts listening
+        otherInstanceBus.synchronize();
+        ((JdbcCacheInvalidationBus) cacheInvalidationBus).synchronize();
+    }
+
+    @After
+    public void cleanUp() {
+        new TransactionTemplate(transactionManager).execute(status -> jdbcTemplate.update("delete from cache_invalidation"));
+    }
+
+    @Test
+    public void assertThatEntityChangesAreListenedTo() {
+        EventListenerRegistry eventListenerRegistry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry().getService(EventListenerRegistry.class);
+
+        for (EventType<?> eventType : Arrays.asList(EventType.POST_COMMIT_INSERT, EventType.POST_COMMIT_UPDATE,
+            EventType.POST_COMMIT_DELETE)) {
+            assertThat(eventListenerRegistry.getEventListenerGroup(eventType).listeners())
+                .hasAtLeastOneElementOfType(HibernateCacheInvalidationListener.class);
+        }
+    }
+
+    @Test
+    public void assertThatSpringCacheEvictionsAreBroadcast() {
+        assertThat(cacheManager).isInstanceOf(BroadcastingCacheManager.class);
+        Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE)).evict("broadcast");
+        Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE)).clear();
+
+        ((JdbcCacheInvalidationBus) cacheInvalidationBus).synchronize();
+        otherInstanceBus.synchronize();
+
+        assertThat(receivedByOtherInstance).containsExactly(
+            new CacheInvalidation(UserRepository.USERS_BY_LOGIN_CACHE, "broadcast"),
+            new CacheInvalidation(UserRepository.USERS_BY_EMAIL_CACHE, null));
+    }
+
+    @Test
+    public void assertThatRemoteEvictionsAreAppliedWithoutBeingBroadcastAgain() {
+        CacheManager localCacheManager = ((BroadcastingCacheManager) cacheManager).getTargetCacheManager();
+        Objects.requireNonNull(localCacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE)).put("remote", "user");
+        Objects.requireNonNull(localCacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE)).put("other", "user");
+
+        otherInstanceBus.publish(new CacheInvalidation(UserRepository.USERS_BY_LOGIN_CACHE, "remote"));
+        otherInstanceBus.publish(new CacheInvalidation(Tag.class.getName(), 42L));
+        otherInstanceBus.synchronize();
+        ((JdbcCacheInvalidationBus) cacheInvalidationBus).synchronize();
+
+        assertThat(receivedLocally).containsExactly(
+            new CacheInvalidation(UserRepository.USERS_BY_LOGIN_CACHE, "remote"),
+            new CacheInvalidation(Tag.class.getName(), 42L));
+        assertThat(localCacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).get("remote")).isNull();
+        assertThat(localCacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).get("other")).isNotNull();
+
+        ((JdbcCacheInvalidationBus) cacheInvalidationBus).synchronize();
+        otherInstanceBus.synchronize();
+        assertThat(receivedByOtherInstance).isEmpty();
+    }
+}
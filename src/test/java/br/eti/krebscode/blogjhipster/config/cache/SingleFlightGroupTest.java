@@ -0,0 +1,112 @@
+package br.eti.krebscode.blogjhipster.config.cache;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Test class for the SingleFlightGroup.
+ *
+ * @see SingleFlightGroup
+ */
+public class SingleFlightGroupTest {
+
+    private static final int CALLERS = 8;
+
+    private final SingleFlightGroup singleFlightGroup = new SingleFlightGroup();
+
+    @Test
+    public void testConcurrentLoadsOfTheSameKeyRunOnce() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<String> results = runConcurrently(CALLERS, () -> singleFlightGroup.load("key", () -> {
+            loads.incrementAndGet();
+            awaitQuietly(release);
+            return "value";
+        }), release);
+
+        assertThat(results).hasSize(CALLERS).containsOnly("value");
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testLoadsOfDifferentKeysRunConcurrently() throws Exception {
+        CountDownLatch bothRunning = new CountDownLatch(2);
+        AtomicInteger keys = new AtomicInteger();
+
+        List<Boolean> results = runConcurrently(2, () -> singleFlightGroup.load(keys.incrementAndGet(), () -> {
+            bothRunning.countDown();
+            return awaitQuietly(bothRunning);
+        }), null);
+
+        assertThat(results).containsExactly(true, true);
+    }
+
+    @Test
+    public void testKeyIsLoadedAgainOnceTheLoadIsOver() {
+        AtomicInteger loads = new AtomicInteger();
+
+        singleFlightGroup.load("key", loads::incrementAndGet);
+        singleFlightGroup.load("key", loads::incrementAndGet);
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testLoaderExceptionIsRethrown() {
+        assertThatThrownBy(() -> singleFlightGroup.load("key", () -> {
+            throw new IllegalStateException("failed");
+        })).isInstanceOf(IllegalStateException.class).hasMessage("failed");
+
+        assertThat(singleFlightGroup.<String>load("key", () -> "value")).isEqualTo("value");
+    }
+
+    /**
+     * Runs the call in as many threads. When a latch is given, it is released once every thread is parked, either
+     * running a load waiting for the latch, or waiting for the result of another thread.
+     */
+    static <T> List<T> runConcurrently(int threads, Callable<T> call, CountDownLatch release) throws Exception {
+        List<FutureTask<T>> tasks = new ArrayList<>();
+        List<Thread> callers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            FutureTask<T> task = new FutureTask<>(call);
+            Thread caller = new Thread(task);
+            tasks.add(task);
+            callers.add(caller);
+            caller.start();
+        }
+        if (release != null) {
+            long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+            while (System.currentTimeMillis() < deadline
+                && !callers.stream().allMatch(caller -> caller.getState() == Thread.State.WAITING
+                || caller.getState() == Thread.State.TIMED_WAITING)) {
+                Thread.sleep(10);
+            }
+            release.countDown();
+        }
+        List<T> results = new ArrayList<>();
+        for (FutureTask<T> task : tasks) {
+            results.add(task.get(10, TimeUnit.SECONDS));
+        }
+        return results;
+    }
+
+    static boolean awaitQuietly(CountDownLatch latch) {
+        try {
+            return latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package br.eti.krebscode.blogjhipster.config.cache;
+
+import br.eti.krebscode.blogjhipster.BlogJhipsterApp;
+import br.eti.krebscode.blogjhipster.domain.Blog;
+import br.eti.krebscode.blogjhipster.domain.Entry;
+import br.eti.krebscode.blogjhipster.domain.User;
+import br.eti.krebscode.blogjhipster.web.rest.EntryResourceIntTest;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the SingleFlightLoadEventListener, with the second level cache enabled on the JCache regions.
+ * <p>
+ * Each load runs in a session of its own, whose statement inspector counts the selects of a table and can hold
+ * them until the other loads are waiting.
+ *
+ * @see SingleFlightLoadEventListener
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = BlogJhipsterApp.class, properties = {
+    "spring.cache.type=jcache",
+    "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+    "spring.jpa.properties.hibernate.cache.region.factory_class=io.github.jhipster.config.jcache.BeanClassLoaderAwareJCacheRegionFactory"})
+public class SingleFlightLoadEventListenerIntTest {
+
+    private static final int LOADERS = 8;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private SessionFactory sessionFactory;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private Entry entry;
+
+    @Before
+    public void setup() {
+        sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        entry = new TransactionTemplate(transactionManager).execute(status -> {
+            Entry created = EntryResourceIntTest.createEntity(em);
+            em.persist(created);
+            return created;
+        });
+        sessionFactory.getCache().evictAllRegions();
+    }
+
+    @After
+    public void cleanUp() {
+        release.countDown();
+        new TransactionTemplate(transactionManager).execute(status -> {
+            jdbcTemplate.update("delete from entry where id = ?", entry.getId());
+            jdbcTemplate.update("delete from blog where id = ?", entry.getBlog().getId());
+            return jdbcTemplate.update("delete from jhi_user where id = ?", entry.getBlog().getUser().getId());
+        });
+        sessionFactory.getCache().evictAllRegions();
+    }
+
+    @Test
+    public void assertThatConcurrentLoadsOfAnEvictedEntityRunOneSelect() throws Exception {
+        AtomicInteger entrySelects = new AtomicInteger();
+        List<Thread> loaders = new ArrayList<>();
+        List<FutureTask<String>> titles = new ArrayList<>();
+        for (int i = 0; i < LOADERS; i++) {
+            FutureTask<String> title = new FutureTask<>(() -> load(new HoldingInspector("entry", entrySelects, true),
+                session -> session.get(Entry.class, entry.getId()).getTitle()));
+            titles.add(title);
+            loaders.add(new Thread(title));
+        }
+        loaders.forEach(Thread::start);
+        awaitWaiting(loaders);
+        release.countDown();
+
+        for (FutureTask<String> title : titles) {
+            assertThat(title.get(10, TimeUnit.SECONDS)).isEqualTo(entry.getTitle());
+        }
+        assertThat(entrySelects.get()).isEqualTo(1);
+        assertThat(sessionFactory.getCache().containsEntity(Entry.class, entry.getId())).isTrue();
+    }
+
+    @Test
+    public void assertThatNestedLoadsDoNotWaitForOtherThreads() throws Exception {
+        Long blogId = entry.getBlog().getId();
+        Long userId = entry.getBlog().getUser().getId();
+        // The blog is cached, but not its user anymore
+        load(new HoldingInspector("blog", new AtomicInteger(), false), session -> session.get(Blog.class, blogId));
+        sessionFactory.getCache().evictEntity(User.class, userId);
+
+        // Another thread is loading the user, and holds its select
+        AtomicInteger heldUserSelects = new AtomicInteger();
+        FutureTask<String> heldLogin = new FutureTask<>(() -> load(new HoldingInspector("jhi_user", heldUserSelects, true),
+            session -> session.get(User.class, userId).getLogin()));
+        Thread heldLoader = new Thread(heldLogin);
+        heldLoader.start();
+        awaitWaiting(Collections.singletonList(heldLoader));
+
+        // The user of the cached blog is loaded inside the load of the blog, without waiting for the other thread
+        AtomicInteger blogSelects = new AtomicInteger();
+        AtomicInteger userSelects = new AtomicInteger();
+        FutureTask<String> login = new FutureTask<>(() -> load(
+            new HoldingInspector("blog", blogSelects, false).and(new HoldingInspector("jhi_user", userSelects, false)),
+            session -> session.get(Blog.class, blogId).getUser().getLogin()));
+        new Thread(login).start();
+
+        assertThat(login.get(10, TimeUnit.SECONDS)).isEqualTo(entry.getBlog().getUser().getLogin());
+        assertThat(heldLogin.isDone()).isFalse();
+        assertThat(blogSelects.get()).isEqualTo(0);
+        assertThat(userSelects.get()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(heldLogin.get(10, TimeUnit.SECONDS)).isEqualTo(entry.getBlog().getUser().getLogin());
+        assertThat(heldUserSelects.get()).isEqualTo(1);
+    }
+
+    private <T> T load(StatementInspector statementInspector, Function<Session, T> loader) {
+        try (Session session = sessionFactory.withOptions().statementInspector(statementInspector).openSession()) {
+            session.beginTransaction();
+            T result = loader.apply(session);
+            session.getTransaction().commit();
+            return result;
+        }
+    }
+
+    /**
+     * Waits until the threads are blocked, either holding a select or waiting for the load of another thread.
+     */
+    private static void awaitWaiting(List<Thread> threads) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (System.currentTimeMillis() < deadline
+            && !threads.stream().allMatch(thread -> thread.getState() == Thread.State.WAITING
+                || thread.getState() == Thread.State.TIMED_WAITING)) {
+            Thread.sleep(10);
+        }
+    }
+
+    private class HoldingInspector implements StatementInspector {
+
+        private final String table;
+
+        private final AtomicInteger selects;
+
+        private final boolean holding;
+
+        HoldingInspector(String table, AtomicInteger selects, boolean holding) {
+            this.table = table;
+            this.selects = selects;
+            this.holding = holding;
+        }
+
+        @Override
+        public String inspect(String sql) {
+            if (sql.startsWith("select") && sql.contains(" from " + table + " ")) {
+                selects.incrementAndGet();
+                if (holding) {
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+            return sql;
+        }
+
+        StatementInspector and(StatementInspector other) {
+            return sql -> other.inspect(inspect(sql));
+        }
+    }
+}
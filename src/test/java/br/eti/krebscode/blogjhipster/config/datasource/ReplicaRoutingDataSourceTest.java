@@ -0,0 +1,331 @@
+package br.eti.krebscode.blogjhipster.config.datasource;
+
+import br.eti.krebscode.blogjhipster.config.ApplicationProperties;
+import br.eti.krebscode.blogjhipster.config.CacheInvalidationConfiguration;
+import br.eti.krebscode.blogjhipster.config.ReadReplicaConfiguration;
+import br.eti.krebscode.blogjhipster.config.ReadReplicaConfiguration.ReplicaAwareCacheManagerPostProcessor;
+import br.eti.krebscode.blogjhipster.config.cache.BroadcastingCacheManager;
+import br.eti.krebscode.blogjhipster.config.cache.CacheInvalidationBus;
+import br.eti.krebscode.blogjhipster.config.cache.ReplicaAwareCacheManager;
+import br.eti.krebscode.blogjhipster.service.EntryService;
+import br.eti.krebscode.blogjhipster.service.dto.VersionDTO;
+import br.eti.krebscode.blogjhipster.web.rest.util.RenderedResponseCache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Test class for the ReplicaRoutingDataSource, with a primary and a replica in two embedded H2 databases.
+ *
+ * @see ReplicaRoutingDataSource
+ */
+public class ReplicaRoutingDataSourceTest {
+
+    private static final long READ_YOUR_WRITES_WINDOW_MS = 1000;
+
+    private DataSource primary;
+
+    private FailingDataSource replica;
+
+    private MutableClock clock;
+
+    private ReplicaRoutingDataSource routingDataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate readWriteTransaction;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @Before
+    public void setup() {
+        primary = createDatabase("primary");
+        replica = new FailingDataSource(createDatabase("replica"));
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica", replica);
+        clock = new MutableClock();
+        routingDataSource = new ReplicaRoutingDataSource(primary, replicas, READ_YOUR_WRITES_WINDOW_MS, clock);
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWriteTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @After
+    public void cleanUp() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private static DataSource createDatabase(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table if not exists node (name varchar(10))");
+        jdbcTemplate.execute("delete from node");
+        jdbcTemplate.update("insert into node values (?)", name);
+        return dataSource;
+    }
+
+    private String readOnlyNode() {
+        return readOnlyTransaction.execute(status -> jdbcTemplate.queryForObject("select name from node", String.class));
+    }
+
+    private String readWriteNode() {
+        return readWriteTransaction.execute(status -> jdbcTemplate.queryForObject("select name from node", String.class));
+    }
+
+    @Test
+    public void testReadOnlyTransactionsGoToTheReplica() {
+        assertThat(readOnlyNode()).isEqualTo("replica");
+        assertThat(readWriteNode()).isEqualTo("primary");
+        assertThat(jdbcTemplate.queryForObject("select name from node", String.class)).isEqualTo("primary");
+    }
+
+    @Test
+    public void testUnavailableReplicaFallsBackToPrimaryUntilHealthy() {
+        replica.failing = true;
+        assertThat(readOnlyNode()).isEqualTo("primary");
+        assertThat(routingDataSource.getReplicaHealth()).containsEntry("replica", false);
+
+        replica.failing = false;
+        assertThat(readOnlyNode()).isEqualTo("primary");
+        routingDataSource.checkHealth();
+        assertThat(routingDataSource.getReplicaHealth()).containsEntry("replica", true);
+        assertThat(readOnlyNode()).isEqualTo("replica");
+
+        replica.failing = true;
+        routingDataSource.checkHealth();
+        assertThat(routingDataSource.getReplicaHealth()).containsEntry("replica", false);
+        assertThat(readOnlyNode()).isEqualTo("primary");
+    }
+
+    @Test
+    public void testUsersReadTheirWritesFromPrimaryDuringTheWindow() {
+        authenticate("writer");
+        readWriteNode();
+        assertThat(readOnlyNode()).isEqualTo("primary");
+
+        authenticate("reader");
+        assertThat(readOnlyNode()).isEqualTo("replica");
+
+        authenticate("writer");
+        clock.instant = clock.instant.plusMillis(READ_YOUR_WRITES_WINDOW_MS);
+        assertThat(readOnlyNode()).isEqualTo("replica");
+    }
+
+    @Test
+    public void testRolledBackWritesDoNotPinUsersToPrimary() {
+        authenticate("writer");
+        readWriteTransaction.execute(status -> {
+            jdbcTemplate.queryForObject("select name from node", String.class);
+            status.setRollbackOnly();
+            return null;
+        });
+        assertThat(readOnlyNode()).isEqualTo("replica");
+    }
+
+    @Test
+    public void testHintedReadsGoToThePrimary() {
+        assertThat(ReplicaRoutingDataSource.readFromPrimary(this::readOnlyNode)).isEqualTo("primary");
+        assertThat(readOnlyNode()).isEqualTo("replica");
+    }
+
+    @Test
+    public void testTransactionsServedByTheReplicaAreMarked() {
+        AtomicInteger replicaReads = new AtomicInteger();
+        routingDataSource.setReplicaReadListener(replicaReads::incrementAndGet);
+
+        Boolean markedBeforeRead = readOnlyTransaction.execute(status -> ReplicaRoutingDataSource.isReadingFromReplica());
+        assertThat(markedBeforeRead).isFalse();
+        assertThat(readOnlyNodeMarked()).isTrue();
+        assertThat(ReplicaRoutingDataSource.isReadingFromReplica()).isFalse();
+        assertThat(replicaReads).hasValue(1);
+
+        Boolean markedOnPrimary = readWriteTransaction.execute(status -> {
+            jdbcTemplate.queryForObject("select name from node", String.class);
+            return ReplicaRoutingDataSource.isReadingFromReplica();
+        });
+        assertThat(markedOnPrimary).isFalse();
+        Boolean markedWhenHinted = ReplicaRoutingDataSource.readFromPrimary(this::readOnlyNodeMarked);
+        assertThat(markedWhenHinted).isFalse();
+        assertThat(replicaReads).hasValue(1);
+    }
+
+    @Test
+    public void testValuesReadFromTheReplicaAreNotCached() {
+        // Without the cache invalidation, only the replica aware decorator is applied
+        GenericApplicationContext context = createCacheContext(false);
+        CacheManager cacheManager = context.getBean(CacheManager.class);
+        assertThat(cacheManager).isInstanceOf(ReplicaAwareCacheManager.class);
+        Cache cache = cacheManager.getCache("nodes");
+
+        readOnlyTransaction.execute(status -> {
+            cache.put("replica", jdbcTemplate.queryForObject("select name from node", String.class));
+            cache.putIfAbsent("replica", "replica");
+            return cache.get("replica", () -> "replica");
+        });
+        assertThat(cache.get("replica")).isNull();
+
+        ReplicaRoutingDataSource.readFromPrimary(() -> readOnlyTransaction.execute(status -> {
+            cache.put("primary", jdbcTemplate.queryForObject("select name from node", String.class));
+            return null;
+        }));
+        assertThat(cache.get("primary", String.class)).isEqualTo("primary");
+        context.close();
+    }
+
+    @Test
+    public void testBroadcastingCacheManagerStaysTheOutermostDecorator() {
+        GenericApplicationContext context = createCacheContext(true);
+        CacheManager cacheManager = context.getBean(CacheManager.class);
+        assertThat(cacheManager).isInstanceOf(BroadcastingCacheManager.class);
+        assertThat(((BroadcastingCacheManager) cacheManager).getTargetCacheManager()).isInstanceOf(ReplicaAwareCacheManager.class);
+
+        Cache cache = cacheManager.getCache("nodes");
+        readOnlyTransaction.execute(status -> {
+            cache.put("replica", jdbcTemplate.queryForObject("select name from node", String.class));
+            return null;
+        });
+        assertThat(cache.get("replica")).isNull();
+        context.close();
+    }
+
+    @Test
+    public void testStaleReplicaDoesNotRepopulateTheEntryResponses() throws Exception {
+        // The entry was updated on the primary, evicting its response, but the replica lags behind
+        createEntry(primary, "updated", 2);
+        createEntry(replica, "old", 1);
+        CacheManager cacheManager = new ConcurrentMapCacheManager(EntryService.ENTRY_RESPONSES_CACHE);
+        RenderedResponseCache renderedResponseCache = new RenderedResponseCache(new ObjectMapper(), cacheManager,
+            new ApplicationProperties());
+        String replicaTitle = readOnlyTransaction.execute(status ->
+            jdbcTemplate.queryForObject("select title from entry", String.class));
+        assertThat(replicaTitle).isEqualTo("old");
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        renderedResponseCache.write(EntryService.ENTRY_RESPONSES_CACHE, 1L,
+            () -> readOnlyTransaction.execute(status -> Optional.of(new VersionDTO(
+                jdbcTemplate.queryForObject("select version from entry", String.class), null))),
+            () -> readOnlyTransaction.execute(status -> Optional.of(
+                jdbcTemplate.queryForMap("select title from entry"))),
+            new MockHttpServletRequest("GET", "/api/entries/1"), response);
+        assertThat(response.getContentAsString()).contains("updated");
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo("W/\"2\"");
+
+        // The next requests are served from the cache
+        response = new MockHttpServletResponse();
+        renderedResponseCache.write(EntryService.ENTRY_RESPONSES_CACHE, 1L,
+            Optional::empty, Optional::empty, new MockHttpServletRequest("GET", "/api/entries/1"), response);
+        assertThat(response.getContentAsString()).contains("updated");
+    }
+
+    /**
+     * Registers the cache manager post processors like the configurations do, the broadcasting one only when the
+     * cache invalidation is enabled, and first, so that their order doesn't come from the registration.
+     */
+    private static GenericApplicationContext createCacheContext(boolean invalidation) {
+        GenericApplicationContext context = new GenericApplicationContext();
+        if (invalidation) {
+            @SuppressWarnings("unchecked")
+            ObjectProvider<CacheInvalidationBus> cacheInvalidationBus = mock(ObjectProvider.class);
+            context.registerBean(BeanPostProcessor.class,
+                () -> CacheInvalidationConfiguration.broadcastingCacheManagerPostProcessor(cacheInvalidationBus));
+        }
+        context.registerBean(ReplicaAwareCacheManagerPostProcessor.class, ReadReplicaConfiguration::replicaAwareCacheManagerPostProcessor);
+        context.registerBean(CacheManager.class, () -> new ConcurrentMapCacheManager("nodes"));
+        context.refresh();
+        return context;
+    }
+
+    private Boolean readOnlyNodeMarked() {
+        return readOnlyTransaction.execute(status -> {
+            jdbcTemplate.queryForObject("select name from node", String.class);
+            return ReplicaRoutingDataSource.isReadingFromReplica();
+        });
+    }
+
+    private static void createEntry(DataSource dataSource, String title, int version) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("drop table if exists entry");
+        jdbcTemplate.execute("create table entry (title varchar(10), version int)");
+        jdbcTemplate.update("insert into entry values (?, ?)", title, version);
+    }
+
+    private static void authenticate(String login) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(login, login));
+    }
+
+    private static final class FailingDataSource extends DelegatingDataSource {
+
+        private volatile boolean failing;
+
+        private FailingDataSource(DataSource targetDataSource) {
+            super(targetDataSource);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (failing) {
+                throw new SQLException("Connection refused");
+            }
+            return super.getConnection();
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant = Instant.now();
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
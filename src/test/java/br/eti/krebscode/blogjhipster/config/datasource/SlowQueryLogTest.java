@@ -0,0 +1,87 @@
+package br.eti.krebscode.blogjhipster.config.datasource;
+
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the SlowQueryLog.
+ *
+ * @see SlowQueryLog
+ */
+public class SlowQueryLogTest {
+
+    private static final Instant NOW = Instant.parse("2019-05-01T10:00:00Z");
+
+    private final SlowQueryLog slowQueryLog = new SlowQueryLog(100, 2, 10,
+        Arrays.asList("password_hash", "reset_key"), Clock.fixed(NOW, ZoneOffset.UTC));
+
+    private static Map<Integer, Object> parameters(Object... values) {
+        Map<Integer, Object> parameters = new HashMap<>();
+        for (int i = 0; i < values.length; i++) {
+            parameters.put(i + 1, values[i]);
+        }
+        return parameters;
+    }
+
+    @Test
+    public void testThreshold() {
+        assertThat(slowQueryLog.isSlow(TimeUnit.MILLISECONDS.toNanos(99))).isFalse();
+        assertThat(slowQueryLog.isSlow(TimeUnit.MILLISECONDS.toNanos(100))).isTrue();
+        assertThat(new SlowQueryLog(-1, 2, 10, Arrays.asList()).isSlow(Long.MAX_VALUE - 1)).isFalse();
+    }
+
+    @Test
+    public void testSlowQueryIsRecorded() {
+        slowQueryLog.record("select id from entry where title=? and blog_id=?", parameters("a title", 3L), 7L,
+            TimeUnit.MILLISECONDS.toNanos(150));
+
+        assertThat(slowQueryLog.getSlowQueries()).hasSize(1);
+        SlowQuery slowQuery = slowQueryLog.getSlowQueries().get(0);
+        assertThat(slowQuery.getTimestamp()).isEqualTo(NOW);
+        assertThat(slowQuery.getSql()).isEqualTo("select id from entry where title=? and blog_id=?");
+        assertThat(slowQuery.getParameters()).containsExactly("'a title'", "3");
+        assertThat(slowQuery.getRows()).isEqualTo(7L);
+        assertThat(slowQuery.getElapsedMs()).isEqualTo(150);
+        assertThat(slowQuery.getCallSite()).startsWith(SlowQueryLogTest.class.getName() + ".testSlowQueryIsRecorded(");
+    }
+
+    @Test
+    public void testParametersAreRedactedAndTruncated() {
+        slowQueryLog.record("insert into jhi_user (login, password_hash, image) values (?, ?, ?)",
+            parameters("admin", "$2a$10$secret", new byte[42]), 1L, 0);
+        slowQueryLog.record("update jhi_user set reset_key=?, last_modified_by=? where id=?",
+            parameters("12345", "a very long login", 1L), 1L, 0);
+        slowQueryLog.record("select user0_.id, user0_.password_hash from jhi_user user0_ where lower(user0_.email)=?",
+            parameters("admin@localhost"), 1L, 0);
+
+        assertThat(slowQueryLog.getSlowQueries().get(1).getParameters()).containsExactly("****", "'a very lon...'", "1");
+        // the email is compared through a function, so its column isn't known
+        assertThat(slowQueryLog.getSlowQueries().get(0).getParameters()).containsExactly("****");
+        slowQueryLog.clear();
+
+        slowQueryLog.record("insert into jhi_user (login, password_hash, image) values (?, ?, ?)",
+            parameters("admin", "$2a$10$secret", new byte[42]), 1L, 0);
+        assertThat(slowQueryLog.getSlowQueries().get(0).getParameters()).containsExactly("'admin'", "****", "<42 bytes>");
+    }
+
+    @Test
+    public void testOnlyTheMostRecentQueriesAreKept() {
+        slowQueryLog.record("select 1", parameters(), null, 0);
+        slowQueryLog.record("select 2", parameters(), null, 0);
+        slowQueryLog.record("select 3", parameters(), null, 0);
+
+        assertThat(slowQueryLog.getSlowQueries()).extracting(SlowQuery::getSql).containsExactly("select 3", "select 2");
+
+        slowQueryLog.clear();
+        assertThat(slowQueryLog.getSlowQueries()).isEmpty();
+    }
+}
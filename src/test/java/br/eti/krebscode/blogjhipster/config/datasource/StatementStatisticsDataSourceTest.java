@@ -0,0 +1,113 @@
+package br.eti.krebscode.blogjhipster.config.datasource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the StatementStatisticsDataSource, on an embedded H2 database.
+ *
+ * @see StatementStatisticsDataSource
+ * @see StatementStatistics
+ */
+public class StatementStatisticsDataSourceTest {
+
+    private static final String SELECT_BY_ID = "select name from item where id = ?";
+
+    private StatementStatisticsDataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @Before
+    public void setup() {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:statement-statistics;DB_CLOSE_DELAY=-1");
+        dataSource = new StatementStatisticsDataSource(h2);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table if not exists item (id bigint primary key, name varchar(10))");
+        jdbcTemplate.execute("delete from item");
+        for (int i = 0; i < 10; i++) {
+            jdbcTemplate.update("insert into item values (?, ?)", i, "item-" + i);
+        }
+    }
+
+    @After
+    public void cleanUp() {
+        StatementStatistics.stop();
+    }
+
+    @Test
+    public void testStatementsAreNotRecordedByDefault() {
+        jdbcTemplate.queryForObject(SELECT_BY_ID, String.class, 1);
+
+        assertThat(StatementStatistics.current()).isNull();
+    }
+
+    @Test
+    public void testStatementsAreCounted() {
+        StatementStatistics statistics = StatementStatistics.start();
+
+        jdbcTemplate.queryForObject(SELECT_BY_ID, String.class, 1);
+        jdbcTemplate.update("update item set name = ? where id = ?", "updated", 2);
+        jdbcTemplate.execute("select count(*) from item");
+        StatementStatistics.stop();
+        jdbcTemplate.queryForObject(SELECT_BY_ID, String.class, 3);
+
+        assertThat(statistics.getCount()).isEqualTo(3);
+        assertThat(statistics.getSlowestStatement()).isIn(SELECT_BY_ID,
+            "update item set name = ? where id = ?", "select count(*) from item");
+        assertThat(statistics.getTotalTime(TimeUnit.NANOSECONDS))
+            .isGreaterThanOrEqualTo(statistics.getSlowestTime(TimeUnit.NANOSECONDS));
+        assertThat(statistics.getRepeatedSelects(2)).isEmpty();
+    }
+
+    @Test
+    public void testRepeatedSelectsAreReported() {
+        StatementStatistics statistics = StatementStatistics.start();
+
+        for (int i = 0; i < 5; i++) {
+            jdbcTemplate.queryForObject(SELECT_BY_ID, String.class, i);
+            jdbcTemplate.update("update item set name = ? where id = ?", "updated", i);
+        }
+
+        assertThat(statistics.getCount()).isEqualTo(10);
+        assertThat(statistics.getRepeatedSelects(5)).containsOnlyKeys(SELECT_BY_ID).containsValue(5);
+        assertThat(statistics.getRepeatedSelects(6)).isEmpty();
+    }
+
+    @Test
+    public void testSlowQueriesAreLogged() {
+        SlowQueryLog slowQueryLog = new SlowQueryLog(0, 10, 100, Arrays.asList("name"));
+        JdbcTemplate slowQueryTemplate = new JdbcTemplate(new StatementStatisticsDataSource(dataSource, slowQueryLog));
+
+        slowQueryTemplate.queryForList("select name from item where id < ?", String.class, 4);
+        slowQueryTemplate.update("update item set name = ? where id >= ?", "updated", 5);
+
+        assertThat(slowQueryLog.getSlowQueries()).hasSize(2);
+        SlowQuery update = slowQueryLog.getSlowQueries().get(0);
+        assertThat(update.getSql()).isEqualTo("update item set name = ? where id >= ?");
+        assertThat(update.getParameters()).containsExactly("****", "5");
+        assertThat(update.getRows()).isEqualTo(5L);
+        SlowQuery select = slowQueryLog.getSlowQueries().get(1);
+        assertThat(select.getParameters()).containsExactly("4");
+        assertThat(select.getRows()).isEqualTo(4L);
+        assertThat(select.getCallSite()).contains(StatementStatisticsDataSourceTest.class.getName());
+    }
+
+    @Test
+    public void testConnectionsAreProxied() throws Exception {
+        try (Connection first = dataSource.getConnection(); Connection second = dataSource.getConnection()) {
+            assertThat(first).isEqualTo(first).isNotEqualTo(second);
+            assertThat(first.isWrapperFor(org.h2.jdbc.JdbcConnection.class)).isTrue();
+            assertThat(first.unwrap(org.h2.jdbc.JdbcConnection.class)).isNotNull();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package br.eti.krebscode.blogjhipster.repository;
+
+import br.eti.krebscode.blogjhipster.BlogJhipsterApp;
+import br.eti.krebscode.blogjhipster.config.datasource.StatementStatistics;
+import br.eti.krebscode.blogjhipster.domain.Blog;
+import br.eti.krebscode.blogjhipster.domain.Entry;
+import br.eti.krebscode.blogjhipster.domain.Tag;
+
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.enhanced.PooledOptimizer;
+import org.hibernate.id.enhanced.TableGenerator;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Id generation and JDBC batching of the entity inserts, with a benchmark of a bulk insert of entries with tags.
+ * <p>
+ * The benchmark only runs when the number of entries to insert is set, e.g. with -Dbenchmark.entries=100000.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = BlogJhipsterApp.class)
+@Transactional
+public class EntryBatchInsertIntTest {
+
+    private static final Integer BENCHMARK_ENTRIES = Integer.getInteger("benchmark.entries");
+
+    private static final int TAGS = 20;
+
+    private static final int TAGS_PER_ENTRY = 3;
+
+    private static final int BATCH_SIZE = 50;
+
+    private final Logger log = LoggerFactory.getLogger(EntryBatchInsertIntTest.class);
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntryRepository entryRepository;
+
+    private Long blogId;
+
+    private List<Long> tagIds;
+
+    @Before
+    public void setup() {
+        Blog blog = new Blog()
+            .name("benchmark")
+            .handle("benchmark");
+        blog.setUser(userRepository.findOneByLogin("admin").get());
+        em.persist(blog);
+        tagIds = new ArrayList<>();
+        for (int i = 0; i < TAGS; i++) {
+            Tag tag = new Tag().name("tag-" + i);
+            em.persist(tag);
+            tagIds.add(tag.getId());
+        }
+        em.flush();
+        em.clear();
+        blogId = blog.getId();
+    }
+
+    @Test
+    public void assertThatInsertsAreBatched() {
+        SessionFactoryImplementor sessionFactory = em.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class);
+        assertThat(sessionFactory.getSessionFactoryOptions().getJdbcBatchSize()).isEqualTo(BATCH_SIZE);
+        assertThat(sessionFactory.getSessionFactoryOptions().isOrderInsertsEnabled()).isTrue();
+        assertThat(sessionFactory.getSessionFactoryOptions().isOrderUpdatesEnabled()).isTrue();
+
+        for (Class<?> entityClass : new Class<?>[]{Blog.class, Tag.class, Entry.class}) {
+            IdentifierGenerator generator = sessionFactory.getMetamodel().entityPersister(entityClass).getIdentifierGenerator();
+            assertThat(generator).isInstanceOf(TableGenerator.class);
+            assertThat(((TableGenerator) generator).getOptimizer()).isInstanceOf(PooledOptimizer.class);
+            assertThat(((TableGenerator) generator).getIncrementSize()).isEqualTo(BATCH_SIZE);
+        }
+    }
+
+    @Test
+    public void assertThatEntriesWithTagsAreInsertedInBatches() {
+        int entries = 2 * BATCH_SIZE;
+        long count = entryRepository.count();
+
+        StatementStatistics statistics = StatementStatistics.start();
+        try {
+            insertEntries(entries);
+        } finally {
+            StatementStatistics.stop();
+        }
+
+        // Per flush of BATCH_SIZE entries: one batch of entries, TAGS_PER_ENTRY batches of entry tags, and the
+        // update of the id generator, where a row by row insert would take BATCH_SIZE * (1 + TAGS_PER_ENTRY) of
+        // them; the selects only load the blog and the tags again after each clear
+        int selects = statistics.getRepeatedSelects(1).values().stream().mapToInt(Integer::intValue).sum();
+        int flushes = entries / BATCH_SIZE;
+        assertThat(statistics.getCount() - selects).as("SQL writes (%s, %d selects)", statistics, selects)
+            .isLessThanOrEqualTo(flushes * (1 + TAGS_PER_ENTRY + 1));
+        assertThat(entryRepository.count()).isEqualTo(count + entries);
+    }
+
+    @Test
+    public void benchmarkEntriesWithTagsInsert() {
+        assumeTrue("Set -Dbenchmark.entries to run the benchmark", BENCHMARK_ENTRIES != null);
+        int entries = BENCHMARK_ENTRIES;
+        Session session = em.unwrap(Session.class);
+        long count = entryRepository.count();
+
+        session.setJdbcBatchSize(1);
+        long unbatched = insertEntries(entries / 10);
+        session.setJdbcBatchSize(null);
+        long batched = insertEntries(entries);
+
+        log.info("Inserted {} entries with {} tags each - unbatched: {} entries/s, batched: {} entries/s",
+            entries, TAGS_PER_ENTRY, entries / 10 * 1000 / Math.max(unbatched, 1), entries * 1000L / Math.max(batched, 1));
+        assertThat(entryRepository.count()).isEqualTo(count + entries / 10 + entries);
+    }
+
+    /**
+     * @return the duration of the insert, in milliseconds
+     */
+    private long insertEntries(int entries) {
+        long start = System.nanoTime();
+        for (int i = 0; i < entries; i++) {
+            Entry entry = new Entry()
+                .title("entry-" + i)
+                .content("content of the entry " + i)
+                .date(ZonedDateTime.now())
+                .blog(em.getReference(Blog.class, blogId));
+            for (int j = 0; j < TAGS_PER_ENTRY; j++) {
+                entry.addTag(em.getReference(Tag.class, tagIds.get((i + j) % TAGS)));
+            }
+            em.persist(entry);
+            if ((i + 1) % BATCH_SIZE == 0) {
+                em.flush();
+                em.clear();
+            }
+        }
+        em.flush();
+        em.clear();
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,265 @@
+package br.eti.krebscode.blogjhipster.repository;
+
+import br.eti.krebscode.blogjhipster.BlogJhipsterApp;
+import br.eti.krebscode.blogjhipster.domain.Blog;
+import br.eti.krebscode.blogjhipster.domain.Entry;
+import br.eti.krebscode.blogjhipster.domain.Tag;
+import br.eti.krebscode.blogjhipster.domain.User;
+import br.eti.krebscode.blogjhipster.service.BlogQueryService;
+import br.eti.krebscode.blogjhipster.service.EntryQueryService;
+import br.eti.krebscode.blogjhipster.service.dto.BlogCriteria;
+import br.eti.krebscode.blogjhipster.service.dto.EntryCriteria;
+
+import io.github.jhipster.service.filter.LongFilter;
+import io.github.jhipster.service.filter.StringFilter;
+import io.github.jhipster.service.filter.ZonedDateTimeFilter;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Query plan regression suite: every SQL statement emitted by the lookups of the repositories is explained by H2,
+ * and none of them may scan a whole large table.
+ * <p>
+ * The listings of a whole table, like GET /api/entries without criteria, are not covered as they are full scans
+ * by nature.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = BlogJhipsterApp.class, properties =
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+        "br.eti.krebscode.blogjhipster.repository.QueryPlanIntTest$RecordingStatementInspector")
+@Transactional
+public class QueryPlanIntTest {
+
+    private static final Set<String> LARGE_TABLES = new LinkedHashSet<>(Arrays.asList("BLOG", "ENTRY", "ENTRY_TAG", "JHI_USER"));
+
+    private static final int BLOGS = 10;
+
+    private static final int TAGS = 20;
+
+    private static final int ENTRIES = 500;
+
+    /**
+     * A table of the plan and how H2 reads it, e.g. "PUBLIC.ENTRY ENTRY0_ /* PUBLIC.IDX_ENTRY_DATE: JHI_DATE >= ?1 *&#47;".
+     */
+    private static final Pattern TABLE_ACCESS = Pattern.compile("PUBLIC\\.(\\w+)(?: \\w+)?\\s+/\\* ([^*]+?) \\*/");
+
+    /**
+     * Records the statements sent by Hibernate while enabled.
+     */
+    public static class RecordingStatementInspector implements StatementInspector {
+
+        private static final List<String> statements = Collections.synchronizedList(new ArrayList<>());
+
+        private static volatile boolean recording;
+
+        @Override
+        public String inspect(String sql) {
+            if (recording) {
+                statements.add(sql);
+            }
+            return sql;
+        }
+    }
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntryRepository entryRepository;
+
+    @Autowired
+    private BlogRepository blogRepository;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntryQueryService entryQueryService;
+
+    @Autowired
+    private BlogQueryService blogQueryService;
+
+    private List<Blog> blogs;
+
+    private List<Tag> tags;
+
+    private Entry entry;
+
+    @Before
+    public void setup() {
+        User user = userRepository.findOneByLogin("user").get();
+        blogs = new ArrayList<>();
+        for (int i = 0; i < BLOGS; i++) {
+            Blog blog = new Blog().name("blog-" + i).handle("blog-" + i).user(user);
+            em.persist(blog);
+            blogs.add(blog);
+        }
+        tags = new ArrayList<>();
+        for (int i = 0; i < TAGS; i++) {
+            Tag tag = new Tag().name("tag-" + i);
+            em.persist(tag);
+            tags.add(tag);
+        }
+        ZonedDateTime date = ZonedDateTime.of(2019, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        for (int i = 0; i < ENTRIES; i++) {
+            entry = new Entry()
+                .title("entry-" + i)
+                .content("content")
+                .date(date.plusHours(i))
+                .blog(blogs.get(i % BLOGS))
+                .addTag(tags.get(i % TAGS))
+                .addTag(tags.get((i + 1) % TAGS));
+            em.persist(entry);
+        }
+        em.flush();
+        em.clear();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        RecordingStatementInspector.statements.clear();
+        RecordingStatementInspector.recording = true;
+    }
+
+    @After
+    public void stopRecording() {
+        RecordingStatementInspector.recording = false;
+    }
+
+    @Test
+    public void entryLookupsUseIndexes() {
+        entryRepository.findById(entry.getId());
+        entryRepository.findOneWithEagerRelationships(entry.getId());
+        entryRepository.findAllWithEagerRelationshipsByIdIn(Collections.singleton(entry.getId()));
+        entryRepository.findVersionById(entry.getId());
+        em.clear();
+
+        assertThatNoLargeTableIsScanned();
+    }
+
+    @Test
+    public void entryCriteriaUseIndexes() {
+        EntryCriteria byBlog = new EntryCriteria();
+        byBlog.setBlogId(longFilter(blogs.get(0).getId()));
+        entryQueryService.findByCriteria(byBlog, PageRequest.of(0, 20, Sort.by("date")));
+
+        EntryCriteria byBlogAndDate = new EntryCriteria();
+        byBlogAndDate.setBlogId(longFilter(blogs.get(1).getId()));
+        ZonedDateTimeFilter after = new ZonedDateTimeFilter();
+        after.setGreaterOrEqualThan(entry.getDate().minusDays(1));
+        byBlogAndDate.setDate(after);
+        entryQueryService.findByCriteria(byBlogAndDate, PageRequest.of(0, 20, Sort.by("date")));
+
+        EntryCriteria byDate = new EntryCriteria();
+        ZonedDateTimeFilter between = new ZonedDateTimeFilter();
+        between.setGreaterOrEqualThan(entry.getDate().minusDays(1));
+        between.setLessThan(entry.getDate());
+        byDate.setDate(between);
+        entryQueryService.findByCriteria(byDate, PageRequest.of(0, 20, Sort.by("date")));
+
+        EntryCriteria byTag = new EntryCriteria();
+        byTag.setTagId(longFilter(tags.get(0).getId()));
+        entryQueryService.findByCriteria(byTag, PageRequest.of(0, 20));
+        em.clear();
+
+        assertThatNoLargeTableIsScanned();
+    }
+
+    @Test
+    @WithMockUser("user")
+    public void blogLookupsUseIndexes() {
+        blogRepository.findById(blogs.get(0).getId());
+        blogRepository.findVersionById(blogs.get(0).getId());
+        blogRepository.findByUserIsCurrentUser();
+
+        BlogCriteria byHandle = new BlogCriteria();
+        StringFilter handle = new StringFilter();
+        handle.setEquals("blog-0");
+        byHandle.setHandle(handle);
+        blogQueryService.findByCriteria(byHandle);
+
+        BlogCriteria byUser = new BlogCriteria();
+        byUser.setUserId(longFilter(blogs.get(0).getUser().getId()));
+        blogQueryService.findByCriteria(byUser, PageRequest.of(0, 20));
+
+        tagRepository.findById(tags.get(0).getId());
+        tagRepository.findVersionById(tags.get(0).getId());
+        em.clear();
+
+        assertThatNoLargeTableIsScanned();
+    }
+
+    @Test
+    public void userLookupsUseIndexes() {
+        userRepository.findOneByLogin("admin");
+        userRepository.findOneWithAuthoritiesByLogin("admin");
+        userRepository.findOneWithAuthoritiesById(userRepository.findOneByLogin("user").get().getId());
+        em.clear();
+
+        assertThatNoLargeTableIsScanned();
+    }
+
+    private static LongFilter longFilter(Long id) {
+        LongFilter filter = new LongFilter();
+        filter.setEquals(id);
+        return filter;
+    }
+
+    private void assertThatNoLargeTableIsScanned() {
+        RecordingStatementInspector.recording = false;
+        List<String> statements = new ArrayList<>(RecordingStatementInspector.statements);
+        assertThat(statements).isNotEmpty();
+        List<String> scans = new ArrayList<>();
+        for (String statement : statements) {
+            if (!statement.trim().toLowerCase(Locale.ROOT).startsWith("select")) {
+                continue;
+            }
+            String plan = jdbcTemplate.query(connection -> connection.prepareStatement("explain " + statement),
+                (ResultSetExtractor<String>) resultSet -> resultSet.next() ? resultSet.getString(1) : "");
+            Matcher matcher = TABLE_ACCESS.matcher(plan);
+            while (matcher.find()) {
+                String table = matcher.group(1);
+                String access = matcher.group(2);
+                // an index without condition, or the table itself, is read from the start to the end
+                if (LARGE_TABLES.contains(table) && !access.contains(":")) {
+                    scans.add(table + " (" + access + ") in: " + statement + "\n" + plan);
+                }
+            }
+        }
+        assertThat(scans).as("full scans of large tables").isEmpty();
+    }
+}
@@ -0,0 +1,132 @@
+package br.eti.krebscode.blogjhipster.service;
+
+import br.eti.krebscode.blogjhipster.BlogJhipsterApp;
+import br.eti.krebscode.blogjhipster.config.ApplicationProperties;
+import br.eti.krebscode.blogjhipster.config.CacheWarmUpHealthIndicator;
+import br.eti.krebscode.blogjhipster.domain.Blog;
+import br.eti.krebscode.blogjhipster.domain.Entry;
+import br.eti.krebscode.blogjhipster.web.rest.EntryResourceIntTest;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.EntityKey;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the CacheWarmUpService.
+ *
+ * @see CacheWarmUpService
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = BlogJhipsterApp.class)
+@Transactional
+public class CacheWarmUpServiceIntTest {
+
+    private static final TypeReference<Map<String, List<Long>>> HISTORY_TYPE = new TypeReference<Map<String, List<Long>>>() {
+    };
+
+    @Autowired
+    private CacheWarmUpService cacheWarmUpService;
+
+    @Autowired
+    private CacheWarmUpHealthIndicator cacheWarmUpHealthIndicator;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManager em;
+
+    private Path file;
+
+    @Before
+    public void init() throws Exception {
+        file = Paths.get(applicationProperties.getCache().getWarmUp().getFile());
+        Files.deleteIfExists(file);
+    }
+
+    @After
+    public void cleanUp() throws Exception {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void assertThatMostAccessedIdsAreRecordedFirst() throws Exception {
+        recordAccesses(Entry.class, Long.MAX_VALUE - 1, 1000);
+        recordAccesses(Entry.class, Long.MAX_VALUE - 2, 3000);
+        recordAccesses(Entry.class, Long.MAX_VALUE - 3, 2000);
+        recordAccesses(Blog.class, Long.MAX_VALUE - 4, 1000);
+
+        cacheWarmUpService.recordAccessHistory();
+
+        Map<String, List<Long>> history = objectMapper.readValue(file.toFile(), HISTORY_TYPE);
+        assertThat(history.get("Entry")).startsWith(Long.MAX_VALUE - 2, Long.MAX_VALUE - 3, Long.MAX_VALUE - 1);
+        assertThat(history.get("Blog")).startsWith(Long.MAX_VALUE - 4);
+        assertThat(history).containsKey("Tag");
+    }
+
+    @Test
+    public void assertThatRecordedEntitiesAreLoaded() throws Exception {
+        Entry entry = EntryResourceIntTest.createEntity(em);
+        em.persist(entry);
+        em.flush();
+        em.clear();
+
+        Map<String, List<Long>> history = new LinkedHashMap<>();
+        history.put("Blog", Collections.singletonList(entry.getBlog().getId()));
+        history.put("Entry", Arrays.asList(entry.getId(), Long.MAX_VALUE));
+        objectMapper.writeValue(file.toFile(), history);
+
+        cacheWarmUpService.warmUp();
+
+        @SuppressWarnings("unchecked")
+        Set<EntityKey> loadedEntities = em.unwrap(Session.class).getStatistics().getEntityKeys();
+        assertThat(loadedEntities)
+            .anyMatch(key -> key.getEntityName().equals(Entry.class.getName()) && key.getIdentifier().equals(entry.getId()));
+        assertThat(cacheWarmUpService.isWarmedUp()).isTrue();
+        assertThat(cacheWarmUpHealthIndicator.health().getStatus()).isEqualTo(Status.UP);
+
+        // The warmed up ids stay in the history even if they are not accessed again
+        cacheWarmUpService.recordAccessHistory();
+        Map<String, List<Long>> recordedHistory = objectMapper.readValue(file.toFile(), HISTORY_TYPE);
+        assertThat(recordedHistory.get("Entry")).contains(entry.getId());
+    }
+
+    @Test
+    public void assertThatMissingFileIsIgnored() {
+        cacheWarmUpService.warmUp();
+
+        assertThat(cacheWarmUpService.isWarmedUp()).isTrue();
+    }
+
+    private void recordAccesses(Class<?> domainClass, Long id, int count) {
+        for (int i = 0; i < count; i++) {
+            cacheWarmUpService.recordAccess(domainClass, id);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package br.eti.krebscode.blogjhipster.service;
+
+import br.eti.krebscode.blogjhipster.BlogJhipsterApp;
+import br.eti.krebscode.blogjhipster.config.ApplicationProperties;
+import br.eti.krebscode.blogjhipster.domain.Blog;
+import br.eti.krebscode.blogjhipster.domain.Entry;
+import br.eti.krebscode.blogjhipster.repository.BlogRepository;
+import br.eti.krebscode.blogjhipster.repository.EntryRepository;
+import br.eti.krebscode.blogjhipster.repository.UserRepository;
+import br.eti.krebscode.blogjhipster.service.dto.ImportErrorDTO;
+import br.eti.krebscode.blogjhipster.service.dto.ImportStatusDTO;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the EntryImportService, whose batches are committed in their own transactions.
+ *
+ * @see EntryImportService
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = BlogJhipsterApp.class)
+public class EntryImportServiceIntTest {
+
+    @Autowired
+    private EntryImportService entryImportService;
+
+    @Autowired
+    private EntryRepository entryRepository;
+
+    @Autowired
+    private BlogRepository blogRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private int batchSize;
+
+    private int maxLineLength;
+
+    private Blog blog;
+
+    private final List<ImportErrorDTO> errors = new ArrayList<>();
+
+    private final List<ImportStatusDTO> progress = new ArrayList<>();
+
+    @Before
+    public void setup() {
+        batchSize = applicationProperties.getEntryImport().getBatchSize();
+        applicationProperties.getEntryImport().setBatchSize(2);
+        maxLineLength = applicationProperties.getEntryImport().getMaxLineLength();
+        blog = new TransactionTemplate(transactionManager).execute(status -> blogRepository.save(new Blog()
+            .name("import")
+            .handle("import")
+            .user(userRepository.findOneByLogin("admin").get())));
+    }
+
+    @After
+    public void cleanUp() {
+        applicationProperties.getEntryImport().setBatchSize(batchSize);
+        applicationProperties.getEntryImport().setMaxLineLength(maxLineLength);
+        new TransactionTemplate(transactionManager).execute(status -> {
+            entryRepository.deleteAll(entriesOfBlog());
+            blogRepository.deleteById(blog.getId());
+            return null;
+        });
+    }
+
+    @Test
+    public void assertThatFailingEntriesDoNotPreventTheirBatchFromBeingImported() throws Exception {
+        String lines = entry("first") + entry("second") + entry(StringUtils.repeat('x', 300)) + entry("fourth") + entry("fifth");
+
+        ImportStatusDTO status = importEntries(lines);
+
+        assertThat(status.getLines()).isEqualTo(5);
+        assertThat(status.getImported()).isEqualTo(4);
+        assertThat(status.getFailed()).isEqualTo(1);
+        assertThat(status.isDone()).isTrue();
+        assertThat(errors).extracting(ImportErrorDTO::getLine).containsExactly(3L);
+        assertThat(progress).hasSize(3);
+        assertThat(entriesOfBlog()).extracting(Entry::getTitle).containsExactlyInAnyOrder("first", "second", "fourth", "fifth");
+    }
+
+    @Test
+    public void assertThatTooLongLinesAreSkipped() throws Exception {
+        applicationProperties.getEntryImport().setMaxLineLength(200);
+        String tooLong = "{\"title\":\"" + StringUtils.repeat('x', 100_000) + "\"}";
+        String lines = entry("first") + tooLong + "\r\n" + entry("third").replace("\n", "\r\n") + "\n" +
+            StringUtils.stripEnd(entry("fifth"), "\n");
+
+        ImportStatusDTO status = importEntries(lines);
+
+        assertThat(status.getLines()).isEqualTo(5);
+        assertThat(status.getImported()).isEqualTo(3);
+        assertThat(status.getFailed()).isEqualTo(1);
+        assertThat(errors).extracting(ImportErrorDTO::getLine).containsExactly(2L);
+        assertThat(errors).extracting(ImportErrorDTO::getError).containsExactly("Line longer than 200 characters");
+        assertThat(entriesOfBlog()).extracting(Entry::getTitle).containsExactlyInAnyOrder("first", "third", "fifth");
+    }
+
+    private ImportStatusDTO importEntries(String lines) throws Exception {
+        return entryImportService.importEntries(new StringReader(lines), new EntryImportService.ImportListener() {
+
+            @Override
+            public void onError(ImportErrorDTO error) {
+                errors.add(error);
+            }
+
+            @Override
+            public void onProgress(ImportStatusDTO status) {
+                progress.add(status);
+            }
+        });
+    }
+
+    private List<Entry> entriesOfBlog() {
+        return entryRepository.findAll().stream()
+            .filter(entry -> entry.getBlog().getId().equals(blog.getId()))
+            .collect(Collectors.toList());
+    }
+
+    private String entry(String title) {
+        return "{\"title\":\"" + title + "\",\"content\":\"content\",\"date\":\"2019-04-28T12:00:00Z\",\"blogId\":" +
+            blog.getId() + "}\n";
+    }
+}
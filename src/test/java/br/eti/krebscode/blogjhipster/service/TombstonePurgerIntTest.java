@@ -0,0 +1,149 @@
+package br.eti.krebscode.blogjhipster.service;
+
+import br.eti.krebscode.blogjhipster.BlogJhipsterApp;
+import br.eti.krebscode.blogjhipster.config.ApplicationProperties;
+import br.eti.krebscode.blogjhipster.domain.Blog;
+import br.eti.krebscode.blogjhipster.domain.Entry;
+import br.eti.krebscode.blogjhipster.domain.Tag;
+import br.eti.krebscode.blogjhipster.repository.BlogRepository;
+import br.eti.krebscode.blogjhipster.repository.EntryRepository;
+import br.eti.krebscode.blogjhipster.web.rest.EntryResourceIntTest;
+import br.eti.krebscode.blogjhipster.web.rest.TagResourceIntTest;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the TombstonePurger.
+ * <p>
+ * The purge joins the transaction of the test, so it sees the flushed rows.
+ *
+ * @see TombstonePurger
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = BlogJhipsterApp.class)
+@Transactional
+public class TombstonePurgerIntTest {
+
+    @Autowired
+    private TombstonePurger tombstonePurger;
+
+    @Autowired
+    private BlogService blogService;
+
+    @Autowired
+    private EntryService entryService;
+
+    @Autowired
+    private BlogRepository blogRepository;
+
+    @Autowired
+    private EntryRepository entryRepository;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager em;
+
+    private Entry entry;
+
+    private Entry otherEntry;
+
+    private Blog blog;
+
+    @Before
+    public void init() {
+        Tag tag = TagResourceIntTest.createEntity(em);
+        em.persist(tag);
+        entry = EntryResourceIntTest.createEntity(em);
+        entry.addTag(tag);
+        em.persist(entry);
+        blog = entry.getBlog();
+        otherEntry = EntryResourceIntTest.createEntity(em);
+        otherEntry.setBlog(blog);
+        em.persist(otherEntry);
+        em.flush();
+    }
+
+    @After
+    public void cleanUp() {
+        applicationProperties.getPurge().setMaxPendingConnections(0);
+    }
+
+    @Test
+    public void assertThatDeletedEntryIsHiddenThenPurged() {
+        entryService.delete(entry.getId());
+        em.flush();
+        em.clear();
+
+        assertThat(entryRepository.findById(entry.getId())).isEmpty();
+        assertThat(entryRepository.findAll()).extracting(Entry::getId).doesNotContain(entry.getId()).contains(otherEntry.getId());
+        assertThat(countRows("entry", entry.getId())).isEqualTo(1);
+
+        assertThat(tombstonePurger.purge(Instant.now().plusSeconds(1))).isEqualTo(1);
+
+        assertThat(countRows("entry", entry.getId())).isZero();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from entry_tag where entry_id = ?", Integer.class,
+            entry.getId())).isZero();
+        assertThat(countRows("entry", otherEntry.getId())).isEqualTo(1);
+        assertThat(countRows("blog", blog.getId())).isEqualTo(1);
+    }
+
+    @Test
+    public void assertThatDeletedBlogIsPurgedWithItsEntries() {
+        blogService.delete(blog.getId());
+        em.flush();
+        em.clear();
+
+        assertThat(blogRepository.findById(blog.getId())).isEmpty();
+        assertThat(entryRepository.findById(otherEntry.getId())).isEmpty();
+
+        assertThat(tombstonePurger.purge(Instant.now().plusSeconds(1))).isEqualTo(3);
+
+        assertThat(countRows("entry", entry.getId())).isZero();
+        assertThat(countRows("entry", otherEntry.getId())).isZero();
+        assertThat(countRows("blog", blog.getId())).isZero();
+    }
+
+    @Test
+    public void assertThatRecentlyDeletedRowsAreKept() {
+        blogService.delete(blog.getId());
+        em.flush();
+
+        assertThat(tombstonePurger.purge(Instant.now().minusSeconds(60))).isZero();
+
+        assertThat(countRows("blog", blog.getId())).isEqualTo(1);
+    }
+
+    @Test
+    public void assertThatPurgeStopsWhenDatabaseIsBusy() {
+        blogService.delete(blog.getId());
+        em.flush();
+        applicationProperties.getPurge().setMaxPendingConnections(-1);
+
+        assertThat(tombstonePurger.purge(Instant.now().plusSeconds(1))).isZero();
+
+        assertThat(countRows("entry", entry.getId())).isEqualTo(1);
+        assertThat(countRows("blog", blog.getId())).isEqualTo(1);
+    }
+
+    private int countRows(String table, Long id) {
+        return jdbcTemplate.queryForObject("select count(*) from " + table + " where id = ?", Integer.class, id);
+    }
+}
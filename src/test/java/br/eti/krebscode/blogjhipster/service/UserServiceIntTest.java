@@ -1,19 +1,27 @@
 package br.eti.krebscode.blogjhipster.service;
 
 import br.eti.krebscode.blogjhipster.BlogJhipsterApp;
+import br.eti.krebscode.blogjhipster.config.ApplicationProperties;
 import br.eti.krebscode.blogjhipster.config.Constants;
+import br.eti.krebscode.blogjhipster.domain.Authority;
 import br.eti.krebscode.blogjhipster.domain.User;
+import br.eti.krebscode.blogjhipster.repository.AuthorityRepository;
 import br.eti.krebscode.blogjhipster.repository.UserRepository;
+import br.eti.krebscode.blogjhipster.security.AuthoritiesConstants;
 import br.eti.krebscode.blogjhipster.service.dto.UserDTO;
 import br.eti.krebscode.blogjhipster.service.util.RandomUtil;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.auditing.AuditingHandler;
 import org.springframework.data.auditing.DateTimeProvider;
 import org.springframework.data.domain.Page;
@@ -24,6 +32,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.Optional;
 import java.util.List;
 
@@ -49,6 +58,18 @@ public class UserServiceIntTest {
     @Autowired
     private AuditingHandler auditingHandler;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private AuthorityRepository authorityRepository;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Mock
     DateTimeProvider dateTimeProvider;
 
@@ -70,6 +91,11 @@ public class UserServiceIntTest {
         auditingHandler.setDateTimeProvider(dateTimeProvider);
     }
 
+    @After
+    public void resetChunkSize() {
+        applicationProperties.getNotActivatedUsers().setChunkSize(new ApplicationProperties.NotActivatedUsers().getChunkSize());
+    }
+
     @Test
     @Transactional
     public void assertThatUserMustExistToResetPassword() {
@@ -175,6 +201,66 @@ public class UserServiceIntTest {
     }
 
 
+    @Test
+    @Transactional
+    public void assertThatMissingUsersAreCachedUntilRegistered() {
+        Cache usersByLogin = cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE);
+        Cache missingUsersByLogin = cacheManager.getCache(UserRepository.MISSING_USERS_BY_LOGIN_CACHE);
+        Cache missingUsersByEmail = cacheManager.getCache(UserRepository.MISSING_USERS_BY_EMAIL_CACHE);
+        usersByLogin.clear();
+        missingUsersByLogin.clear();
+        missingUsersByEmail.clear();
+
+        assertThat(userRepository.findOneWithAuthoritiesByLogin(user.getLogin())).isNotPresent();
+        assertThat(userRepository.findOneWithAuthoritiesByEmail(user.getEmail())).isNotPresent();
+        assertThat(missingUsersByLogin.get(user.getLogin())).isNotNull();
+        assertThat(missingUsersByEmail.get(user.getEmail())).isNotNull();
+        assertThat(usersByLogin.get(user.getLogin())).isNull();
+
+        UserDTO userDTO = new UserDTO();
+        userDTO.setLogin(user.getLogin());
+        userDTO.setEmail(user.getEmail());
+        userDTO.setLangKey(user.getLangKey());
+        userService.registerUser(userDTO, "password");
+
+        assertThat(missingUsersByLogin.get(user.getLogin())).isNull();
+        assertThat(missingUsersByEmail.get(user.getEmail())).isNull();
+        assertThat(userRepository.findOneWithAuthoritiesByLogin(user.getLogin())).isPresent();
+        assertThat(userRepository.findOneWithAuthoritiesByEmail(user.getEmail())).isPresent();
+        assertThat(usersByLogin.get(user.getLogin())).isNotNull();
+        assertThat(missingUsersByLogin.get(user.getLogin())).isNull();
+    }
+
+    @Test
+    @Transactional
+    public void assertThatAccountIsCachedUntilUserIsUpdated() {
+        Cache accounts = cacheManager.getCache(UserService.ACCOUNTS_CACHE);
+        accounts.clear();
+        userRepository.saveAndFlush(user);
+
+        Optional<UserDTO> account = userService.getAccount(user.getLogin());
+        assertThat(account).isPresent();
+        assertThat(accounts.get(user.getLogin())).isNotNull();
+        assertThat(userService.getAccount(user.getLogin())).containsSame(account.get());
+
+        UserDTO userDTO = new UserDTO(user);
+        userDTO.setFirstName("jane");
+        userService.updateUser(userDTO);
+
+        assertThat(accounts.get(user.getLogin())).isNull();
+        assertThat(userService.getAccount(user.getLogin()).map(UserDTO::getFirstName)).contains("jane");
+    }
+
+    @Test
+    @Transactional
+    public void assertThatUnknownAccountIsNotCached() {
+        Cache accounts = cacheManager.getCache(UserService.ACCOUNTS_CACHE);
+        accounts.clear();
+
+        assertThat(userService.getAccount(user.getLogin())).isNotPresent();
+        assertThat(accounts.get(user.getLogin())).isNull();
+    }
+
     @Test
     @Transactional
     public void testRemoveNotActivatedUsers() {
@@ -189,4 +275,29 @@ public class UserServiceIntTest {
         assertThat(userRepository.findOneByLogin("johndoe")).isNotPresent();
     }
 
+    @Test
+    @Transactional
+    public void testRemoveNotActivatedUsersByChunks() {
+        applicationProperties.getNotActivatedUsers().setChunkSize(2);
+        when(dateTimeProvider.getNow()).thenReturn(Optional.of(Instant.now().minus(30, ChronoUnit.DAYS)));
+        Authority authority = authorityRepository.findById(AuthoritiesConstants.USER).get();
+        for (int i = 0; i < 5; i++) {
+            User notActivated = new User();
+            notActivated.setLogin("notactivated" + i);
+            notActivated.setPassword(RandomStringUtils.random(60));
+            notActivated.setEmail("notactivated" + i + "@localhost");
+            notActivated.setActivated(false);
+            notActivated.setAuthorities(Collections.singleton(authority));
+            userRepository.saveAndFlush(notActivated);
+        }
+        double removed = meterRegistry.get("users.not.activated.removed").counter().count();
+
+        userService.removeNotActivatedUsers();
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(userRepository.findOneByLogin("notactivated" + i)).isNotPresent();
+        }
+        assertThat(meterRegistry.get("users.not.activated.removed").counter().count()).isEqualTo(removed + 5);
+        assertThat(meterRegistry.get("users.not.activated.chunks").timer().count()).isGreaterThanOrEqualTo(3);
+    }
 }
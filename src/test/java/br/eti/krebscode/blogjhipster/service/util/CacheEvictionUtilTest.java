@@ -0,0 +1,52 @@
+package br.eti.krebscode.blogjhipster.service.util;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the CacheEvictionUtil.
+ *
+ * @see CacheEvictionUtil
+ */
+public class CacheEvictionUtilTest {
+
+    private final Cache cache = new ConcurrentMapCache("test");
+
+    @After
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void testEvictionWithoutTransaction() {
+        cache.put("key", "value");
+
+        CacheEvictionUtil.evictNowAndAfterCommit(() -> cache.evict("key"));
+
+        assertThat(cache.get("key")).isNull();
+    }
+
+    @Test
+    public void testValueCachedBeforeCommitIsEvictedAgain() {
+        TransactionSynchronizationManager.initSynchronization();
+        cache.put("key", "value");
+
+        CacheEvictionUtil.evictNowAndAfterCommit(() -> cache.evict("key"));
+        assertThat(cache.get("key")).isNull();
+
+        // A concurrent read caches the previous state before the commit
+        cache.put("key", "stale");
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+        assertThat(cache.get("key")).isNull();
+    }
+}
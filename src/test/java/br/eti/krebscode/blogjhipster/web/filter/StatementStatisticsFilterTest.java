@@ -0,0 +1,95 @@
+package br.eti.krebscode.blogjhipster.web.filter;
+
+import br.eti.krebscode.blogjhipster.config.datasource.StatementStatistics;
+import br.eti.krebscode.blogjhipster.config.datasource.StatementStatisticsDataSource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the StatementStatisticsFilter.
+ *
+ * @see StatementStatisticsFilter
+ */
+public class StatementStatisticsFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private MockHttpServletRequest request;
+
+    private MockHttpServletResponse response;
+
+    @Before
+    public void setup() {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:statement-statistics-filter;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(new StatementStatisticsDataSource(h2));
+        meterRegistry = new SimpleMeterRegistry();
+        request = new MockHttpServletRequest("GET", "/api/entries/1");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/entries/{id}");
+        response = new MockHttpServletResponse();
+    }
+
+    private FilterChain chainExecuting(int selects) {
+        return (request, response) -> {
+            for (int i = 0; i < selects; i++) {
+                jdbcTemplate.queryForObject("select ?", Integer.class, i);
+            }
+            response.getWriter().write("{}");
+        };
+    }
+
+    @Test
+    public void testStatisticsAreRecordedAsMetrics() throws Exception {
+        new StatementStatisticsFilter(meterRegistry, false, 5).doFilter(request, response, chainExecuting(2));
+
+        assertThat(meterRegistry.get("http.server.requests.sql.statements")
+            .tags("method", "GET", "uri", "/api/entries/{id}").summary().totalAmount()).isEqualTo(2);
+        assertThat(meterRegistry.get("http.server.requests.sql.time")
+            .tags("method", "GET", "uri", "/api/entries/{id}").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.find("http.server.requests.sql.repeated").counter()).isNull();
+        assertThat(response.getHeader(StatementStatisticsFilter.STATEMENT_COUNT_HEADER)).isNull();
+        assertThat(StatementStatistics.current()).isNull();
+    }
+
+    @Test
+    public void testStatisticsAreAddedToTheHeaders() throws Exception {
+        new StatementStatisticsFilter(meterRegistry, true, 5).doFilter(request, response, chainExecuting(2));
+
+        assertThat(response.getHeader(StatementStatisticsFilter.STATEMENT_COUNT_HEADER)).isEqualTo("2");
+        assertThat(response.getHeader(StatementStatisticsFilter.STATEMENT_TIME_HEADER)).isNotNull();
+        assertThat(response.getHeader(StatementStatisticsFilter.SLOWEST_STATEMENT_TIME_HEADER)).isNotNull();
+        assertThat(response.getHeader(StatementStatisticsFilter.REPEATED_SELECTS_HEADER)).isEqualTo("0");
+        assertThat(response.getContentAsString()).isEqualTo("{}");
+    }
+
+    @Test
+    public void testRepeatedSelectsAreReported() throws Exception {
+        new StatementStatisticsFilter(meterRegistry, true, 5).doFilter(request, response, chainExecuting(5));
+
+        assertThat(response.getHeader(StatementStatisticsFilter.REPEATED_SELECTS_HEADER)).isEqualTo("1");
+        assertThat(meterRegistry.get("http.server.requests.sql.repeated")
+            .tags("method", "GET", "uri", "/api/entries/{id}").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void testRequestsWithoutStatementsAreMeasured() throws Exception {
+        request.removeAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+
+        new StatementStatisticsFilter(null, true, 5).doFilter(request, response, chainExecuting(0));
+
+        assertThat(response.getHeader(StatementStatisticsFilter.STATEMENT_COUNT_HEADER)).isEqualTo("0");
+    }
+}
@@ -3,12 +3,18 @@ package br.eti.krebscode.blogjhipster.web.rest;
 import br.eti.krebscode.blogjhipster.BlogJhipsterApp;
 
 import br.eti.krebscode.blogjhipster.domain.Blog;
+import br.eti.krebscode.blogjhipster.domain.Entry;
 import br.eti.krebscode.blogjhipster.domain.User;
 import br.eti.krebscode.blogjhipster.repository.BlogRepository;
+import br.eti.krebscode.blogjhipster.repository.EntryRepository;
+import br.eti.krebscode.blogjhipster.repository.UserRepository;
+import br.eti.krebscode.blogjhipster.service.CacheWarmUpService;
 import br.eti.krebscode.blogjhipster.service.BlogService;
 import br.eti.krebscode.blogjhipster.service.dto.BlogDTO;
 import br.eti.krebscode.blogjhipster.service.mapper.BlogMapper;
 import br.eti.krebscode.blogjhipster.web.rest.errors.ExceptionTranslator;
+import br.eti.krebscode.blogjhipster.web.rest.util.MergePatcher;
+import br.eti.krebscode.blogjhipster.web.rest.util.RenderedResponseCache;
 import br.eti.krebscode.blogjhipster.service.dto.BlogCriteria;
 import br.eti.krebscode.blogjhipster.service.BlogQueryService;
 
@@ -18,7 +24,9 @@ import org.junit.runner.RunWith;
 import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.test.context.junit4.SpringRunner;
@@ -31,9 +39,14 @@ import javax.persistence.EntityManager;
 import java.util.List;
 
 
+import static br.eti.krebscode.blogjhipster.web.rest.TestUtil.assertQueryCount;
 import static br.eti.krebscode.blogjhipster.web.rest.TestUtil.createFormattingConversionService;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasItem;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -55,6 +68,12 @@ public class BlogResourceIntTest {
     @Autowired
     private BlogRepository blogRepository;
 
+    @Autowired
+    private EntryRepository entryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
     @Autowired
     private BlogMapper blogMapper;
 
@@ -64,6 +83,12 @@ public class BlogResourceIntTest {
     @Autowired
     private BlogQueryService blogQueryService;
 
+    @Autowired
+    private RenderedResponseCache renderedResponseCache;
+
+    @Autowired
+    private CacheWarmUpService cacheWarmUpService;
+
     @Autowired
     private MappingJackson2HttpMessageConverter jacksonMessageConverter;
 
@@ -73,6 +98,12 @@ public class BlogResourceIntTest {
     @Autowired
     private ExceptionTranslator exceptionTranslator;
 
+    @Autowired
+    private MergePatcher mergePatcher;
+
+    @Autowired
+    private CacheManager cacheManager;
+
     @Autowired
     private EntityManager em;
 
@@ -86,7 +117,9 @@ public class BlogResourceIntTest {
     @Before
     public void setup() {
         MockitoAnnotations.initMocks(this);
-        final BlogResource blogResource = new BlogResource(blogService, blogQueryService);
+        cacheManager.getCache(BlogRepository.BLOG_IDS_BY_HANDLE_CACHE).clear();
+        final BlogResource blogResource = new BlogResource(blogService, blogQueryService, renderedResponseCache, cacheWarmUpService,
+            mergePatcher);
         this.restBlogMockMvc = MockMvcBuilders.standaloneSetup(blogResource)
             .setCustomArgumentResolvers(pageableArgumentResolver)
             .setControllerAdvice(exceptionTranslator)
@@ -158,6 +191,55 @@ public class BlogResourceIntTest {
         assertThat(blogList).hasSize(databaseSizeBeforeCreate);
     }
 
+    @Test
+    @Transactional
+    public void createBlogWithExistingHandle() throws Exception {
+        // Initialize the database
+        blogRepository.saveAndFlush(blog);
+        int databaseSizeBeforeCreate = blogRepository.findAll().size();
+
+        // Create another Blog with the same handle
+        Blog other = createEntity(em);
+        BlogDTO blogDTO = blogMapper.toDto(other);
+
+        restBlogMockMvc.perform(post("/api/blogs")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(blogDTO)))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.handleexists"));
+
+        // Validate the Blog in the database
+        List<Blog> blogList = blogRepository.findAll();
+        assertThat(blogList).hasSize(databaseSizeBeforeCreate);
+    }
+
+    @Test
+    @Transactional
+    public void createBlogWithHandleTakenAfterTheCheck() throws Exception {
+        // Initialize the database
+        blogRepository.saveAndFlush(blog);
+
+        // The check doesn't see the blog, as if it had been inserted concurrently
+        BlogRepository racingBlogRepository = mock(BlogRepository.class, delegatesTo(blogRepository));
+        doReturn(0L).when(racingBlogRepository).countByHandleIncludingDeleted(any());
+        BlogService racingBlogService = new BlogService(racingBlogRepository, entryRepository, userRepository,
+            blogMapper, cacheManager);
+        MockMvc racingBlogMockMvc = MockMvcBuilders.standaloneSetup(new BlogResource(racingBlogService,
+            blogQueryService, renderedResponseCache, cacheWarmUpService, mergePatcher))
+            .setControllerAdvice(exceptionTranslator)
+            .setMessageConverters(jacksonMessageConverter)
+            .setValidator(validator).build();
+
+        // Create another Blog with the same handle
+        BlogDTO blogDTO = blogMapper.toDto(createEntity(em));
+
+        racingBlogMockMvc.perform(post("/api/blogs")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(blogDTO)))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.handleexists"));
+    }
+
     @Test
     @Transactional
     public void checkNameIsRequired() throws Exception {
@@ -218,12 +300,12 @@ public class BlogResourceIntTest {
         blogRepository.saveAndFlush(blog);
 
         // Get the blog
-        restBlogMockMvc.perform(get("/api/blogs/{id}", blog.getId()))
+        assertQueryCount(1, () -> restBlogMockMvc.perform(get("/api/blogs/{id}", blog.getId()))
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
             .andExpect(jsonPath("$.id").value(blog.getId().intValue()))
             .andExpect(jsonPath("$.name").value(DEFAULT_NAME.toString()))
-            .andExpect(jsonPath("$.handle").value(DEFAULT_HANDLE.toString()));
+            .andExpect(jsonPath("$.handle").value(DEFAULT_HANDLE.toString())));
     }
 
     @Test
@@ -366,6 +448,104 @@ public class BlogResourceIntTest {
             .andExpect(status().isNotFound());
     }
 
+    @Test
+    @Transactional
+    public void getBlogByHandle() throws Exception {
+        // Initialize the database
+        blogRepository.saveAndFlush(blog);
+
+        // Get the blog
+        restBlogMockMvc.perform(get("/api/blogs/by-handle/{handle}", DEFAULT_HANDLE))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+            .andExpect(jsonPath("$.id").value(blog.getId().intValue()))
+            .andExpect(jsonPath("$.name").value(DEFAULT_NAME))
+            .andExpect(jsonPath("$.handle").value(DEFAULT_HANDLE));
+
+        // The id and the response are then cached
+        assertQueryCount(0, () -> restBlogMockMvc.perform(get("/api/blogs/by-handle/{handle}", DEFAULT_HANDLE))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(blog.getId().intValue())));
+    }
+
+    @Test
+    @Transactional
+    public void getNonExistingBlogByHandle() throws Exception {
+        // Get the blog
+        restBlogMockMvc.perform(get("/api/blogs/by-handle/{handle}", UPDATED_HANDLE))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    public void getBlogByHandleIsEvictedOnHandleChange() throws Exception {
+        // Initialize the database
+        blogRepository.saveAndFlush(blog);
+
+        // Get the blog once, so that its id is cached
+        restBlogMockMvc.perform(get("/api/blogs/by-handle/{handle}", DEFAULT_HANDLE))
+            .andExpect(status().isOk());
+
+        restBlogMockMvc.perform(patch("/api/blogs/{id}", blog.getId())
+            .contentType(MergePatcher.APPLICATION_MERGE_PATCH_JSON_VALUE)
+            .content("{\"version\": " + blog.getVersion() + ", \"handle\": \"" + UPDATED_HANDLE + "\"}"))
+            .andExpect(status().isOk());
+
+        restBlogMockMvc.perform(get("/api/blogs/by-handle/{handle}", DEFAULT_HANDLE))
+            .andExpect(status().isNotFound());
+        restBlogMockMvc.perform(get("/api/blogs/by-handle/{handle}", UPDATED_HANDLE))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(blog.getId().intValue()))
+            .andExpect(jsonPath("$.handle").value(UPDATED_HANDLE));
+    }
+
+    @Test
+    @Transactional
+    public void getBlogIsEvictedFromResponseCacheOnUpdate() throws Exception {
+        // Initialize the database
+        BlogDTO blogDTO = blogService.save(blogMapper.toDto(blog));
+
+        // Render the blog once, so that it is cached
+        restBlogMockMvc.perform(get("/api/blogs/{id}", blogDTO.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.name").value(DEFAULT_NAME));
+
+        blogDTO.setName(UPDATED_NAME);
+        blogService.save(blogDTO);
+
+        restBlogMockMvc.perform(get("/api/blogs/{id}", blogDTO.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.name").value(UPDATED_NAME));
+    }
+
+    @Test
+    @Transactional
+    public void getBlogNotModified() throws Exception {
+        // Initialize the database
+        blogRepository.saveAndFlush(blog);
+
+        String eTag = restBlogMockMvc.perform(get("/api/blogs/{id}", blog.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).isNotNull();
+
+        restBlogMockMvc.perform(get("/api/blogs/{id}", blog.getId())
+            .header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+
+        // A new version is sent once the blog changes
+        BlogDTO blogDTO = blogMapper.toDto(blog);
+        blogDTO.setName(UPDATED_NAME);
+        blogService.save(blogDTO);
+
+        restBlogMockMvc.perform(get("/api/blogs/{id}", blog.getId())
+            .header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.name").value(UPDATED_NAME));
+    }
+
     @Test
     @Transactional
     public void updateBlog() throws Exception {
@@ -396,6 +576,57 @@ public class BlogResourceIntTest {
         assertThat(testBlog.getHandle()).isEqualTo(UPDATED_HANDLE);
     }
 
+    @Test
+    @Transactional
+    public void updateBlogUpdatesItsEntries() throws Exception {
+        // Initialize the database
+        blogRepository.saveAndFlush(blog);
+        Entry entry = entryRepository.saveAndFlush(EntryResourceIntTest.createEntity(em).blog(blog));
+        em.detach(blog);
+
+        // Rename the blog
+        BlogDTO blogDTO = blogMapper.toDto(blogRepository.findById(blog.getId()).get());
+        blogDTO.setName(UPDATED_NAME);
+        blogDTO.setHandle(UPDATED_HANDLE);
+        restBlogMockMvc.perform(put("/api/blogs")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(blogDTO)))
+            .andExpect(status().isOk());
+
+        // Validate the copies of the blog name and handle on its entries
+        em.flush();
+        em.clear();
+        Entry testEntry = entryRepository.findById(entry.getId()).get();
+        assertThat(testEntry.getBlogName()).isEqualTo(UPDATED_NAME);
+        assertThat(testEntry.getBlogHandle()).isEqualTo(UPDATED_HANDLE);
+        assertThat(testEntry.getVersion()).isEqualTo(entry.getVersion());
+    }
+
+    @Test
+    @Transactional
+    public void partialUpdateBlog() throws Exception {
+        // Initialize the database
+        blogRepository.saveAndFlush(blog);
+        Entry entry = entryRepository.saveAndFlush(EntryResourceIntTest.createEntity(em).blog(blog));
+        em.clear();
+
+        restBlogMockMvc.perform(patch("/api/blogs/{id}", blog.getId())
+            .contentType(MergePatcher.APPLICATION_MERGE_PATCH_JSON_VALUE)
+            .content("{\"version\": " + blog.getVersion() + ", \"name\": \"" + UPDATED_NAME + "\"}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.name").value(UPDATED_NAME))
+            .andExpect(jsonPath("$.handle").value(DEFAULT_HANDLE))
+            .andExpect(jsonPath("$.userId").value(blog.getUser().getId().intValue()));
+
+        // Validate the Blog in the database, and the copy of its name on its entries
+        em.flush();
+        em.clear();
+        Blog testBlog = blogRepository.findById(blog.getId()).get();
+        assertThat(testBlog.getName()).isEqualTo(UPDATED_NAME);
+        assertThat(testBlog.getHandle()).isEqualTo(DEFAULT_HANDLE);
+        assertThat(entryRepository.findById(entry.getId()).get().getBlogName()).isEqualTo(UPDATED_NAME);
+    }
+
     @Test
     @Transactional
     public void updateNonExistingBlog() throws Exception {
@@ -431,6 +662,8 @@ public class BlogResourceIntTest {
         // Validate the database is empty
         List<Blog> blogList = blogRepository.findAll();
         assertThat(blogList).hasSize(databaseSizeBeforeDelete - 1);
+        restBlogMockMvc.perform(get("/api/blogs/by-handle/{handle}", DEFAULT_HANDLE))
+            .andExpect(status().isNotFound());
     }
 
     @Test
@@ -2,17 +2,27 @@ package br.eti.krebscode.blogjhipster.web.rest;
 
 import br.eti.krebscode.blogjhipster.BlogJhipsterApp;
 
+import br.eti.krebscode.blogjhipster.config.ApplicationProperties;
 import br.eti.krebscode.blogjhipster.domain.Entry;
 import br.eti.krebscode.blogjhipster.domain.Blog;
 import br.eti.krebscode.blogjhipster.domain.Tag;
 import br.eti.krebscode.blogjhipster.repository.EntryRepository;
+import br.eti.krebscode.blogjhipster.service.CacheWarmUpService;
+import br.eti.krebscode.blogjhipster.service.EntryImportService;
 import br.eti.krebscode.blogjhipster.service.EntryService;
+import br.eti.krebscode.blogjhipster.service.TagService;
 import br.eti.krebscode.blogjhipster.service.dto.EntryDTO;
+import br.eti.krebscode.blogjhipster.service.dto.TagDTO;
 import br.eti.krebscode.blogjhipster.service.mapper.EntryMapper;
+import br.eti.krebscode.blogjhipster.service.mapper.TagMapper;
 import br.eti.krebscode.blogjhipster.web.rest.errors.ExceptionTranslator;
+import br.eti.krebscode.blogjhipster.web.rest.util.MergePatcher;
+import br.eti.krebscode.blogjhipster.web.rest.util.RenderedResponseCache;
 import br.eti.krebscode.blogjhipster.service.dto.EntryCriteria;
 import br.eti.krebscode.blogjhipster.service.EntryQueryService;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -20,9 +30,11 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.test.context.junit4.SpringRunner;
@@ -30,21 +42,31 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.Base64Utils;
+import org.springframework.util.StreamUtils;
 import org.springframework.validation.Validator;
 
 import javax.persistence.EntityManager;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.ZonedDateTime;
 import java.time.ZoneOffset;
 import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.zip.GZIPInputStream;
 
 
+import static br.eti.krebscode.blogjhipster.web.rest.TestUtil.assertQueryCount;
 import static br.eti.krebscode.blogjhipster.web.rest.TestUtil.sameInstant;
 import static br.eti.krebscode.blogjhipster.web.rest.TestUtil.createFormattingConversionService;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.endsWith;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -85,6 +107,30 @@ public class EntryResourceIntTest {
     @Autowired
     private EntryQueryService entryQueryService;
 
+    @Autowired
+    private RenderedResponseCache renderedResponseCache;
+
+    @Autowired
+    private TagService tagService;
+
+    @Autowired
+    private TagMapper tagMapper;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private CacheWarmUpService cacheWarmUpService;
+
+    @Autowired
+    private EntryImportService entryImportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
     @Autowired
     private MappingJackson2HttpMessageConverter jacksonMessageConverter;
 
@@ -94,6 +140,9 @@ public class EntryResourceIntTest {
     @Autowired
     private ExceptionTranslator exceptionTranslator;
 
+    @Autowired
+    private MergePatcher mergePatcher;
+
     @Autowired
     private EntityManager em;
 
@@ -107,7 +156,8 @@ public class EntryResourceIntTest {
     @Before
     public void setup() {
         MockitoAnnotations.initMocks(this);
-        final EntryResource entryResource = new EntryResource(entryService, entryQueryService);
+        final EntryResource entryResource = new EntryResource(entryService, entryQueryService, renderedResponseCache, cacheWarmUpService,
+            entryImportService, objectMapper, mergePatcher);
         this.restEntryMockMvc = MockMvcBuilders.standaloneSetup(entryResource)
             .setCustomArgumentResolvers(pageableArgumentResolver)
             .setControllerAdvice(exceptionTranslator)
@@ -127,8 +177,9 @@ public class EntryResourceIntTest {
             .title(DEFAULT_TITLE)
             .content(DEFAULT_CONTENT)
             .date(DEFAULT_DATE);
-        // Add required entity
+        // Add required entity, with a handle of its own as they are unique
         Blog blog = BlogResourceIntTest.createEntity(em);
+        blog.setHandle(blog.getHandle() + RandomStringUtils.randomAlphabetic(5));
         em.persist(blog);
         em.flush();
         entry.setBlog(blog);
@@ -181,6 +232,44 @@ public class EntryResourceIntTest {
         assertThat(entryList).hasSize(databaseSizeBeforeCreate);
     }
 
+    @Test
+    @Transactional
+    public void importEntries() throws Exception {
+        int databaseSizeBeforeImport = entryRepository.findAll().size();
+
+        EntryDTO entryDTO = entryMapper.toDto(entry);
+        EntryDTO unknownBlogDTO = entryMapper.toDto(entry);
+        unknownBlogDTO.setBlogId(Long.MAX_VALUE);
+        EntryDTO existingIdDTO = entryMapper.toDto(entry);
+        existingIdDTO.setId(1L);
+        String body = new String(TestUtil.convertObjectToJsonBytes(entryDTO), StandardCharsets.UTF_8) + "\n" +
+            "{\"title\":\n" +
+            "\n" +
+            "{\"content\":\"" + DEFAULT_CONTENT + "\"}\n" +
+            new String(TestUtil.convertObjectToJsonBytes(unknownBlogDTO), StandardCharsets.UTF_8) + "\n" +
+            new String(TestUtil.convertObjectToJsonBytes(existingIdDTO), StandardCharsets.UTF_8) + "\n";
+
+        restEntryMockMvc.perform(post("/api/entries/import")
+            .contentType(EntryResource.APPLICATION_NDJSON_VALUE)
+            .content(body))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(EntryResource.APPLICATION_NDJSON_VALUE))
+            .andExpect(content().string(
+                "{\"line\":2,\"error\":\"Invalid JSON: Unexpected end-of-input within/between Object entries\"}\n" +
+                "{\"line\":4,\"error\":\"date: must not be null, title: must not be null\"}\n" +
+                "{\"line\":5,\"error\":\"Unknown blog " + Long.MAX_VALUE + "\"}\n" +
+                "{\"line\":6,\"error\":\"A new entry cannot already have an ID\"}\n" +
+                "{\"lines\":6,\"imported\":1,\"failed\":4,\"done\":true}\n"));
+
+        // Validate the Entry in the database
+        List<Entry> entryList = entryRepository.findAll();
+        assertThat(entryList).hasSize(databaseSizeBeforeImport + 1);
+        Entry testEntry = entryList.get(entryList.size() - 1);
+        assertThat(testEntry.getTitle()).isEqualTo(DEFAULT_TITLE);
+        assertThat(testEntry.getContent()).isEqualTo(DEFAULT_CONTENT);
+        assertThat(testEntry.getDate()).isEqualTo(DEFAULT_DATE);
+    }
+
     @Test
     @Transactional
     public void checkTitleIsRequired() throws Exception {
@@ -234,10 +323,34 @@ public class EntryResourceIntTest {
             .andExpect(jsonPath("$.[*].content").value(hasItem(DEFAULT_CONTENT.toString())))
             .andExpect(jsonPath("$.[*].date").value(hasItem(sameInstant(DEFAULT_DATE))));
     }
+
+    @Test
+    @Transactional
+    public void getAllEntriesWithoutQueryPerEntry() throws Exception {
+        // Initialize the database with entries of several blogs and tags
+        Entry other = null;
+        for (int i = 0; i < 5; i++) {
+            Tag tag = TagResourceIntTest.createEntity(em);
+            em.persist(tag);
+            other = createEntity(em).addTag(tag);
+            em.persist(other);
+        }
+        String otherBlogHandle = other.getBlogHandle();
+        em.flush();
+        em.clear();
+
+        // One query for the page and one for the tags, whatever the number of entries: the blogs aren't read
+        assertQueryCount(2, () -> restEntryMockMvc.perform(get("/api/entries?sort=id,desc"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].blogName").value(hasItem(entry.getBlogName())))
+            .andExpect(jsonPath("$.[*].blogHandle").value(hasItem(otherBlogHandle)))
+            .andExpect(jsonPath("$.[*].tags[*].id", hasSize(5))));
+    }
     
     @SuppressWarnings({"unchecked"})
     public void getAllEntriesWithEagerRelationshipsIsEnabled() throws Exception {
-        EntryResource entryResource = new EntryResource(entryServiceMock, entryQueryService);
+        EntryResource entryResource = new EntryResource(entryServiceMock, entryQueryService, renderedResponseCache, cacheWarmUpService,
+            entryImportService, objectMapper, mergePatcher);
         when(entryServiceMock.findAllWithEagerRelationships(any())).thenReturn(new PageImpl(new ArrayList<>()));
 
         MockMvc restEntryMockMvc = MockMvcBuilders.standaloneSetup(entryResource)
@@ -254,7 +367,8 @@ public class EntryResourceIntTest {
 
     @SuppressWarnings({"unchecked"})
     public void getAllEntriesWithEagerRelationshipsIsNotEnabled() throws Exception {
-        EntryResource entryResource = new EntryResource(entryServiceMock, entryQueryService);
+        EntryResource entryResource = new EntryResource(entryServiceMock, entryQueryService, renderedResponseCache, cacheWarmUpService,
+            entryImportService, objectMapper, mergePatcher);
             when(entryServiceMock.findAllWithEagerRelationships(any())).thenReturn(new PageImpl(new ArrayList<>()));
             MockMvc restEntryMockMvc = MockMvcBuilders.standaloneSetup(entryResource)
             .setCustomArgumentResolvers(pageableArgumentResolver)
@@ -275,13 +389,13 @@ public class EntryResourceIntTest {
         entryRepository.saveAndFlush(entry);
 
         // Get the entry
-        restEntryMockMvc.perform(get("/api/entries/{id}", entry.getId()))
+        assertQueryCount(2, () -> restEntryMockMvc.perform(get("/api/entries/{id}", entry.getId()))
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
             .andExpect(jsonPath("$.id").value(entry.getId().intValue()))
             .andExpect(jsonPath("$.title").value(DEFAULT_TITLE.toString()))
             .andExpect(jsonPath("$.content").value(DEFAULT_CONTENT.toString()))
-            .andExpect(jsonPath("$.date").value(sameInstant(DEFAULT_DATE)));
+            .andExpect(jsonPath("$.date").value(sameInstant(DEFAULT_DATE))));
     }
 
     @Test
@@ -426,6 +540,99 @@ public class EntryResourceIntTest {
         defaultEntryShouldNotBeFound("tagId.equals=" + (tagId + 1));
     }
 
+    @Test
+    @Transactional
+    public void exportEntries() throws Exception {
+        // Initialize the database
+        Tag tag = TagResourceIntTest.createEntity(em);
+        em.persist(tag);
+        entry.addTag(tag);
+        entryRepository.saveAndFlush(entry);
+        Entry other = createEntity(em);
+        entryRepository.saveAndFlush(other);
+
+        // Export the entries of the blog of the entry, one per line
+        String lines = restEntryMockMvc.perform(get("/api/entries/export?blogId.equals=" + entry.getBlog().getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(EntryResource.APPLICATION_NDJSON_VALUE))
+            .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"entries.ndjson\""))
+            .andReturn().getResponse().getContentAsString();
+
+        assertThat(lines).endsWith("\n");
+        String[] entries = lines.split("\n");
+        assertThat(entries).hasSize(1);
+        EntryDTO exported = objectMapper.readValue(entries[0], EntryDTO.class);
+        assertThat(exported.getId()).isEqualTo(entry.getId());
+        assertThat(exported.getTitle()).isEqualTo(DEFAULT_TITLE);
+        assertThat(exported.getContent()).isEqualTo(DEFAULT_CONTENT);
+        assertThat(exported.getDate()).isEqualTo(DEFAULT_DATE.withZoneSameInstant(exported.getDate().getZone()));
+        assertThat(exported.getBlogId()).isEqualTo(entry.getBlog().getId());
+        assertThat(exported.getTags()).extracting(TagDTO::getId).containsExactly(tag.getId());
+    }
+
+    @Test
+    @Transactional
+    public void exportEntriesWithTheirTagsAcrossFetches() throws Exception {
+        // Initialize the database: more entries than rows fetched at a time, each with several tags
+        List<Tag> tags = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Tag tag = TagResourceIntTest.createEntity(em);
+            em.persist(tag);
+            tags.add(tag);
+        }
+        for (int i = 0; i < 5; i++) {
+            Entry other = createEntity(em);
+            other.setBlog(entry.getBlog());
+            tags.forEach(other::addTag);
+            entryRepository.save(other);
+        }
+        em.flush();
+        em.clear();
+
+        int fetchSize = applicationProperties.getEntryExport().getFetchSize();
+        applicationProperties.getEntryExport().setFetchSize(2);
+        try {
+            String lines = restEntryMockMvc.perform(get("/api/entries/export?blogId.equals=" + entry.getBlog().getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+            String[] entries = lines.split("\n");
+            assertThat(entries).hasSize(5);
+            for (String line : entries) {
+                assertThat(objectMapper.readValue(line, EntryDTO.class).getTags()).extracting(TagDTO::getId)
+                    .containsExactlyInAnyOrder(tags.stream().map(Tag::getId).toArray(Long[]::new));
+            }
+        } finally {
+            applicationProperties.getEntryExport().setFetchSize(fetchSize);
+        }
+    }
+
+    @Test
+    @Transactional
+    public void exportEntriesAsCsv() throws Exception {
+        // Initialize the database
+        entry.setTitle("A \"quoted\", title");
+        entryRepository.saveAndFlush(entry);
+
+        restEntryMockMvc.perform(get("/api/entries/export?format=csv&id.equals=" + entry.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(EntryResource.TEXT_CSV_VALUE))
+            .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"entries.csv\""))
+            .andExpect(content().string(startsWith(
+                "id,title,content,date,blog_id,blog_name,tags,version,last_modified_date\r\n" +
+                entry.getId() + ",\"A \"\"quoted\"\", title\"," + DEFAULT_CONTENT + "," + DEFAULT_DATE + "," +
+                entry.getBlog().getId() + "," + entry.getBlog().getName() + ",," + entry.getVersion() + ",")))
+            .andExpect(content().string(endsWith("\r\n")));
+    }
+
+    @Test
+    @Transactional
+    public void exportNoEntries() throws Exception {
+        restEntryMockMvc.perform(get("/api/entries/export?id.equals=" + Long.MAX_VALUE))
+            .andExpect(status().isOk())
+            .andExpect(content().string(""));
+    }
+
     /**
      * Executes the search, and checks that the default entity is returned
      */
@@ -471,6 +678,100 @@ public class EntryResourceIntTest {
             .andExpect(status().isNotFound());
     }
 
+    @Test
+    @Transactional
+    public void getEntryIsEvictedFromResponseCacheOnUpdate() throws Exception {
+        // Initialize the database
+        EntryDTO entryDTO = entryService.save(entryMapper.toDto(entry));
+
+        // Render the entry once, so that it is cached
+        restEntryMockMvc.perform(get("/api/entries/{id}", entryDTO.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.title").value(DEFAULT_TITLE));
+
+        entryDTO.setTitle(UPDATED_TITLE);
+        entryService.save(entryDTO);
+
+        restEntryMockMvc.perform(get("/api/entries/{id}", entryDTO.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.title").value(UPDATED_TITLE));
+    }
+
+    @Test
+    @Transactional
+    public void getEntryGzipped() throws Exception {
+        // Initialize the database with an entry big enough to be compressed
+        entry.setContent(new String(new char[4096]).replace('\0', 'A'));
+        entryRepository.saveAndFlush(entry);
+
+        byte[] json = restEntryMockMvc.perform(get("/api/entries/{id}", entry.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+            .andReturn().getResponse().getContentAsByteArray();
+
+        byte[] gzipped = restEntryMockMvc.perform(get("/api/entries/{id}", entry.getId())
+            .header(HttpHeaders.ACCEPT_ENCODING, "deflate, gzip;q=0.8"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+            .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+            .andReturn().getResponse().getContentAsByteArray();
+
+        assertThat(gzipped.length).isLessThan(json.length);
+        byte[] unzipped = StreamUtils.copyToByteArray(new GZIPInputStream(new ByteArrayInputStream(gzipped)));
+        assertThat(new String(unzipped, StandardCharsets.UTF_8)).isEqualTo(new String(json, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @Transactional
+    public void getEntryNotModified() throws Exception {
+        // Initialize the database
+        entryRepository.saveAndFlush(entry);
+
+        String eTag = restEntryMockMvc.perform(get("/api/entries/{id}", entry.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).isNotNull();
+
+        // Answered from the response cache
+        restEntryMockMvc.perform(get("/api/entries/{id}", entry.getId())
+            .header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+
+        // Answered from the version of the entry, without loading it
+        Objects.requireNonNull(cacheManager.getCache(EntryService.ENTRY_RESPONSES_CACHE)).clear();
+        restEntryMockMvc.perform(get("/api/entries/{id}", entry.getId())
+            .header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, eTag));
+        assertThat(Objects.requireNonNull(cacheManager.getCache(EntryService.ENTRY_RESPONSES_CACHE)).get(entry.getId())).isNull();
+    }
+
+    @Test
+    @Transactional
+    public void getEntryIsModifiedWhenItsTagChanges() throws Exception {
+        // Initialize the database
+        Tag tag = TagResourceIntTest.createEntity(em);
+        em.persist(tag);
+        entry.addTag(tag);
+        entryRepository.saveAndFlush(entry);
+
+        String eTag = restEntryMockMvc.perform(get("/api/entries/{id}", entry.getId()))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        TagDTO tagDTO = tagMapper.toDto(tag);
+        tagDTO.setName("updated");
+        tagService.save(tagDTO);
+
+        restEntryMockMvc.perform(get("/api/entries/{id}", entry.getId())
+            .header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, not(eTag)))
+            .andExpect(jsonPath("$.tags[0].name").value("updated"));
+    }
+
     @Test
     @Transactional
     public void updateEntry() throws Exception {
@@ -503,6 +804,169 @@ public class EntryResourceIntTest {
         assertThat(testEntry.getDate()).isEqualTo(UPDATED_DATE);
     }
 
+    @Test
+    @Transactional
+    public void updateEntryWithStaleVersion() throws Exception {
+        // Initialize the database
+        entryRepository.saveAndFlush(entry);
+        EntryDTO staleEntryDTO = entryMapper.toDto(entry);
+
+        // Update the entry concurrently
+        entry.setTitle(UPDATED_TITLE);
+        entryRepository.saveAndFlush(entry);
+
+        staleEntryDTO.setContent(UPDATED_CONTENT);
+        restEntryMockMvc.perform(put("/api/entries")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(staleEntryDTO)))
+            .andExpect(status().isConflict());
+    }
+
+    @Test
+    @Transactional
+    public void updateEntryWithoutVersion() throws Exception {
+        // Initialize the database
+        entryRepository.saveAndFlush(entry);
+        EntryDTO entryDTO = entryMapper.toDto(entry);
+        entryDTO.setVersion(null);
+
+        restEntryMockMvc.perform(put("/api/entries")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(entryDTO)))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    public void updateEntryTagsByDiff() throws Exception {
+        // Initialize the database
+        Tag kept = TagResourceIntTest.createEntity(em);
+        Tag removed = TagResourceIntTest.createEntity(em);
+        Tag added = TagResourceIntTest.createEntity(em);
+        em.persist(kept);
+        em.persist(removed);
+        em.persist(added);
+        entry.addTag(kept).addTag(removed);
+        entryRepository.saveAndFlush(entry);
+        EntryDTO entryDTO = entryMapper.toDto(entry);
+        entryDTO.getTags().removeIf(tag -> tag.getId().equals(removed.getId()));
+        entryDTO.getTags().add(tagMapper.toDto(added));
+        entryDTO.setTitle(UPDATED_TITLE);
+        em.clear();
+
+        // The entry, its tags and the added tag are read; only the title of the entry and the changed rows of
+        // entry_tag are written
+        assertQueryCount(6, () -> restEntryMockMvc.perform(put("/api/entries")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(entryDTO)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.title").value(UPDATED_TITLE))
+            .andExpect(jsonPath("$.version").value(entryDTO.getVersion().intValue() + 1))
+            .andExpect(jsonPath("$.tags[*].id", hasSize(2))));
+
+        em.clear();
+        Entry testEntry = entryRepository.findOneWithEagerRelationships(entry.getId()).get();
+        assertThat(testEntry.getTitle()).isEqualTo(UPDATED_TITLE);
+        assertThat(testEntry.getContent()).isEqualTo(DEFAULT_CONTENT);
+        assertThat(testEntry.getTags()).extracting(Tag::getId).containsOnly(kept.getId(), added.getId());
+    }
+
+    @Test
+    @Transactional
+    public void updateMissingEntry() throws Exception {
+        EntryDTO entryDTO = entryMapper.toDto(entry);
+        entryDTO.setId(Long.MAX_VALUE);
+        entryDTO.setVersion(0L);
+
+        restEntryMockMvc.perform(put("/api/entries")
+            .contentType(TestUtil.APPLICATION_JSON_UTF8)
+            .content(TestUtil.convertObjectToJsonBytes(entryDTO)))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    public void partialUpdateEntry() throws Exception {
+        // Initialize the database
+        Tag tag = TagResourceIntTest.createEntity(em);
+        em.persist(tag);
+        entry.addTag(tag);
+        entryRepository.saveAndFlush(entry);
+        long version = entry.getVersion();
+        em.clear();
+
+        restEntryMockMvc.perform(patch("/api/entries/{id}", entry.getId())
+            .contentType(MergePatcher.APPLICATION_MERGE_PATCH_JSON_VALUE)
+            .content("{\"version\": " + version + ", \"title\": \"" + UPDATED_TITLE + "\"}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.title").value(UPDATED_TITLE))
+            .andExpect(jsonPath("$.content").value(DEFAULT_CONTENT))
+            .andExpect(jsonPath("$.version").value((int) version + 1))
+            .andExpect(jsonPath("$.tags[*].id").value(hasItem(tag.getId().intValue())));
+
+        // Validate the Entry in the database
+        em.clear();
+        Entry testEntry = entryRepository.findOneWithEagerRelationships(entry.getId()).get();
+        assertThat(testEntry.getTitle()).isEqualTo(UPDATED_TITLE);
+        assertThat(testEntry.getContent()).isEqualTo(DEFAULT_CONTENT);
+        assertThat(testEntry.getDate()).isEqualTo(DEFAULT_DATE);
+        assertThat(testEntry.getTags()).extracting(Tag::getId).containsOnly(tag.getId());
+    }
+
+    @Test
+    @Transactional
+    public void partialUpdateEntryWithStaleVersion() throws Exception {
+        // Initialize the database
+        entryRepository.saveAndFlush(entry);
+        long staleVersion = entry.getVersion();
+
+        // Update the entry concurrently
+        entry.setTitle(UPDATED_TITLE);
+        entryRepository.saveAndFlush(entry);
+
+        restEntryMockMvc.perform(patch("/api/entries/{id}", entry.getId())
+            .contentType(MergePatcher.APPLICATION_MERGE_PATCH_JSON_VALUE)
+            .content("{\"version\": " + staleVersion + ", \"content\": \"" + UPDATED_CONTENT + "\"}"))
+            .andExpect(status().isConflict());
+    }
+
+    @Test
+    @Transactional
+    public void partialUpdateEntryWithInvalidPatch() throws Exception {
+        // Initialize the database
+        entryRepository.saveAndFlush(entry);
+
+        // Without the version
+        restEntryMockMvc.perform(patch("/api/entries/{id}", entry.getId())
+            .contentType(MergePatcher.APPLICATION_MERGE_PATCH_JSON_VALUE)
+            .content("{\"title\": \"" + UPDATED_TITLE + "\"}"))
+            .andExpect(status().isBadRequest());
+
+        // Changing the id
+        restEntryMockMvc.perform(patch("/api/entries/{id}", entry.getId())
+            .contentType(MergePatcher.APPLICATION_MERGE_PATCH_JSON_VALUE)
+            .content("{\"version\": " + entry.getVersion() + ", \"id\": " + Long.MAX_VALUE + "}"))
+            .andExpect(status().isBadRequest());
+
+        // Removing a required field
+        restEntryMockMvc.perform(patch("/api/entries/{id}", entry.getId())
+            .contentType(MergePatcher.APPLICATION_MERGE_PATCH_JSON_VALUE)
+            .content("{\"version\": " + entry.getVersion() + ", \"title\": null}"))
+            .andExpect(status().isBadRequest());
+
+        em.clear();
+        assertThat(entryRepository.findById(entry.getId()).get().getTitle()).isEqualTo(DEFAULT_TITLE);
+    }
+
+    @Test
+    @Transactional
+    public void partialUpdateMissingEntry() throws Exception {
+        restEntryMockMvc.perform(patch("/api/entries/{id}", Long.MAX_VALUE)
+            .contentType(MergePatcher.APPLICATION_MERGE_PATCH_JSON_VALUE)
+            .content("{\"version\": 0, \"title\": \"" + UPDATED_TITLE + "\"}"))
+            .andExpect(status().isNotFound());
+    }
+
     @Test
     @Transactional
     public void updateNonExistingEntry() throws Exception {
@@ -0,0 +1,79 @@
+package br.eti.krebscode.blogjhipster.web.rest;
+
+import br.eti.krebscode.blogjhipster.BlogJhipsterApp;
+import br.eti.krebscode.blogjhipster.config.datasource.SlowQueryLog;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Collections;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Test class for the SlowQueriesResource REST controller.
+ *
+ * @see SlowQueriesResource
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = BlogJhipsterApp.class)
+public class SlowQueriesResourceIntTest {
+
+    @Autowired
+    private MappingJackson2HttpMessageConverter jacksonMessageConverter;
+
+    private SlowQueryLog slowQueryLog;
+
+    private MockMvc restSlowQueriesMockMvc;
+
+    @Before
+    public void setup() {
+        slowQueryLog = new SlowQueryLog(0, 10, 100, Collections.emptyList());
+        SlowQueriesResource slowQueriesResource = new SlowQueriesResource(slowQueryLog);
+        this.restSlowQueriesMockMvc = MockMvcBuilders
+            .standaloneSetup(slowQueriesResource)
+            .setMessageConverters(jacksonMessageConverter)
+            .build();
+    }
+
+    @Test
+    public void getAllSlowQueries() throws Exception {
+        slowQueryLog.record("select id from entry where blog_id=?", Collections.singletonMap(1, 42L), 3L, 1_500_000_000L);
+
+        restSlowQueriesMockMvc.perform(get("/management/slow-queries"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$.[0].sql").value("select id from entry where blog_id=?"))
+            .andExpect(jsonPath("$.[0].parameters.[0]").value("42"))
+            .andExpect(jsonPath("$.[0].rows").value(3))
+            .andExpect(jsonPath("$.[0].elapsedMs").value(1500))
+            .andExpect(jsonPath("$.[0].callSite").isNotEmpty())
+            .andExpect(jsonPath("$.[0].timestamp").isNotEmpty());
+    }
+
+    @Test
+    public void clearSlowQueries() throws Exception {
+        slowQueryLog.record("select 1", Collections.emptyMap(), 1L, 0);
+
+        restSlowQueriesMockMvc.perform(delete("/management/slow-queries"))
+            .andExpect(status().isNoContent());
+
+        restSlowQueriesMockMvc.perform(get("/management/slow-queries"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(0)));
+    }
+}
@@ -4,10 +4,12 @@ import br.eti.krebscode.blogjhipster.BlogJhipsterApp;
 
 import br.eti.krebscode.blogjhipster.domain.Tag;
 import br.eti.krebscode.blogjhipster.repository.TagRepository;
+import br.eti.krebscode.blogjhipster.service.CacheWarmUpService;
 import br.eti.krebscode.blogjhipster.service.TagService;
 import br.eti.krebscode.blogjhipster.service.dto.TagDTO;
 import br.eti.krebscode.blogjhipster.service.mapper.TagMapper;
 import br.eti.krebscode.blogjhipster.web.rest.errors.ExceptionTranslator;
+import br.eti.krebscode.blogjhipster.web.rest.util.MergePatcher;
 import br.eti.krebscode.blogjhipster.service.dto.TagCriteria;
 import br.eti.krebscode.blogjhipster.service.TagQueryService;
 
@@ -18,6 +20,7 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.test.context.junit4.SpringRunner;
@@ -31,6 +34,7 @@ import javax.persistence.EntityManager;
 import java.util.List;
 
 
+import static br.eti.krebscode.blogjhipster.web.rest.TestUtil.assertQueryCount;
 import static br.eti.krebscode.blogjhipster.web.rest.TestUtil.createFormattingConversionService;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasItem;
@@ -66,6 +70,9 @@ public class TagResourceIntTest {
     @Autowired
     private TagQueryService tagQueryService;
 
+    @Autowired
+    private CacheWarmUpService cacheWarmUpService;
+
     @Autowired
     private MappingJackson2HttpMessageConverter jacksonMessageConverter;
 
@@ -75,6 +82,9 @@ public class TagResourceIntTest {
     @Autowired
     private ExceptionTranslator exceptionTranslator;
 
+    @Autowired
+    private MergePatcher mergePatcher;
+
     @Autowired
     private EntityManager em;
 
@@ -88,7 +98,7 @@ public class TagResourceIntTest {
     @Before
     public void setup() {
         MockitoAnnotations.initMocks(this);
-        final TagResource tagResource = new TagResource(tagService, tagQueryService);
+        final TagResource tagResource = new TagResource(tagService, tagQueryService, cacheWarmUpService, mergePatcher);
         this.restTagMockMvc = MockMvcBuilders.standaloneSetup(tagResource)
             .setCustomArgumentResolvers(pageableArgumentResolver)
             .setControllerAdvice(exceptionTranslator)
@@ -183,13 +193,13 @@ public class TagResourceIntTest {
         tagRepository.saveAndFlush(tag);
 
         // Get all the tagList
-        restTagMockMvc.perform(get("/api/tags?sort=id,desc"))
+        assertQueryCount(1, () -> restTagMockMvc.perform(get("/api/tags?sort=id,desc"))
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
             .andExpect(jsonPath("$.[*].id").value(hasItem(tag.getId().intValue())))
             .andExpect(jsonPath("$.[*].name").value(hasItem(DEFAULT_NAME.toString())))
             .andExpect(jsonPath("$.[*].imageContentType").value(hasItem(DEFAULT_IMAGE_CONTENT_TYPE)))
-            .andExpect(jsonPath("$.[*].image").value(hasItem(Base64Utils.encodeToString(DEFAULT_IMAGE))));
+            .andExpect(jsonPath("$.[*].image").value(hasItem(Base64Utils.encodeToString(DEFAULT_IMAGE)))));
     }
     
     @Test
@@ -283,6 +293,24 @@ public class TagResourceIntTest {
     }
 
 
+    @Test
+    @Transactional
+    public void getTagNotModified() throws Exception {
+        // Initialize the database
+        tagRepository.saveAndFlush(tag);
+
+        String eTag = restTagMockMvc.perform(get("/api/tags/{id}", tag.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).isNotNull();
+
+        restTagMockMvc.perform(get("/api/tags/{id}", tag.getId())
+            .header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+    }
+
     @Test
     @Transactional
     public void getNonExistingTag() throws Exception {
@@ -323,6 +351,28 @@ public class TagResourceIntTest {
         assertThat(testTag.getImageContentType()).isEqualTo(UPDATED_IMAGE_CONTENT_TYPE);
     }
 
+    @Test
+    @Transactional
+    public void partialUpdateTag() throws Exception {
+        // Initialize the database
+        tagRepository.saveAndFlush(tag);
+        em.clear();
+
+        restTagMockMvc.perform(patch("/api/tags/{id}", tag.getId())
+            .contentType(MergePatcher.APPLICATION_MERGE_PATCH_JSON_VALUE)
+            .content("{\"version\": " + tag.getVersion() + ", \"name\": \"" + UPDATED_NAME + "\"}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.name").value(UPDATED_NAME))
+            .andExpect(jsonPath("$.imageContentType").value(DEFAULT_IMAGE_CONTENT_TYPE));
+
+        // Validate the Tag in the database
+        em.clear();
+        Tag testTag = tagRepository.findById(tag.getId()).get();
+        assertThat(testTag.getName()).isEqualTo(UPDATED_NAME);
+        assertThat(testTag.getImage()).isEqualTo(DEFAULT_IMAGE);
+        assertThat(testTag.getImageContentType()).isEqualTo(DEFAULT_IMAGE_CONTENT_TYPE);
+    }
+
     @Test
     @Transactional
     public void updateNonExistingTag() throws Exception {
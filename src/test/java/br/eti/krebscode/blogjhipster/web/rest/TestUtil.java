@@ -1,5 +1,7 @@
 package br.eti.krebscode.blogjhipster.web.rest;
 
+import br.eti.krebscode.blogjhipster.config.datasource.StatementStatistics;
+
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
@@ -14,6 +16,7 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeParseException;
+import java.util.concurrent.Callable;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -125,6 +128,28 @@ public final class TestUtil {
         assertThat(domainObject1.hashCode()).isEqualTo(domainObject2.hashCode());
     }
 
+    /**
+     * Verifies the number of SQL statements executed by an action, typically a MockMvc request, to catch the N+1
+     * queries. The statements already pending in the persistence context, like the inserts of the test data, should
+     * be flushed before.
+     *
+     * @param expected the number of statements, a JDBC batch counting as one statement
+     * @param action the action to run
+     * @return the result of the action
+     */
+    public static <T> T assertQueryCount(int expected, Callable<T> action) throws Exception {
+        StatementStatistics statistics = StatementStatistics.start();
+        T result;
+        try {
+            result = action.call();
+        } finally {
+            StatementStatistics.stop();
+        }
+        assertThat(statistics.getCount()).as("SQL statements (%s, slowest: %s)", statistics,
+            statistics.getSlowestStatement()).isEqualTo(expected);
+        return result;
+    }
+
     /**
      * Create a FormattingConversionService which use ISO date format, instead of the localized one.
      * @return the FormattingConversionService
@@ -103,6 +103,9 @@ public class UserResourceIntTest {
     public void setup() {
         cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).clear();
         cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE).clear();
+        cacheManager.getCache(UserRepository.MISSING_USERS_BY_LOGIN_CACHE).clear();
+        cacheManager.getCache(UserRepository.MISSING_USERS_BY_EMAIL_CACHE).clear();
+        cacheManager.getCache(UserService.ACCOUNTS_CACHE).clear();
         UserResource userResource = new UserResource(userService, userRepository, mailService);
 
         this.restUserMockMvc = MockMvcBuilders.standaloneSetup(userResource)
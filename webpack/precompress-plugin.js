@@ -0,0 +1,52 @@
+const zlib = require('zlib');
+
+const PLUGIN_NAME = 'PrecompressPlugin';
+
+/**
+ * Emits a Brotli (".br") and a gzip (".gz") variant next to each text asset, so that the server sends them as they are
+ * instead of compressing the assets on each request (see PrecompressedResourceResolver).
+ *
+ * It must be the last plugin emitting assets, so that the index, the copied resources and the service worker are
+ * compressed as well.
+ */
+class PrecompressPlugin {
+    constructor(options = {}) {
+        this.test = options.test || /\.(js|css|html|json|webapp|svg|txt)$/;
+        this.threshold = options.threshold === undefined ? 1024 : options.threshold;
+    }
+
+    apply(compiler) {
+        compiler.hooks.emit.tap(PLUGIN_NAME, compilation => {
+            if (!zlib.brotliCompressSync) {
+                compilation.warnings.push(new Error(`${PLUGIN_NAME}: Brotli needs Node.js 10.16 or later, only gzip is emitted`));
+            }
+            Object.keys(compilation.assets)
+                .filter(name => this.test.test(name))
+                .forEach(name => {
+                    const source = compilation.assets[name].source();
+                    const content = Buffer.isBuffer(source) ? source : Buffer.from(source);
+                    if (content.length < this.threshold) {
+                        return;
+                    }
+                    if (zlib.brotliCompressSync) {
+                        addAsset(compilation, `${name}.br`, zlib.brotliCompressSync(content, {
+                            params: {
+                                [zlib.constants.BROTLI_PARAM_QUALITY]: zlib.constants.BROTLI_MAX_QUALITY,
+                                [zlib.constants.BROTLI_PARAM_SIZE_HINT]: content.length
+                            }
+                        }));
+                    }
+                    addAsset(compilation, `${name}.gz`, zlib.gzipSync(content, { level: zlib.constants.Z_BEST_COMPRESSION }));
+                });
+        });
+    }
+}
+
+function addAsset(compilation, name, content) {
+    compilation.assets[name] = {
+        source: () => content,
+        size: () => content.length
+    };
+}
+
+module.exports = PrecompressPlugin;